@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph.Topology;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
+
+/**
+ * Shared setup of the benchmarks.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public final class BenchmarkSupport {
+
+  public static final long SEED = 10L;
+  public static final int MAX_DEGREE = 10;
+
+  private BenchmarkSupport() {
+  }
+
+  /**
+   * Initialize the random seed of StandardParameters, unless it was done
+   * already in this JVM by another benchmark or trial.
+   */
+  public static void initRandom() {
+
+    if (!StandardParameters.isInitialized()) {
+      StandardParameters.initialization(SEED);
+    }
+  }
+
+  /**
+   * Random regular graph of the given size, indexed and ready for moves. The
+   * out-degree is 2 for the demo-sized graphs up to MAX_DEGREE edges,
+   * otherwise MAX_DEGREE.
+   *
+   * @param edges number of edges, rounded down to a multiple of the
+   * out-degree.
+   * @param mode fraction mode.
+   * @return graph.
+   */
+  public static SyntheticGraph graph(int edges, StandardGraph.FractionMode mode) {
+
+    var degree = edges <= MAX_DEGREE ? 2 : MAX_DEGREE;
+    var graph = new SyntheticGraph(Topology.Random_Regular, Math.max(edges / degree, degree + 1), degree)
+            .setSeed(SEED);
+    graph.init_graph();
+    graph.setFraction_mode(mode);
+    graph.reindex();
+    return graph;
+  }
+}
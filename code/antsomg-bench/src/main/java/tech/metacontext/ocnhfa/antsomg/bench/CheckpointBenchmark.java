@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.GraphSnapshot;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.*;
+
+/**
+ * Capture, write and restore of GraphSnapshot. The setup first checks that a
+ * graph restored from a snapshot continues bit for bit like the graph it was
+ * taken from, and fails the trial otherwise.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckpointBenchmark {
+
+  @Param({"200", "100000"})
+  int edges;
+
+  SyntheticGraph graph;
+  SyntheticGraph target;
+  GraphSnapshot snapshot;
+  Path file;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+
+    BenchmarkSupport.initRandom();
+    this.file = Files.createTempFile("checkpoint", GraphSnapshot.EXTENSION);
+    checkResume(edges, 7, 5, this.file);
+    this.graph = BenchmarkSupport.graph(edges, FractionMode.Coefficient);
+    iterate(this.graph, 0, 7);
+    this.target = BenchmarkSupport.graph(edges, FractionMode.Coefficient);
+    this.snapshot = GraphSnapshot.of(this.graph);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+
+    Files.deleteIfExists(this.file);
+  }
+
+  /**
+   * Check that a graph restored from the snapshot of another graph after some
+   * iterations ends with the same decay factor and pheromone trails as that
+   * graph, once both went on for more iterations.
+   *
+   * @param edges number of edges of the graphs.
+   * @param before iterations before the snapshot.
+   * @param after iterations after the snapshot.
+   * @param file file to write the snapshot into.
+   * @throws IOException
+   */
+  public static void checkResume(int edges, int before, int after, Path file)
+          throws IOException {
+
+    var original = BenchmarkSupport.graph(edges, FractionMode.Coefficient);
+    iterate(original, 0, before);
+    GraphSnapshot.write(original, file);
+    var resumed = BenchmarkSupport.graph(edges, FractionMode.Coefficient);
+    GraphSnapshot.read(file).restore(resumed, true);
+    iterate(original, before, after);
+    iterate(resumed, before, after);
+    if (Double.compare(original.getDecay(), resumed.getDecay()) != 0) {
+      throw new IllegalStateException(String.format(
+              "Resumed decay %s differs from %s.", resumed.getDecay(), original.getDecay()));
+    }
+    for (int i = 0; i < original.getEdgeCount(); i++) {
+      if (Double.compare(original.getPheromone(i), resumed.getPheromone(i)) != 0) {
+        throw new IllegalStateException(String.format(
+                "Resumed trail of edge %d is %s instead of %s.", i,
+                resumed.getPheromone(i), original.getPheromone(i)));
+      }
+    }
+  }
+
+  /**
+   * Deterministic iterations of evaporation followed by deposits on every
+   * seventh edge, shifted by the iteration.
+   */
+  private static void iterate(SyntheticGraph graph, int start, int iterations) {
+
+    for (int k = start; k < start + iterations; k++) {
+      graph.evaporate(EVAPORATE_RATE);
+      for (int i = k % 7; i < graph.getEdgeCount(); i += 7) {
+        graph.addPheromone(i, 1.0 + i * 0x1p-10);
+      }
+    }
+  }
+
+  @Benchmark
+  public GraphSnapshot capture() {
+
+    return GraphSnapshot.of(graph);
+  }
+
+  @Benchmark
+  public void write() throws IOException {
+
+    snapshot.write(file);
+  }
+
+  @Benchmark
+  public int restore() {
+
+    return snapshot.restore(target, true);
+  }
+}
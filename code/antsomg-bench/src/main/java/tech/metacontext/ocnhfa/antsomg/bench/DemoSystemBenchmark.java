@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.metacontext.ocnhfa.antsomg.demo.DemoSystem;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine.ExecutionMode;
+
+/**
+ * Full runs of the DemoSystem, from fresh graphs and population until every
+ * ant completes its route. DemoSystem initializes the random seed in its
+ * constructor, which may happen once per JVM, so the system is created once
+ * per fork and reinitialized for every run. With batched, the ants on the
+ * same vertex are moved together, whatever the execution mode.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DemoSystemBenchmark {
+
+  @Param({"10", "1000"})
+  int population;
+
+  @Param({"Sequential", "ForkJoin"})
+  ExecutionMode mode;
+
+  @Param({"false", "true"})
+  boolean batched;
+
+  DemoSystem demo;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    this.demo = new DemoSystem(population, BenchmarkSupport.SEED);
+    this.demo.getEngine().setMode(mode);
+    this.demo.setBatched(batched);
+  }
+
+  @Benchmark
+  public int run() {
+
+    demo.init_graphs();
+    demo.init_population();
+    return demo.getEngine().run();
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
+
+/**
+ * XML, Graphviz and Cypher export of StandardGraph, both into Strings and
+ * streamed into a writer discarding the output, which leaves the cost of the
+ * exporters alone.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportBenchmark {
+
+  @Param({"6", "1000", "100000"})
+  int edges;
+
+  SyntheticGraph graph;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    BenchmarkSupport.initRandom();
+    this.graph = BenchmarkSupport.graph(edges, FractionMode.Coefficient);
+  }
+
+  @Benchmark
+  public String asXML() {
+
+    return graph.asXML();
+  }
+
+  @Benchmark
+  public String asGraphviz() {
+
+    return graph.asGraphviz();
+  }
+
+  @Benchmark
+  public String asCypher() {
+
+    return graph.asCypher();
+  }
+
+  @Benchmark
+  public void writeXML() throws IOException {
+
+    graph.writeXML(Writer.nullWriter());
+  }
+
+  @Benchmark
+  public void writeGraphviz() throws IOException {
+
+    graph.writeGraphviz(Writer.nullWriter());
+  }
+
+  @Benchmark
+  public void writeCypher() throws IOException {
+
+    graph.writeCypher(Writer.nullWriter());
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticEdge;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.*;
+
+/**
+ * Adjacency queries and evaporation of StandardGraph, which do not depend on
+ * the FractionMode.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+  @Param({"6", "1000", "100000"})
+  int edges;
+
+  SyntheticGraph graph;
+  long cursor;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    BenchmarkSupport.initRandom();
+    this.graph = BenchmarkSupport.graph(edges, FractionMode.Coefficient);
+  }
+
+  @Benchmark
+  public List<SyntheticEdge> queryByVertex() {
+
+    return graph.queryByVertex(graph.vertexAt(cursor++));
+  }
+
+  @Benchmark
+  public double evaporate() {
+
+    graph.evaporate(EVAPORATE_RATE);
+    return graph.getDecay();
+  }
+
+  /**
+   * Evaporation folded into the trails of all edges every time, as the
+   * worst case of evaporate().
+   *
+   * @return decay factor.
+   */
+  @Benchmark
+  public double renormalize() {
+
+    graph.evaporate(EVAPORATE_RATE);
+    graph.renormalize();
+    return graph.getDecay();
+  }
+}
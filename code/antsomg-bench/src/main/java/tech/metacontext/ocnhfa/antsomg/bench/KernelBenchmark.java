@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.metacontext.ocnhfa.antsomg.impl.Kernels;
+import tech.metacontext.ocnhfa.antsomg.impl.Kernels.Kind;
+
+/**
+ * Scalar against vector kernels, scoring the out-edges of a vertex of the
+ * given degree with their ids scattered over a graph of 10^5 edges, and
+ * scaling all trails of the graph. The vector kernels gather by edge id, which
+ * pays off less than contiguous loads would. The vector kernels are only
+ * available if antsomg was built with the profile vector.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class KernelBenchmark {
+
+  static final int EDGES = 100000;
+
+  @Param({"Scalar", "Vector"})
+  Kind kind;
+
+  @Param({"8", "64", "1024"})
+  int degree;
+
+  Kernels kernels;
+  double[] trails, heuristics, fractions;
+  int[] ids;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    this.kernels = Kernels.of(kind);
+    var random = new SplittableRandom(BenchmarkSupport.SEED);
+    this.trails = random.doubles(EDGES).toArray();
+    this.heuristics = random.doubles(EDGES).toArray();
+    this.ids = random.ints(degree, 0, EDGES).toArray();
+    this.fractions = new double[degree];
+  }
+
+  @Benchmark
+  public double[] linear() {
+
+    kernels.linear(trails, 0.5, 1.0, heuristics, ids, 0, degree, fractions);
+    return fractions;
+  }
+
+  @Benchmark
+  public double[] product() {
+
+    kernels.product(trails, 0.5, heuristics, ids, 0, degree, fractions);
+    return fractions;
+  }
+
+  /**
+   * Halve and double all trails, which leaves them exact. Independent of the
+   * degree.
+   *
+   * @return trails.
+   */
+  @Benchmark
+  public double[] scale() {
+
+    kernels.scale(trails, EDGES, 0.5);
+    kernels.scale(trails, EDGES, 2.0);
+    return trails;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticEdge;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.*;
+
+/**
+ * StandardGraph.move() in every FractionMode, visiting the vertices of the
+ * graph in turn.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+  @Param({"6", "1000", "100000"})
+  int edges;
+
+  @Param({"Power", "Power_Multiply", "Coefficient"})
+  FractionMode mode;
+
+  SyntheticGraph graph;
+  long cursor;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    BenchmarkSupport.initRandom();
+    this.graph = BenchmarkSupport.graph(edges, mode);
+  }
+
+  @Benchmark
+  public StandardMove<SyntheticEdge> move() {
+
+    return graph.move(graph.vertexAt(cursor++), PHEROMONE_DEPOSIT, EXPLORE_CHANCE);
+  }
+}
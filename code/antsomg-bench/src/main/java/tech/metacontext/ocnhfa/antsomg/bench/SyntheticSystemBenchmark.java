@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticGraph.Topology;
+import tech.metacontext.ocnhfa.antsomg.demo.synthetic.SyntheticSystem;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine.ExecutionMode;
+
+/**
+ * Full runs of a three-dimensional SyntheticSystem, from a fresh population
+ * until every ant completes its route. The graphs are generated once per
+ * trial, so the pheromone trails carry over from run to run.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyntheticSystemBenchmark {
+
+  @Param({"Random_Regular", "Layered_DAG", "Small_World"})
+  Topology topology;
+
+  @Param({"1000", "100000"})
+  int vertices;
+
+  @Param({"100", "1000"})
+  int population;
+
+  @Param({"Sequential", "ForkJoin"})
+  ExecutionMode mode;
+
+  @Param({"false", "true"})
+  boolean compact;
+
+  SyntheticSystem system;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    BenchmarkSupport.initRandom();
+    this.system = new SyntheticSystem(3, i -> new SyntheticGraph(topology, vertices,
+            BenchmarkSupport.MAX_DEGREE).setSeed(BenchmarkSupport.SEED + i), population);
+    this.system.getEngine().setMode(mode);
+    this.system.setCompact_routes(compact);
+    this.system.init_graphs();
+  }
+
+  @Benchmark
+  public int run() {
+
+    system.init_population();
+    return system.getEngine().run();
+  }
+}
@@ -15,15 +15,26 @@
  */
 package tech.metacontext.ocnhfa.antsomg.demo;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import static java.util.function.Predicate.not;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import tech.metacontext.ocnhfa.antsomg.demo.x.Graph_X;
 import tech.metacontext.ocnhfa.antsomg.demo.y.Graph_Y;
 import tech.metacontext.ocnhfa.antsomg.demo.z.Graph_Z;
+import tech.metacontext.ocnhfa.antsomg.impl.CompletionPublisher;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardEdge;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardVertex;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.*;
 import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
 
@@ -31,16 +42,20 @@ import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
  *
  * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
  */
-public class DemoSystem implements AntsOMGSystem<DemoAnt> {
+public class DemoSystem implements AntsOMGSystem<DemoAnt>, NavigationEngine.Step<DemoAnt> {
 
    int ant_population;
    Map<String, ? extends StandardGraph> graphs;
    List<DemoAnt> ants;
+   final NavigationEngine<DemoAnt> engine;
+   CompletionPublisher<DemoAnt> publisher;
 
    public DemoSystem(int ant_population, long seed) {
 
       this.ant_population = ant_population;
       StandardParameters.initialization(seed);
+      this.publisher = new CompletionPublisher<>();
+      this.engine = NavigationEngine.of(this).setPublisher(this.publisher);
    }
 
    @Override
@@ -57,6 +72,10 @@ public class DemoSystem implements AntsOMGSystem<DemoAnt> {
    @Override
    public void init_population() {
 
+      if (this.publisher.isClosed()) {
+         this.publisher = new CompletionPublisher<>();
+         this.engine.setPublisher(this.publisher);
+      }
       this.ants = Stream.generate(()
               -> new DemoAnt(
                       getX().getStart(),
@@ -84,34 +103,116 @@ public class DemoSystem implements AntsOMGSystem<DemoAnt> {
    @Override
    public void navigate() {
 
-      this.ants.stream().forEach(ant -> {
-         if (!ant.isCompleted()) {
-            var trace = ant.getCurrentTrace();
-            var x = getX().move(trace.getX().getSelected().getTo(),
-                    PHEROMONE_DEPOSIT, EXPLORE_CHANCE);
-            var y = getY().move(trace.getY().getSelected().getTo(),
-                    PHEROMONE_DEPOSIT, EXPLORE_CHANCE);
-            var z = getZ().move(trace.getZ().getSelected().getTo(),
-                    PHEROMONE_DEPOSIT, EXPLORE_CHANCE);
-            var new_trace = new DemoTrace(x, y, z);
-            ant.setCurrentTrace(new_trace);
-            if (new_trace.getDimension("x").equals(getX().getStart())
-                    && new_trace.getDimension("y").equals(getY().getStart())
-                    && new_trace.getDimension("z").equals(getZ().getStart())) {
-               ant.addCurrentTraceToRoute();
-               ant.setCompleted(true);
-            }
+      this.engine.iterate();
+      if (isAimAchieved()) {
+         this.publisher.close();
+      }
+   }
+
+   @Override
+   public void step(DemoAnt ant) {
+
+      if (!ant.isCompleted()) {
+         var trace = ant.getCurrentTrace();
+         var x = getX().move(trace.getX().getSelected().getTo(),
+                 PHEROMONE_DEPOSIT, EXPLORE_CHANCE);
+         var y = getY().move(trace.getY().getSelected().getTo(),
+                 PHEROMONE_DEPOSIT, EXPLORE_CHANCE);
+         var z = getZ().move(trace.getZ().getSelected().getTo(),
+                 PHEROMONE_DEPOSIT, EXPLORE_CHANCE);
+         advance(ant, new DemoTrace(x, y, z));
+      }
+   }
+
+   /**
+    * Step all ants at once, moving the ants on the same vertex of a graph
+    * together with StandardGraph.moveAll().
+    *
+    * @param ants ants to be stepped.
+    */
+   public void stepAll(List<? extends DemoAnt> ants) {
+
+      List<DemoAnt> moving = ants.stream()
+              .filter(not(DemoAnt::isCompleted))
+              .collect(Collectors.toList());
+      var x = moveAll(getX(), moving, DemoTrace::getX);
+      var y = moveAll(getY(), moving, DemoTrace::getY);
+      var z = moveAll(getZ(), moving, DemoTrace::getZ);
+      for (int i = 0; i < moving.size(); i++) {
+         advance(moving.get(i), new DemoTrace(x.get(i), y.get(i), z.get(i)));
+      }
+   }
+
+   private static <E extends StandardEdge<V>, V extends StandardVertex> List<StandardMove<E>> moveAll(
+           StandardGraph<E, V> graph, List<DemoAnt> ants,
+           Function<DemoTrace, StandardMove<E>> dimension) {
+
+      var groups = new LinkedHashMap<V, List<Integer>>();
+      for (int i = 0; i < ants.size(); i++) {
+         var current = dimension.apply(ants.get(i).getCurrentTrace()).getSelected().getTo();
+         groups.computeIfAbsent(current, vertex -> new ArrayList<>()).add(i);
+      }
+      var moves = new ArrayList<StandardMove<E>>(Collections.nCopies(ants.size(), null));
+      groups.forEach((vertex, members) -> {
+         var batch = graph.moveAll(vertex, members.size(),
+                 PHEROMONE_DEPOSIT, EXPLORE_CHANCE, true);
+         for (int j = 0; j < members.size(); j++) {
+            moves.set(members.get(j), batch.getMove(j));
          }
       });
-      this.evaporate();
+      return moves;
+   }
+
+   private void advance(DemoAnt ant, DemoTrace new_trace) {
+
+      ant.setCurrentTrace(new_trace);
+      if (new_trace.getDimension("x").equals(getX().getStart())
+              && new_trace.getDimension("y").equals(getY().getStart())
+              && new_trace.getDimension("z").equals(getZ().getStart())) {
+         ant.addCurrentTraceToRoute();
+         ant.setCompleted(true);
+      }
+   }
+
+   public boolean isBatched() {
+
+      return Objects.nonNull(this.engine.getGroup_step());
+   }
+
+   /**
+    * Move the ants on the same vertex together, which draws the random
+    * numbers in a different order than stepping the ants one by one.
+    *
+    * @param batched whether to step the ants with stepAll().
+    */
+   public void setBatched(boolean batched) {
+
+      this.engine.setGroup_step(batched ? this::stepAll : null);
+   }
+
+   /**
+    * Publisher of the ants as they complete, after every step of the engine.
+    * The publisher is closed once the aim is achieved, and renewed by
+    * init_population().
+    *
+    * @return publisher of the completed ants.
+    */
+   @Override
+   public CompletionPublisher<DemoAnt> getPublisher() {
+
+      return this.publisher;
+   }
+
+   public NavigationEngine<DemoAnt> getEngine() {
+
+      return this.engine;
    }
 
    @Override
    public void evaporate() {
 
-      Stream.of(getX().getEdges(), getY().getEdges(), getZ().getEdges())
-              .flatMap(List::stream)
-              .forEach(edge -> edge.evaporate(EVAPORATE_RATE));
+      Stream.of(getX(), getY(), getZ())
+              .forEach(graph -> graph.evaporate(EVAPORATE_RATE));
    }
 
    @Override
@@ -57,6 +57,21 @@ public class DemoTrace implements Trace {
         };
     }
 
+    @Override
+    public Vertex getDimension(int dimension) {
+
+        return switch (dimension) {
+            case 0->
+                this.x.getSelected().getTo();
+            case 1->
+                this.y.getSelected().getTo();
+            case 2->
+                this.z.getSelected().getTo();
+            default->
+                null;
+        };
+    }
+
     public StandardMove<Edge_X> getX() {
 
         return this.x;
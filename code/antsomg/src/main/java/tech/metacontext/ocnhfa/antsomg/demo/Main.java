@@ -37,9 +37,7 @@ public class Main {
 
         demo.init_population();
 
-        while (!demo.isAimAchieved()) {
-            demo.navigate();
-        }
+        demo.getEngine().run();
 
         demo.getAnts().forEach(ant -> {
             System.out.println("***Ant");
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.demo.synthetic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import tech.metacontext.ocnhfa.antsomg.model.Ant;
+
+/**
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class SyntheticAnt implements Ant<SyntheticTrace> {
+
+    SyntheticTrace currentTrace;
+    List<SyntheticTrace> route;
+    private boolean completed;
+
+    public SyntheticAnt(SyntheticTrace start) {
+
+        this(start, new ArrayList<>());
+    }
+
+    /**
+     * @param start
+     * @param route empty route, e.g. a CompactRoute.
+     */
+    public SyntheticAnt(SyntheticTrace start, List<SyntheticTrace> route) {
+
+        this.currentTrace = start;
+        this.route = route;
+    }
+
+    @Override
+    public List<SyntheticTrace> getRoute() {
+
+        return this.route;
+    }
+
+    @Override
+    public void addCurrentTraceToRoute() {
+
+        this.route.add(this.currentTrace);
+    }
+
+    @Override
+    public SyntheticTrace getCurrentTrace() {
+
+        return this.currentTrace;
+    }
+
+    @Override
+    public void setCurrentTrace(SyntheticTrace trace) {
+
+        if (Objects.nonNull(this.currentTrace)) {
+            this.addCurrentTraceToRoute();
+        }
+        this.currentTrace = trace;
+    }
+
+    public boolean isCompleted() {
+
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+
+        this.completed = completed;
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.demo.synthetic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
+
+/**
+ * Parameterised graph for load testing, generated from its own seed so that
+ * the same parameters always give the same graph, independent of
+ * StandardParameters.getRandom(). The vertices are named v0, v1, ... in the
+ * order of creation and v0 is the start.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class SyntheticGraph extends StandardGraph<SyntheticEdge, SyntheticVertex> {
+
+    public enum Topology {
+
+        /**
+         * Every vertex has out-degree distinct targets other than itself, drawn
+         * uniformly.
+         */
+        Random_Regular,
+        /**
+         * The start alone in the first layer, followed by layers of
+         * layer_width vertices, each with out-degree distinct targets in the
+         * next layer, like the loci of CptCfPitchSpace. The vertices of the
+         * last layer have no out-edges.
+         */
+        Layered_DAG,
+        /**
+         * Ring lattice of every vertex to its next out-degree vertices, each
+         * edge of which is rewired to a random target with the rewiring
+         * probability (Watts-Strogatz). Complete graphs are not rewired.
+         */
+        Small_World;
+    }
+
+    public enum CostDistribution {
+
+        /**
+         * min_cost for every edge.
+         */
+        Constant,
+        /**
+         * Uniform in [min_cost, max_cost).
+         */
+        Uniform,
+        /**
+         * min_cost plus an exponential variate with the mean of a quarter of
+         * the cost range, truncated at max_cost.
+         */
+        Exponential;
+
+        public double sample(SplittableRandom random, double min_cost, double max_cost) {
+
+            return switch (this) {
+                case Constant ->
+                    min_cost;
+                case Uniform ->
+                    random.nextDouble(min_cost, max_cost);
+                case Exponential ->
+                    Math.min(max_cost, min_cost
+                    - Math.log(1.0 - random.nextDouble()) * (max_cost - min_cost) / 4);
+            };
+        }
+    }
+
+    private final Topology topology;
+    private final int vertex_count, degree;
+    private CostDistribution cost_distribution = CostDistribution.Uniform;
+    private double min_cost = 1.0, max_cost = 5.0;
+    private int layer_width;
+    private double rewiring = 0.1;
+    private long seed;
+    private SyntheticVertex[] vertices;
+
+    /**
+     * @param topology
+     * @param vertex_count number of vertices, at least out-degree + 1.
+     * @param degree out-degree of the vertices.
+     */
+    public SyntheticGraph(Topology topology, int vertex_count, int degree) {
+
+        this(topology, vertex_count, degree, StandardParameters.ALPHA, StandardParameters.BETA);
+    }
+
+    public SyntheticGraph(Topology topology, int vertex_count, int degree, double alpha, double beta) {
+
+        super(alpha, beta);
+        if (degree < 1 || vertex_count <= degree) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid graph size, vertex_count=%d, degree=%d", vertex_count, degree));
+        }
+        this.topology = topology;
+        this.vertex_count = vertex_count;
+        this.degree = degree;
+        this.layer_width = degree * 2;
+    }
+
+    @Override
+    public void init_graph() {
+
+        var random = new SplittableRandom(seed);
+        this.vertices = new SyntheticVertex[vertex_count];
+        Arrays.setAll(vertices, v -> new SyntheticVertex("v" + v));
+        this.setStart(vertices[0]);
+        var edges = new ArrayList<SyntheticEdge>(vertex_count * degree);
+        switch (topology) {
+            case Random_Regular ->
+                randomRegular(random, edges);
+            case Layered_DAG ->
+                layeredDAG(random, edges);
+            case Small_World ->
+                smallWorld(random, edges);
+        }
+        this.setEdges(edges);
+    }
+
+    private void randomRegular(SplittableRandom random, List<SyntheticEdge> edges) {
+
+        for (int v = 0; v < vertex_count; v++) {
+            for (var target : distinct(random, vertex_count - 1, degree)) {
+                edges.add(edge(random, v, target < v ? target : target + 1));
+            }
+        }
+    }
+
+    private void layeredDAG(SplittableRandom random, List<SyntheticEdge> edges) {
+
+        var width = Math.max(layer_width, degree);
+        for (int layer = 0, v = 1; v < vertex_count; layer = v, v += width) {
+            var next = Math.min(v + width, vertex_count);
+            var targets = Math.min(degree, next - v);
+            for (int from = layer; from < v; from++) {
+                for (var target : distinct(random, next - v, targets)) {
+                    edges.add(edge(random, from, v + target));
+                }
+            }
+        }
+    }
+
+    private void smallWorld(SplittableRandom random, List<SyntheticEdge> edges) {
+
+        var targets = new int[degree];
+        var rewirable = degree < vertex_count - 1;
+        for (int v = 0; v < vertex_count; v++) {
+            for (int d = 0; d < degree; d++) {
+                targets[d] = (v + d + 1) % vertex_count;
+            }
+            for (int d = 0; d < degree; d++) {
+                if (rewirable && random.nextDouble() < rewiring) {
+                    int target;
+                    do {
+                        target = random.nextInt(vertex_count);
+                    } while (target == v || contains(targets, degree, target));
+                    targets[d] = target;
+                }
+            }
+            for (var target : targets) {
+                edges.add(edge(random, v, target));
+            }
+        }
+    }
+
+    private SyntheticEdge edge(SplittableRandom random, int from, int to) {
+
+        return new SyntheticEdge(vertices[from], vertices[to],
+                cost_distribution.sample(random, min_cost, max_cost));
+    }
+
+    /**
+     * Distinct numbers in [0, bound), by rejection for sparse draws and by a
+     * partial shuffle otherwise.
+     *
+     * @param random
+     * @param bound
+     * @param count not greater than bound.
+     * @return distinct numbers.
+     */
+    private static int[] distinct(SplittableRandom random, int bound, int count) {
+
+        var result = new int[count];
+        if (count * 2 <= bound) {
+            for (int i = 0; i < count; i++) {
+                int n;
+                do {
+                    n = random.nextInt(bound);
+                } while (contains(result, i, n));
+                result[i] = n;
+            }
+            return result;
+        }
+        var pool = new int[bound];
+        Arrays.setAll(pool, i -> i);
+        for (int i = 0; i < count; i++) {
+            var j = i + random.nextInt(bound - i);
+            var n = pool[j];
+            pool[j] = pool[i];
+            pool[i] = n;
+            result[i] = n;
+        }
+        return result;
+    }
+
+    private static boolean contains(int[] array, int size, int n) {
+
+        for (int i = 0; i < size; i++) {
+            if (array[i] == n) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vertex by its index in the order of creation, wrapping around.
+     *
+     * @param index any non-negative number.
+     * @return vertex.
+     */
+    public SyntheticVertex vertexAt(long index) {
+
+        return vertices[(int) (index % vertex_count)];
+    }
+
+    public Topology getTopology() {
+
+        return topology;
+    }
+
+    public int getVertex_count() {
+
+        return vertex_count;
+    }
+
+    public int getDegree() {
+
+        return degree;
+    }
+
+    public CostDistribution getCost_distribution() {
+
+        return cost_distribution;
+    }
+
+    public SyntheticGraph setCost_distribution(CostDistribution cost_distribution, double min_cost, double max_cost) {
+
+        this.cost_distribution = cost_distribution;
+        this.min_cost = min_cost;
+        this.max_cost = max_cost;
+        return this;
+    }
+
+    public double getMin_cost() {
+
+        return min_cost;
+    }
+
+    public double getMax_cost() {
+
+        return max_cost;
+    }
+
+    public int getLayer_width() {
+
+        return layer_width;
+    }
+
+    public SyntheticGraph setLayer_width(int layer_width) {
+
+        this.layer_width = layer_width;
+        return this;
+    }
+
+    public double getRewiring() {
+
+        return rewiring;
+    }
+
+    public SyntheticGraph setRewiring(double rewiring) {
+
+        this.rewiring = rewiring;
+        return this;
+    }
+
+    public long getSeed() {
+
+        return seed;
+    }
+
+    public SyntheticGraph setSeed(long seed) {
+
+        this.seed = seed;
+        return this;
+    }
+}
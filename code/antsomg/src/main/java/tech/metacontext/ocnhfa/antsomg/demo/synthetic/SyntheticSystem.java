@@ -0,0 +1,233 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.demo.synthetic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import tech.metacontext.ocnhfa.antsomg.impl.CompactRoute;
+import tech.metacontext.ocnhfa.antsomg.impl.CompletionPublisher;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.*;
+import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
+import tech.metacontext.ocnhfa.antsomg.model.Vertex;
+
+/**
+ * Ant system over any number of SyntheticGraphs, named d0, d1, ... as its
+ * dimensions. Every ant starts at the start vertices and moves in all
+ * dimensions at each step, until its route reaches route_length traces or it
+ * arrives at a vertex without out-edges in any dimension. The graphs are
+ * created anew by the factory on every init_graphs(), so that the system can
+ * be run repeatedly.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class SyntheticSystem implements AntsOMGSystem<SyntheticAnt>, NavigationEngine.Step<SyntheticAnt> {
+
+   public static int DEFAULT_ROUTE_LENGTH = 16;
+
+   final IntFunction<SyntheticGraph> factory;
+   final List<String> dimensions;
+   int ant_population;
+   int route_length;
+   List<SyntheticGraph> graph_list;
+   Map<String, SyntheticGraph> graphs;
+   List<SyntheticAnt> ants;
+   boolean compact_routes;
+   final NavigationEngine<SyntheticAnt> engine;
+   CompletionPublisher<SyntheticAnt> publisher;
+
+   /**
+    * Constructor for a random seed already initialized.
+    *
+    * @param dimensions number of graphs.
+    * @param factory graph of each dimension by its index.
+    * @param ant_population
+    */
+   public SyntheticSystem(int dimensions, IntFunction<SyntheticGraph> factory, int ant_population) {
+
+      this.factory = factory;
+      this.dimensions = IntStream.range(0, dimensions)
+              .mapToObj(i -> "d" + i)
+              .collect(Collectors.toUnmodifiableList());
+      this.ant_population = ant_population;
+      this.route_length = DEFAULT_ROUTE_LENGTH;
+      this.publisher = new CompletionPublisher<>();
+      this.engine = NavigationEngine.of(this).setPublisher(this.publisher);
+   }
+
+   public SyntheticSystem(int dimensions, IntFunction<SyntheticGraph> factory, int ant_population, long seed) {
+
+      this(dimensions, factory, ant_population);
+      StandardParameters.initialization(seed);
+   }
+
+   @Override
+   public void init_graphs() {
+
+      this.graph_list = IntStream.range(0, dimensions.size())
+              .mapToObj(factory)
+              .collect(Collectors.toList());
+      this.graph_list.forEach(SyntheticGraph::init_graph);
+      this.graphs = new LinkedHashMap<>();
+      for (int i = 0; i < dimensions.size(); i++) {
+         this.graphs.put(dimensions.get(i), graph_list.get(i));
+      }
+   }
+
+   @Override
+   public void init_population() {
+
+      if (this.publisher.isClosed()) {
+         this.publisher = new CompletionPublisher<>();
+         this.engine.setPublisher(this.publisher);
+      }
+      var codec = compact_routes ? new CompactRoute.Codec<>(dimensions.size(), this::trace) : null;
+      this.ants = Stream.generate(()
+              -> new SyntheticAnt(new SyntheticTrace(dimensions, graph_list.stream()
+                      .map(graph -> new StandardMove<>(new SyntheticEdge(graph.getStart())))
+                      .collect(Collectors.toList())),
+                      Objects.isNull(codec) ? new ArrayList<>() : codec.newRoute()))
+              .limit(ant_population)
+              .collect(Collectors.toList());
+   }
+
+   private SyntheticTrace trace(Vertex[] vertices) {
+
+      return new SyntheticTrace(dimensions, Arrays.stream(vertices)
+              .map(vertex -> new StandardMove<>(new SyntheticEdge((SyntheticVertex) vertex)))
+              .collect(Collectors.toList()));
+   }
+
+   @Override
+   public void navigate() {
+
+      this.engine.iterate();
+      if (isAimAchieved()) {
+         this.publisher.close();
+      }
+   }
+
+   @Override
+   public void step(SyntheticAnt ant) {
+
+      if (ant.isCompleted()) {
+         return;
+      }
+      var trace = ant.getCurrentTrace();
+      for (int i = 0; i < graph_list.size(); i++) {
+         if (graph_list.get(i).queryByVertex(trace.getVertex(i)).isEmpty()) {
+            ant.addCurrentTraceToRoute();
+            ant.setCompleted(true);
+            return;
+         }
+      }
+      var moves = new ArrayList<StandardMove<SyntheticEdge>>(graph_list.size());
+      for (int i = 0; i < graph_list.size(); i++) {
+         moves.add(graph_list.get(i).move(trace.getVertex(i),
+                 PHEROMONE_DEPOSIT, EXPLORE_CHANCE));
+      }
+      ant.setCurrentTrace(new SyntheticTrace(dimensions, moves));
+      if (ant.getRoute().size() + 1 >= route_length) {
+         ant.addCurrentTraceToRoute();
+         ant.setCompleted(true);
+      }
+   }
+
+   /**
+    * Publisher of the ants as they complete, after every step of the engine.
+    * The publisher is closed once the aim is achieved, and renewed by
+    * init_population().
+    *
+    * @return publisher of the completed ants.
+    */
+   @Override
+   public CompletionPublisher<SyntheticAnt> getPublisher() {
+
+      return this.publisher;
+   }
+
+   public NavigationEngine<SyntheticAnt> getEngine() {
+
+      return this.engine;
+   }
+
+   @Override
+   public void evaporate() {
+
+      this.graph_list.forEach(graph -> graph.evaporate(EVAPORATE_RATE));
+   }
+
+   @Override
+   public boolean isAimAchieved() {
+
+      return this.ants.stream().allMatch(SyntheticAnt::isCompleted);
+   }
+
+   @Override
+   public Map<String, SyntheticGraph> getGraphs() {
+
+      return this.graphs;
+   }
+
+   @Override
+   public List<SyntheticAnt> getAnts() {
+
+      return this.ants;
+   }
+
+   public List<String> getDimensions() {
+
+      return this.dimensions;
+   }
+
+   public boolean isCompact_routes() {
+
+      return compact_routes;
+   }
+
+   /**
+    * Keep the routes of the ants populated afterwards as CompactRoutes.
+    *
+    * @param compact_routes
+    * @return this SyntheticSystem.
+    */
+   public SyntheticSystem setCompact_routes(boolean compact_routes) {
+
+      this.compact_routes = compact_routes;
+      return this;
+   }
+
+   public int getRoute_length() {
+
+      return route_length;
+   }
+
+   public SyntheticSystem setRoute_length(int route_length) {
+
+      this.route_length = route_length;
+      return this;
+   }
+}
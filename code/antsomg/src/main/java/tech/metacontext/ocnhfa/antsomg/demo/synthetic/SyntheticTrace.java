@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.demo.synthetic;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
+import tech.metacontext.ocnhfa.antsomg.model.Trace;
+import tech.metacontext.ocnhfa.antsomg.model.Vertex;
+
+/**
+ * Trace of one move per dimension of a SyntheticSystem.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class SyntheticTrace implements Trace {
+
+    private final List<String> dimensions;
+    private final List<StandardMove<SyntheticEdge>> moves;
+
+    /**
+     * @param dimensions names of the dimensions, shared by all traces.
+     * @param moves moves in the order of the dimensions.
+     */
+    public SyntheticTrace(List<String> dimensions, List<StandardMove<SyntheticEdge>> moves) {
+
+        this.dimensions = dimensions;
+        this.moves = moves;
+    }
+
+    @Override
+    public Vertex getDimension(String dimension) {
+
+        var index = this.dimensions.indexOf(dimension);
+        return index < 0 ? null : getVertex(index);
+    }
+
+    @Override
+    public SyntheticVertex getDimension(int dimension) {
+
+        return getVertex(dimension);
+    }
+
+    public SyntheticVertex getVertex(int dimension) {
+
+        return this.moves.get(dimension).getSelected().getTo();
+    }
+
+    public StandardMove<SyntheticEdge> getMove(int dimension) {
+
+        return this.moves.get(dimension);
+    }
+
+    public List<StandardMove<SyntheticEdge>> getMoves() {
+
+        return this.moves;
+    }
+
+    @Override
+    public String toString() {
+
+        return this.moves.stream()
+                .map(move -> move.getSelected().getTo().getName())
+                .collect(Collectors.joining(", ", "SyntheticTrace{", "}"));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.List;
+
+/**
+ * Walker alias table over a fixed list of items, built with Vose's method. A
+ * sample takes one random number and constant time, regardless of the number
+ * of items.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ * @param <E>
+ */
+public final class AliasTable<E> {
+
+  private final List<E> items;
+  private final double[] probability;
+  private final int[] alias;
+
+  private AliasTable(List<E> items, double[] probability, int[] alias) {
+
+    this.items = items;
+    this.probability = probability;
+    this.alias = alias;
+  }
+
+  /**
+   * Build the alias table of the items with the given weights.
+   *
+   * @param <E>
+   * @param items items to be sampled.
+   * @param weights weights with at least items.size() elements.
+   * @return alias table, or null if the weights do not form a distribution.
+   */
+  public static <E> AliasTable<E> of(List<E> items, double[] weights) {
+
+    var size = items.size();
+    for (int i = 0; i < size; i++) {
+      if (!(weights[i] >= 0.0)) {
+        return null;
+      }
+    }
+    var sum = Roulette.sum(weights, size);
+    if (!(sum > 0.0) || Double.isInfinite(sum)) {
+      return null;
+    }
+    var probability = new double[size];
+    var alias = new int[size];
+    var scaled = new double[size];
+    var small = new int[size];
+    var large = new int[size];
+    int small_count = 0, large_count = 0;
+    for (int i = 0; i < size; i++) {
+      alias[i] = i;
+      scaled[i] = weights[i] * size / sum;
+      if (scaled[i] < 1.0) {
+        small[small_count++] = i;
+      } else {
+        large[large_count++] = i;
+      }
+    }
+    while (small_count > 0 && large_count > 0) {
+      var s = small[--small_count];
+      var l = large[--large_count];
+      probability[s] = scaled[s];
+      alias[s] = l;
+      scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+      if (scaled[l] < 1.0) {
+        small[small_count++] = l;
+      } else {
+        large[large_count++] = l;
+      }
+    }
+    // Leftovers are 1.0 up to rounding errors.
+    while (large_count > 0) {
+      probability[large[--large_count]] = 1.0;
+    }
+    while (small_count > 0) {
+      probability[small[--small_count]] = 1.0;
+    }
+    return new AliasTable<>(items, probability, alias);
+  }
+
+  /**
+   * Index of the item selected by the random number.
+   *
+   * @param u random number in [0, 1).
+   * @return selected index.
+   */
+  public int sample(double u) {
+
+    var x = u * probability.length;
+    var i = Math.min((int) x, probability.length - 1);
+    return x - i < probability[i] ? i : alias[i];
+  }
+
+  /**
+   * Item selected by the random number.
+   *
+   * @param u random number in [0, 1).
+   * @return selected item.
+   */
+  public E get(double u) {
+
+    return items.get(sample(u));
+  }
+
+  public List<E> getItems() {
+
+    return items;
+  }
+
+  public int size() {
+
+    return items.size();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Moves of a number of ants from the same vertex, drawn by
+ * StandardGraph.moveAll() from one distribution. The selections are kept as
+ * indices into the candidate paths; StandardMoves are only built for the ants
+ * asked for, unless recorded by moveAll() before the deposits.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ * @param <E>
+ */
+public final class BatchMove<E extends StandardEdge<? extends StandardVertex>> {
+
+  private final List<E> paths;
+  private final int[] selected;
+  private final boolean[] exploring;
+  private final int[] counts;
+  private StandardMove<E>[] moves;
+
+  BatchMove(List<E> paths, int[] selected, boolean[] exploring) {
+
+    this.paths = paths;
+    this.selected = selected;
+    this.exploring = exploring;
+    this.counts = new int[paths.size()];
+    for (var index : selected) {
+      this.counts[index]++;
+    }
+  }
+
+  /**
+   * Build the StandardMoves of all ants with the current pheromone trails. All
+   * ants share the records of the first one, whichever path they selected,
+   * since the records cover the same candidate paths.
+   */
+  @SuppressWarnings("unchecked")
+  void record() {
+
+    var moves = (StandardMove<E>[]) new StandardMove<?>[this.selected.length];
+    StandardMove<E> first = null;
+    for (int i = 0; i < moves.length; i++) {
+      moves[i] = Objects.isNull(first)
+              ? (first = StandardMove.getInstance(this.exploring[i], this.paths, get(i)))
+              : new StandardMove<>(this.exploring[i], get(i), first);
+    }
+    this.moves = moves;
+  }
+
+  /**
+   * Number of ants moved.
+   *
+   * @return number of ants.
+   */
+  public int size() {
+
+    return this.selected.length;
+  }
+
+  public List<E> getPaths() {
+
+    return this.paths;
+  }
+
+  /**
+   * Path selected by the ant.
+   *
+   * @param ant index of the ant in the batch.
+   * @return selected path.
+   */
+  public E get(int ant) {
+
+    return this.paths.get(this.selected[ant]);
+  }
+
+  /**
+   * Index of the path selected by the ant in getPaths().
+   *
+   * @param ant index of the ant in the batch.
+   * @return index of the selected path.
+   */
+  public int getIndex(int ant) {
+
+    return this.selected[ant];
+  }
+
+  public boolean isExploring(int ant) {
+
+    return this.exploring[ant];
+  }
+
+  /**
+   * Number of ants having selected the path.
+   *
+   * @param path index of the path in getPaths().
+   * @return number of ants.
+   */
+  public int getCount(int path) {
+
+    return this.counts[path];
+  }
+
+  /**
+   * StandardMove of the ant, as recorded by moveAll(), or else without
+   * pheromone records.
+   *
+   * @param ant index of the ant in the batch.
+   * @return StandardMove
+   */
+  public StandardMove<E> getMove(int ant) {
+
+    return Objects.nonNull(this.moves) ? this.moves[ant]
+            : new StandardMove<>(this.exploring[ant], get(ant));
+  }
+}
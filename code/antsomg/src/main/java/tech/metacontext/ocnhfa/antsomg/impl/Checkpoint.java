@@ -0,0 +1,616 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
+import tech.metacontext.ocnhfa.antsomg.model.Vertex;
+
+/**
+ * Checkpoint of an AntsOMGSystem between two iterations: the snapshots of its
+ * graphs, the state of the global random number stream and the state of the
+ * system itself, i.e. its ants and counters, written by the system as a
+ * Checkpoint.State. The checkpoint file holds a version header, a sequence
+ * number, the random state, the file names of the graph snapshots (see
+ * GraphSnapshot) and the state of the system, all in binary. Vertices are
+ * written by name, each name once per checkpoint, so that the state can be
+ * restored onto graphs built anew by init_graph().
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public final class Checkpoint {
+
+  public static final String EXTENSION = ".aomc";
+  public static final int MAGIC = 0x414F4D43; // "AOMC"
+  public static final short VERSION = 1;
+
+  /**
+   * State of a system written into its checkpoints, beyond the pheromone of
+   * its graphs and the random number stream. readState() is called on a
+   * system initialized as for a new run, after its graphs have been restored.
+   */
+  public interface State {
+
+    void writeState(Encoder out) throws IOException;
+
+    void readState(Decoder in) throws IOException;
+  }
+
+  private final long sequence;
+  private final String system_class;
+  private final byte[] random;
+  private final Map<String, GraphSnapshot> graphs;
+  private final byte[] state;
+
+  private Checkpoint(long sequence, String system_class, byte[] random,
+          Map<String, GraphSnapshot> graphs, byte[] state) {
+
+    this.sequence = sequence;
+    this.system_class = system_class;
+    this.random = random;
+    this.graphs = graphs;
+    this.state = state;
+  }
+
+  /**
+   * Take the checkpoint of the system in memory, so that it can be written by
+   * another thread while the system goes on.
+   *
+   * @param sequence sequence number of the checkpoint.
+   * @param system
+   * @param state state of the system, usually the system itself.
+   * @return Checkpoint
+   * @throws IOException if the random number stream or the state cannot be
+   * written.
+   */
+  public static Checkpoint capture(long sequence, AntsOMGSystem<?> system, State state)
+          throws IOException {
+
+    var graphs = new LinkedHashMap<String, GraphSnapshot>();
+    new TreeMap<>(system.getGraphs()).forEach((key, graph) -> {
+      if (graph instanceof CompactGraph<?, ?> compact) {
+        graphs.put(key, GraphSnapshot.of(compact));
+      }
+    });
+    var out = new Encoder();
+    state.writeState(out);
+    return new Checkpoint(sequence, system.getClass().getName(),
+            StandardParameters.getRandomState(), graphs, out.toByteArray());
+  }
+
+  /**
+   * Write the checkpoint file, through a temporary file moved into place, so
+   * that the previous checkpoint stays intact until this one is complete. The
+   * graph snapshots are expected to be in the same directory already.
+   *
+   * @param path checkpoint file.
+   * @param graph_files file names of the graph snapshots by graph key.
+   * @throws IOException
+   */
+  public void write(Path path, Map<String, String> graph_files) throws IOException {
+
+    var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeShort(0);
+      out.writeLong(this.sequence);
+      out.writeUTF(this.system_class);
+      out.writeInt(this.random.length);
+      out.write(this.random);
+      out.writeInt(graph_files.size());
+      for (var entry : graph_files.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue());
+      }
+      out.writeInt(this.state.length);
+      out.write(this.state);
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Read the checkpoint file together with its graph snapshots.
+   *
+   * @param path checkpoint file.
+   * @return Checkpoint
+   * @throws IOException if the file is not a checkpoint of a supported
+   * version, or a graph snapshot is missing.
+   */
+  public static Checkpoint read(Path path) throws IOException {
+
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      var sequence = readHeader(in, path);
+      var system_class = in.readUTF();
+      var random = new byte[in.readInt()];
+      in.readFully(random);
+      var graphs = new LinkedHashMap<String, GraphSnapshot>();
+      for (int i = in.readInt(); i > 0; i--) {
+        var key = in.readUTF();
+        graphs.put(key, GraphSnapshot.read(path.resolveSibling(in.readUTF())));
+      }
+      var state = new byte[in.readInt()];
+      in.readFully(state);
+      return new Checkpoint(sequence, system_class, random, graphs, state);
+    } catch (RuntimeException ex) {
+      throw new IOException("Corrupted checkpoint: " + path, ex);
+    }
+  }
+
+  /**
+   * Sequence number of the checkpoint file, reading its header only.
+   *
+   * @param path checkpoint file.
+   * @return sequence number.
+   * @throws IOException if the file is not a checkpoint of a supported
+   * version.
+   */
+  public static long sequenceOf(Path path) throws IOException {
+
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      return readHeader(in, path);
+    }
+  }
+
+  /**
+   * File names of the graph snapshots of the checkpoint file.
+   *
+   * @param path checkpoint file.
+   * @return file names by graph key.
+   * @throws IOException if the file is not a checkpoint of a supported
+   * version.
+   */
+  public static Map<String, String> graphFilesOf(Path path) throws IOException {
+
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      readHeader(in, path);
+      in.readUTF();
+      in.skipNBytes(in.readInt());
+      var files = new LinkedHashMap<String, String>();
+      for (int i = in.readInt(); i > 0; i--) {
+        files.put(in.readUTF(), in.readUTF());
+      }
+      return files;
+    }
+  }
+
+  private static long readHeader(DataInputStream in, Path path) throws IOException {
+
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a checkpoint: " + path);
+    }
+    var version = in.readShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+    }
+    in.readShort();
+    return in.readLong();
+  }
+
+  /**
+   * Restore the graphs, including their costs, and then the state of the
+   * system. The random number stream is left as it is, see restoreRandom().
+   *
+   * @param system system initialized as for a new run.
+   * @param state state of the system, usually the system itself.
+   * @throws IOException if the checkpoint is not one of the system, or the
+   * state cannot be read.
+   */
+  public void restore(AntsOMGSystem<?> system, State state) throws IOException {
+
+    if (!this.system_class.equals(system.getClass().getName())) {
+      throw new IOException("Checkpoint of " + this.system_class
+              + " cannot be restored onto " + system.getClass().getName());
+    }
+    for (var entry : this.graphs.entrySet()) {
+      if (system.getGraphs().get(entry.getKey()) instanceof CompactGraph<?, ?> graph) {
+        entry.getValue().restore(graph, true);
+      } else {
+        throw new IOException("Graph " + entry.getKey() + " not found in " + this.system_class);
+      }
+    }
+    state.readState(new Decoder(this.state));
+  }
+
+  /**
+   * Continue the global random number stream from this checkpoint.
+   *
+   * @throws IOException
+   */
+  public void restoreRandom() throws IOException {
+
+    StandardParameters.setRandomState(this.random);
+  }
+
+  public long getSequence() {
+
+    return sequence;
+  }
+
+  public String getSystem_class() {
+
+    return system_class;
+  }
+
+  /**
+   * Graph snapshots by graph key.
+   *
+   * @return unmodifiable map.
+   */
+  public Map<String, GraphSnapshot> getGraphs() {
+
+    return Collections.unmodifiableMap(graphs);
+  }
+
+  /**
+   * Size of the state of the system.
+   *
+   * @return number of bytes.
+   */
+  public int getStateSize() {
+
+    return state.length;
+  }
+
+  /**
+   * Binary output of the state of a system. Vertex names are written once and
+   * referred to by index afterwards.
+   */
+  public static final class Encoder {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 12);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<String, Integer> names = new HashMap<>();
+
+    Encoder() {
+
+      this.names.put(null, 0);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+
+      out.writeBoolean(value);
+    }
+
+    public void writeInt(int value) throws IOException {
+
+      out.writeInt(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+
+      out.writeLong(value);
+    }
+
+    public void writeDouble(double value) throws IOException {
+
+      out.writeDouble(value);
+    }
+
+    /**
+     * Write a non-negative int in 1 to 5 bytes, e.g. a size.
+     *
+     * @param value
+     * @throws IOException
+     */
+    public void writeSize(int value) throws IOException {
+
+      while ((value & ~0x7F) != 0) {
+        out.writeByte((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      out.writeByte(value);
+    }
+
+    /**
+     * Write a string, which may be null.
+     *
+     * @param value
+     * @throws IOException
+     */
+    public void writeString(String value) throws IOException {
+
+      if (Objects.isNull(value)) {
+        writeSize(0);
+        return;
+      }
+      var utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeSize(utf8.length + 1);
+      out.write(utf8);
+    }
+
+    /**
+     * Write a name, e.g. of a vertex or an enum constant, by index if it has
+     * been written before.
+     *
+     * @param name name, or null.
+     * @throws IOException
+     */
+    public void writeName(String name) throws IOException {
+
+      var index = this.names.get(name);
+      if (Objects.nonNull(index)) {
+        writeSize(index);
+        return;
+      }
+      writeSize(this.names.size());
+      writeString(name);
+      this.names.put(name, this.names.size());
+    }
+
+    public void writeVertex(Vertex vertex) throws IOException {
+
+      writeName(Objects.isNull(vertex) ? null : vertex.getName());
+    }
+
+    /**
+     * Write a move with its selected edge and pheromone records, the edges by
+     * the names of their endpoints.
+     *
+     * @param move
+     * @throws IOException
+     */
+    public void writeMove(StandardMove<?> move) throws IOException {
+
+      writeBoolean(move.isExploring());
+      writeEdge(move.getSelected());
+      var candidates = move.getCandidates();
+      var trails = move.getTrails();
+      var records = move.getRecords();
+      if (trails.length > 0) {
+        out.writeByte(1);
+        writeSize(trails.length);
+        for (int i = 0; i < trails.length; i++) {
+          writeEdge(candidates.get(i));
+          writeDouble(trails[i]);
+        }
+      } else if (Objects.nonNull(records) && !records.isEmpty()) {
+        out.writeByte(2);
+        writeSize(records.size());
+        for (var entry : records.entrySet()) {
+          writeEdge(entry.getKey());
+          writeDouble(entry.getValue());
+        }
+      } else {
+        out.writeByte(0);
+      }
+    }
+
+    private void writeEdge(StandardEdge<?> edge) throws IOException {
+
+      writeVertex(edge.getFrom());
+      writeVertex(edge.getTo());
+    }
+
+    byte[] toByteArray() throws IOException {
+
+      out.flush();
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Binary input of the state of a system, written by an Encoder.
+   */
+  public static final class Decoder {
+
+    private final DataInputStream in;
+    private final List<String> names = new ArrayList<>();
+
+    Decoder(byte[] state) {
+
+      this.in = new DataInputStream(new ByteArrayInputStream(state));
+      this.names.add(null);
+    }
+
+    public boolean readBoolean() throws IOException {
+
+      return in.readBoolean();
+    }
+
+    public int readInt() throws IOException {
+
+      return in.readInt();
+    }
+
+    public long readLong() throws IOException {
+
+      return in.readLong();
+    }
+
+    public double readDouble() throws IOException {
+
+      return in.readDouble();
+    }
+
+    public int readSize() throws IOException {
+
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        var b = in.readByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed size.");
+    }
+
+    public String readString() throws IOException {
+
+      var length = readSize() - 1;
+      if (length < 0) {
+        return null;
+      }
+      var utf8 = new byte[length];
+      in.readFully(utf8);
+      return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    public String readName() throws IOException {
+
+      var index = readSize();
+      if (index < this.names.size()) {
+        return this.names.get(index);
+      }
+      if (index > this.names.size()) {
+        throw new IOException("Unknown name index " + index);
+      }
+      var name = readString();
+      this.names.add(name);
+      return name;
+    }
+
+    /**
+     * Read a vertex by its name.
+     *
+     * @param <V>
+     * @param vertices vertex of a name.
+     * @return vertex, or null if written as null.
+     * @throws IOException
+     */
+    public <V> V readVertex(Function<String, V> vertices) throws IOException {
+
+      var name = readName();
+      return Objects.isNull(name) ? null : vertices.apply(name);
+    }
+
+    /**
+     * Read a move written by Encoder.writeMove().
+     *
+     * @param <E>
+     * @param <V>
+     * @param vertices vertex of a name.
+     * @param edges edge of the endpoints, the origin possibly null; see
+     * edges(StandardGraph, BiFunction).
+     * @return StandardMove
+     * @throws IOException
+     */
+    public <E extends StandardEdge<V>, V extends StandardVertex> StandardMove<E> readMove(
+            Function<String, V> vertices, BiFunction<V, V, E> edges) throws IOException {
+
+      var exploring = readBoolean();
+      var selected = readEdge(vertices, edges);
+      var recording = in.readByte();
+      switch (recording) {
+        case 1 -> {
+          var size = readSize();
+          var candidates = new ArrayList<E>(size);
+          var trails = new double[size];
+          for (int i = 0; i < size; i++) {
+            candidates.add(readEdge(vertices, edges));
+            trails[i] = readDouble();
+          }
+          return new StandardMove<>(exploring, selected, candidates, trails, null);
+        }
+        case 2 -> {
+          var records = new HashMap<E, Double>();
+          for (int i = readSize(); i > 0; i--) {
+            var edge = readEdge(vertices, edges);
+            records.put(edge, readDouble());
+          }
+          return new StandardMove<>(exploring, selected, List.of(), new double[0], records);
+        }
+        case 0 -> {
+          return new StandardMove<>(exploring, selected);
+        }
+        default ->
+          throw new IOException("Unknown recording " + recording);
+      }
+    }
+
+    private <E extends StandardEdge<V>, V extends StandardVertex> E readEdge(
+            Function<String, V> vertices, BiFunction<V, V, E> edges) throws IOException {
+
+      var from = readVertex(vertices);
+      return edges.apply(from, readVertex(vertices));
+    }
+  }
+
+  /**
+   * Resolver of the vertices read from a checkpoint: the vertex of the graph
+   * with the name, or else one made by the fallback.
+   *
+   * @param <V>
+   * @param graph
+   * @param fallback vertex of the name not found in the graph.
+   * @return resolver.
+   */
+  public static <V extends StandardVertex> Function<String, V> vertices(
+          CompactGraph<?, V> graph, Function<String, V> fallback) {
+
+    var vertices = new HashMap<String, V>();
+    synchronized (graph) {
+      for (int v = 0; v < graph.getVertexCount(); v++) {
+        var vertex = graph.getVertex(v);
+        if (Objects.nonNull(vertex)) {
+          vertices.putIfAbsent(vertex.getName(), vertex);
+        }
+      }
+    }
+    return name -> vertices.computeIfAbsent(name, fallback);
+  }
+
+  /**
+   * Resolver of the edges read from a checkpoint: the out-edge of the graph
+   * with the same endpoints, or else one made by the fallback, e.g. for edges
+   * not in the graph such as the first move of an ant. Edges are resolved
+   * once per pair of endpoints.
+   *
+   * @param <E>
+   * @param <V>
+   * @param graph
+   * @param fallback edge of the endpoints not found in the graph.
+   * @return resolver.
+   */
+  public static <E extends StandardEdge<V>, V extends StandardVertex> BiFunction<V, V, E> edges(
+          StandardGraph<E, V> graph, BiFunction<V, V, E> fallback) {
+
+    var edges = new HashMap<List<V>, E>();
+    return (from, to) -> edges.computeIfAbsent(Arrays.asList(from, to), key -> {
+      if (Objects.nonNull(from)) {
+        for (var edge : graph.queryByVertex(from)) {
+          if (Objects.equals(edge.getTo(), to)) {
+            return edge;
+          }
+        }
+      }
+      return fallback.apply(from, to);
+    });
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
+
+/**
+ * Periodic checkpoints of one or more AntsOMGSystems into a directory, each
+ * system under its own name, e.g. the index of a composer. A checkpoint is
+ * captured in memory on the calling thread between two iterations and written
+ * by a background thread, while the system goes on; at most one checkpoint is
+ * pending, so a slow disk holds the system back rather than filling the
+ * memory.
+ * <p>
+ * Checkpoints are incremental: the snapshot of a graph is only written if its
+ * pheromone trails or costs changed since the previous checkpoint of the
+ * system, e.g. not after the graph is settled, and a system that completed is
+ * not written again. The checkpoint file &lt;name&gt;.aomc refers to the graph
+ * snapshots &lt;name&gt;.&lt;graph&gt;.&lt;sequence&gt;.aomg, and replaces
+ * the previous one only once complete, so that a run killed at any time
+ * leaves the last complete checkpoint behind.
+ * <p>
+ * A run is resumed by building the systems as for a new run with the same
+ * parameters, restoring each of them with resume(), and then continuing the
+ * random number stream with resumeRandom() from the latest checkpoint.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class Checkpointer implements AutoCloseable {
+
+  public static int DEFAULT_INTERVAL = 10;
+
+  private final Path directory;
+  private final int interval;
+  private final ExecutorService writer;
+  private final Map<String, Integer> iterations;
+  private final Map<String, Map<String, GraphSnapshot>> written;
+  private final Map<String, Map<String, String>> files;
+  private final Set<String> completed;
+  private Future<?> pending;
+  private long sequence;
+
+  /**
+   * Constructor of Checkpointer, continuing the sequence numbers of the
+   * checkpoints in the directory, if any.
+   *
+   * @param directory directory of the checkpoints, created if missing.
+   * @param interval number of iterations between two checkpoints.
+   * @throws IOException if the directory cannot be created or read.
+   */
+  public Checkpointer(Path directory, int interval) throws IOException {
+
+    if (interval < 1) {
+      throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+    }
+    this.directory = Files.createDirectories(directory);
+    this.interval = interval;
+    this.writer = Executors.newSingleThreadExecutor(task -> {
+      var thread = new Thread(task, "checkpoint-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.iterations = new HashMap<>();
+    this.written = new HashMap<>();
+    this.files = new HashMap<>();
+    this.completed = new HashSet<>();
+    this.sequence = latest(directory);
+  }
+
+  public Checkpointer(Path directory) throws IOException {
+
+    this(directory, DEFAULT_INTERVAL);
+  }
+
+  /**
+   * Notify an iteration of the system, taking a checkpoint every interval
+   * iterations.
+   *
+   * @param <S>
+   * @param name name of the system.
+   * @param system
+   * @return whether a checkpoint was taken.
+   */
+  public synchronized <S extends AntsOMGSystem<?> & Checkpoint.State> boolean iterated(
+          String name, S system) {
+
+    var count = this.iterations.merge(name, 1, Integer::sum);
+    if (count % this.interval != 0) {
+      return false;
+    }
+    checkpoint(name, system);
+    return true;
+  }
+
+  /**
+   * Take a checkpoint of the system now, e.g. once it completed, to be written
+   * in the background, unless the system completed and has been written so.
+   * I/O errors are logged, and leave the previous checkpoint in place.
+   *
+   * @param <S>
+   * @param name name of the system.
+   * @param system
+   */
+  public synchronized <S extends AntsOMGSystem<?> & Checkpoint.State> void checkpoint(
+          String name, S system) {
+
+    if (system.isAimAchieved() && !this.completed.add(name)) {
+      return;
+    }
+    await();
+    Checkpoint checkpoint;
+    try {
+      checkpoint = Checkpoint.capture(++this.sequence, system, system);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    this.pending = this.writer.submit(() -> {
+      try {
+        write(name, checkpoint);
+      } catch (IOException ex) {
+        Logger.getLogger(Checkpointer.class.getName()).log(Level.SEVERE,
+                "Checkpoint " + name + " not written.", ex);
+      }
+    });
+  }
+
+  private void write(String name, Checkpoint checkpoint) throws IOException {
+
+    var path = stateFile(this.directory, name);
+    var previous = this.files.get(name);
+    if (Objects.isNull(previous)) {
+      previous = Files.exists(path) ? Checkpoint.graphFilesOf(path) : Map.of();
+    }
+    var snapshots = this.written.computeIfAbsent(name, k -> new HashMap<>());
+    var graph_files = new LinkedHashMap<String, String>();
+    for (var entry : checkpoint.getGraphs().entrySet()) {
+      var key = entry.getKey();
+      var snapshot = entry.getValue();
+      var file = previous.get(key);
+      if (Objects.isNull(file) || !snapshot.isSame(snapshots.get(key))) {
+        file = String.format("%s.%s.%d%s", name, key,
+                checkpoint.getSequence(), GraphSnapshot.EXTENSION);
+        snapshot.write(this.directory.resolve(file));
+      }
+      snapshots.put(key, snapshot);
+      graph_files.put(key, file);
+    }
+    checkpoint.write(path, graph_files);
+    this.files.put(name, graph_files);
+    for (var file : previous.values()) {
+      if (!graph_files.containsValue(file)) {
+        Files.deleteIfExists(this.directory.resolve(file));
+      }
+    }
+  }
+
+  /**
+   * Wait for the pending checkpoint to be written.
+   */
+  public synchronized void await() {
+
+    if (Objects.nonNull(this.pending)) {
+      try {
+        this.pending.get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException ex) {
+        Logger.getLogger(Checkpointer.class.getName()).log(Level.SEVERE, null, ex.getCause());
+      }
+      this.pending = null;
+    }
+  }
+
+  /**
+   * Wait for the pending checkpoint and stop the background thread.
+   */
+  @Override
+  public synchronized void close() {
+
+    await();
+    this.writer.shutdown();
+  }
+
+  public Path getDirectory() {
+
+    return directory;
+  }
+
+  public int getInterval() {
+
+    return interval;
+  }
+
+  /**
+   * Restore the system from its checkpoint in the directory, if any. The
+   * checkpointer of the resumed run counts the iterations anew.
+   *
+   * @param <S>
+   * @param directory directory of the checkpoints.
+   * @param name name of the system.
+   * @param system system initialized as for a new run.
+   * @return whether the system was restored.
+   * @throws IOException if the checkpoint cannot be read or does not fit the
+   * system.
+   */
+  public static <S extends AntsOMGSystem<?> & Checkpoint.State> boolean resume(
+          Path directory, String name, S system) throws IOException {
+
+    var path = stateFile(directory, name);
+    if (!Files.exists(path)) {
+      return false;
+    }
+    Checkpoint.read(path).restore(system, system);
+    return true;
+  }
+
+  /**
+   * Continue the global random number stream from the latest checkpoint in
+   * the directory, to be called once all systems are restored.
+   *
+   * @param directory directory of the checkpoints.
+   * @return whether a checkpoint was found.
+   * @throws IOException
+   */
+  public static boolean resumeRandom(Path directory) throws IOException {
+
+    Path latest = null;
+    long sequence = 0;
+    for (var path : checkpoints(directory)) {
+      var s = Checkpoint.sequenceOf(path);
+      if (s > sequence) {
+        sequence = s;
+        latest = path;
+      }
+    }
+    if (Objects.isNull(latest)) {
+      return false;
+    }
+    Checkpoint.read(latest).restoreRandom();
+    return true;
+  }
+
+  private static Path stateFile(Path directory, String name) {
+
+    return directory.resolve(name + Checkpoint.EXTENSION);
+  }
+
+  private static long latest(Path directory) throws IOException {
+
+    long sequence = 0;
+    for (var path : checkpoints(directory)) {
+      sequence = Math.max(sequence, Checkpoint.sequenceOf(path));
+    }
+    return sequence;
+  }
+
+  private static List<Path> checkpoints(Path directory) throws IOException {
+
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (var paths = Files.list(directory)) {
+      return paths.filter(path -> path.getFileName().toString().endsWith(Checkpoint.EXTENSION))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,805 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import tech.metacontext.ocnhfa.antsomg.model.Graph;
+
+/**
+ * Struct-of-arrays storage of a graph. Vertices are interned to dense int ids
+ * and edges are stored as int from/to ids with primitive cost and pheromone
+ * arrays, indexed by edge id and grouped by origin vertex in a CSR
+ * (compressed sparse row) index. The edge objects of the graph are kept as
+ * handles of their ids, which read and write through to the arrays once
+ * attached, so that the fractions, evaporation and renormalisation loops run
+ * over primitive arrays.
+ * <p>
+ * The arrays are split into the topology, i.e. the vertices, endpoints, costs
+ * and CSR index, and the pheromone layer, i.e. the trails and their decay
+ * factor. Graphs constructed with CompactGraph(CompactGraph) share the
+ * topology of another graph, each with its own edge handles, and a graph may
+ * switch between layers with setLayer(). Both are copy-on-write: a shared
+ * topology is copied by the first graph modifying it, e.g. by attaching an
+ * edge or setting a cost, and the layer of the source graph is shared until
+ * the first deposit or evaporation of either graph, so that the sharing is
+ * never visible. The current topology and layer are volatile, so that the
+ * threads reading them without the lock, e.g. the samplers of parallel ants,
+ * see the copy once it replaced the shared one.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ * @param <E>
+ * @param <V>
+ */
+public abstract class CompactGraph<E extends StandardEdge<V>, V extends StandardVertex>
+        implements Graph<E, V, StandardMove<E>> {
+
+  private static final VarHandle ELEMENT
+          = MethodHandles.arrayElementVarHandle(double[].class);
+
+  public static final double MIN_DECAY = 0x1p-512;
+
+  private volatile Topology topology;
+  private volatile PheromoneLayer layer;
+  private StandardEdge<?>[] handles;
+
+  public CompactGraph() {
+
+    this.topology = new Topology();
+    this.layer = new PheromoneLayer(new double[16], 1.0);
+    this.handles = new StandardEdge<?>[16];
+  }
+
+  /**
+   * Constructor of a graph sharing the topology of the source graph, with
+   * handles of its edges bound to the new graph, and its current pheromone
+   * layer until either graph modifies it.
+   *
+   * @param source graph whose topology is shared.
+   */
+  protected CompactGraph(CompactGraph<E, V> source) {
+
+    synchronized (source) {
+      source.topology.shared = true;
+      this.topology = source.topology;
+      source.layer.shared = true;
+      this.layer = source.layer;
+      this.handles = new StandardEdge<?>[Math.max(this.topology.size, 16)];
+      for (int id = 0; id < this.topology.size; id++) {
+        this.handles[id] = source.handles[id].handle(this, id);
+      }
+    }
+  }
+
+  /**
+   * Vertices, edge endpoints, costs, initial pheromone trails and CSR index
+   * of a graph, shared by the graphs constructed from it.
+   */
+  private static final class Topology {
+
+    private final Map<StandardVertex, Integer> vertex_ids;
+    private final List<StandardVertex> vertices;
+    private int[] from, to;
+    private double[] cost, initial;
+    private int size;
+    private int[] offsets, out_edges;
+    private volatile boolean shared;
+
+    private Topology() {
+
+      this.vertex_ids = new HashMap<>();
+      this.vertices = new ArrayList<>();
+      this.from = new int[16];
+      this.to = new int[16];
+      this.cost = new double[16];
+      this.initial = new double[16];
+      this.offsets = new int[1];
+      this.out_edges = new int[0];
+    }
+
+    private Topology(Topology topology) {
+
+      this.vertex_ids = new HashMap<>(topology.vertex_ids);
+      this.vertices = new ArrayList<>(topology.vertices);
+      this.from = topology.from.clone();
+      this.to = topology.to.clone();
+      this.cost = topology.cost.clone();
+      this.initial = topology.initial.clone();
+      this.size = topology.size;
+      this.offsets = topology.offsets;
+      this.out_edges = topology.out_edges;
+    }
+
+    private int add(int from, int to, double cost, double trail) {
+
+      if (size == this.from.length) {
+        var capacity = size * 2;
+        this.from = Arrays.copyOf(this.from, capacity);
+        this.to = Arrays.copyOf(this.to, capacity);
+        this.cost = Arrays.copyOf(this.cost, capacity);
+        this.initial = Arrays.copyOf(this.initial, capacity);
+      }
+      this.from[size] = from;
+      this.to[size] = to;
+      this.cost[size] = cost;
+      this.initial[size] = trail;
+      return size++;
+    }
+  }
+
+  /**
+   * Pheromone trails of the edges of a graph, stored relative to the decay
+   * factor of the layer and indexed by edge id. A layer is only valid for the
+   * graphs of the topology it was taken from. A layer shared by a fork is
+   * never modified again, but copied by the graph modifying it.
+   */
+  public static final class PheromoneLayer {
+
+    private double[] trails;
+    private volatile double decay;
+    private volatile boolean shared;
+
+    private PheromoneLayer(double[] trails, double decay) {
+
+      this.trails = trails;
+      this.decay = decay;
+    }
+
+    private void ensureCapacity(int length) {
+
+      if (length > trails.length) {
+        trails = Arrays.copyOf(trails, Math.max(length, trails.length * 2));
+      }
+    }
+
+    /**
+     * Copy of this layer, e.g. to be restored later by setLayer().
+     *
+     * @return PheromoneLayer
+     */
+    public PheromoneLayer copy() {
+
+      return new PheromoneLayer(trails.clone(), decay);
+    }
+
+    public double getDecay() {
+
+      return decay;
+    }
+  }
+
+  /**
+   * View of the out-edges of a vertex, as a range of the CSR index.
+   *
+   * @param <E>
+   */
+  public static final class EdgeRange<E> extends AbstractList<E> implements RandomAccess {
+
+    private final CompactGraph<?, ?> graph;
+    private final int[] ids;
+    private final int start, end;
+
+    private EdgeRange(CompactGraph<?, ?> graph, int[] ids, int start, int end) {
+
+      this.graph = graph;
+      this.ids = ids;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+
+      return (E) graph.handles[getId(index)];
+    }
+
+    /**
+     * Id of the edge at the index.
+     *
+     * @param index index in this range.
+     * @return edge id.
+     */
+    public int getId(int index) {
+
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException(index);
+      }
+      return ids[start + index];
+    }
+
+    @Override
+    public int size() {
+
+      return end - start;
+    }
+
+    /**
+     * Edge ids of the CSR index, of which this range starts at getStart().
+     *
+     * @return edge ids, not to be modified.
+     */
+    int[] getIds() {
+
+      return ids;
+    }
+
+    int getStart() {
+
+      return start;
+    }
+
+    public CompactGraph<?, ?> getGraph() {
+
+      return graph;
+    }
+  }
+
+  /**
+   * Attach the edge to this graph, which must be done for every edge added to
+   * the graph. The edge is assigned the next edge id and its cost and
+   * pheromone trail are moved into the arrays of this graph.
+   *
+   * @param edge edge of this graph.
+   */
+  protected synchronized void attach(E edge) {
+
+    if (edge.getGraph() == this) {
+      return;
+    }
+    var trail = edge.getPheromoneTrail();
+    var c = edge.getCost();
+    var t = own();
+    var id = t.add(intern(edge.getFrom()), intern(edge.getTo()), c, trail);
+    if (id == handles.length) {
+      handles = Arrays.copyOf(handles, id * 2);
+    }
+    handles[id] = edge;
+    var l = writable();
+    l.ensureCapacity(id + 1);
+    l.trails[id] = trail / l.decay;
+    edge.setGraph(this, id);
+  }
+
+  /**
+   * Rebuild the topology and the pheromone layer of this graph from the given
+   * edges, in their order, e.g. after some edges were removed. The edges get
+   * new ids and keep their costs and their initial and current pheromone
+   * trails. The edges attached before but not given are detached with their
+   * cost and trail, and no longer count in the graph. Graphs sharing the
+   * topology or the layer of this graph keep the former ones.
+   *
+   * @param edges edges to be kept, attached to this graph or not.
+   */
+  protected synchronized void rebuild(List<E> edges) {
+
+    var t = topology;
+    var l = layer;
+    var ids = new int[edges.size()];
+    var initial = new double[edges.size()];
+    for (int i = 0; i < edges.size(); i++) {
+      var edge = edges.get(i);
+      ids[i] = edge.getGraph() == this ? edge.getId() : -1;
+      initial[i] = ids[i] < 0 ? edge.getPheromoneTrail() : t.initial[ids[i]];
+    }
+    for (int id = 0; id < t.size; id++) {
+      if (handles[id].getGraph() == this) {
+        handles[id].detach(t.cost[id], l.trails[id] * l.decay);
+      }
+    }
+    this.topology = new Topology();
+    this.handles = new StandardEdge<?>[Math.max(edges.size(), 16)];
+    var trails = new double[Math.max(edges.size(), 16)];
+    for (int i = 0; i < edges.size(); i++) {
+      var edge = edges.get(i);
+      var id = this.topology.add(intern(edge.getFrom()), intern(edge.getTo()),
+              edge.getCost(), initial[i]);
+      trails[id] = ids[i] < 0 ? edge.getPheromoneTrail() / l.decay : l.trails[ids[i]];
+      this.handles[id] = edge;
+      edge.setGraph(this, id);
+    }
+    this.layer = new PheromoneLayer(trails, l.decay);
+  }
+
+  private int intern(V vertex) {
+
+    var t = topology;
+    return t.vertex_ids.computeIfAbsent(vertex, v -> {
+      t.vertices.add(v);
+      return t.vertices.size() - 1;
+    });
+  }
+
+  /**
+   * Topology of this graph to be modified, copied first if shared.
+   *
+   * @return topology owned by this graph.
+   */
+  private synchronized Topology own() {
+
+    var t = topology;
+    if (t.shared) {
+      t = new Topology(t);
+      topology = t;
+    }
+    return t;
+  }
+
+  /**
+   * Pheromone layer of this graph to be modified, copied first if shared.
+   *
+   * @return pheromone layer owned by this graph.
+   */
+  private PheromoneLayer writable() {
+
+    var l = layer;
+    return l.shared ? unshare() : l;
+  }
+
+  private synchronized PheromoneLayer unshare() {
+
+    var l = layer;
+    if (l.shared) {
+      l = l.copy();
+      layer = l;
+    }
+    return l;
+  }
+
+  /**
+   * Whether the topology of this graph is shared with other graphs, see
+   * CompactGraph(CompactGraph).
+   *
+   * @return true if shared and not modified since.
+   */
+  public boolean isShared() {
+
+    return topology.shared;
+  }
+
+  /**
+   * Update the vertex ids of an edge after its endpoints were modified.
+   *
+   * @param id edge id.
+   */
+  synchronized void relink(int id) {
+
+    var edge = getEdge(id);
+    var t = own();
+    t.from[id] = intern(edge.getFrom());
+    t.to[id] = intern(edge.getTo());
+  }
+
+  /**
+   * Rebuild the CSR index over the given edges, grouped by origin vertex in
+   * their order, attaching any of them not attached yet.
+   *
+   * @param edges edges to be indexed.
+   * @return out-edges by origin vertex.
+   */
+  protected synchronized Map<V, List<E>> index(List<E> edges) {
+
+    edges.forEach(this::attach);
+    var t = own();
+    var counts = new int[t.vertices.size() + 1];
+    edges.forEach(edge -> counts[t.from[edge.getId()] + 1]++);
+    for (int v = 0; v < t.vertices.size(); v++) {
+      counts[v + 1] += counts[v];
+    }
+    var ids = new int[edges.size()];
+    var cursor = Arrays.copyOf(counts, t.vertices.size());
+    edges.forEach(edge -> ids[cursor[t.from[edge.getId()]]++] = edge.getId());
+    t.offsets = counts;
+    t.out_edges = ids;
+    return ranges();
+  }
+
+  /**
+   * Out-edges by origin vertex, as of the last call of index() on this graph
+   * or on the graph whose topology it shares.
+   *
+   * @return out-edges by origin vertex.
+   */
+  @SuppressWarnings("unchecked")
+  protected synchronized Map<V, List<E>> ranges() {
+
+    var t = topology;
+    var index = new HashMap<V, List<E>>();
+    for (int v = 0; v + 1 < t.offsets.length; v++) {
+      if (t.offsets[v] < t.offsets[v + 1]) {
+        index.put((V) t.vertices.get(v),
+                new EdgeRange<>(this, t.out_edges, t.offsets[v], t.offsets[v + 1]));
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Id of the vertex in this graph.
+   *
+   * @param vertex
+   * @return vertex id, or -1 if the vertex is not an endpoint of any edge.
+   */
+  public synchronized int getVertexId(V vertex) {
+
+    return topology.vertex_ids.getOrDefault(vertex, -1);
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized V getVertex(int id) {
+
+    return (V) topology.vertices.get(id);
+  }
+
+  public synchronized int getVertexCount() {
+
+    return topology.vertices.size();
+  }
+
+  public int getEdgeCount() {
+
+    return topology.size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public E getEdge(int id) {
+
+    return (E) handles[id];
+  }
+
+  public int getFromId(int edge) {
+
+    return topology.from[edge];
+  }
+
+  public int getToId(int edge) {
+
+    return topology.to[edge];
+  }
+
+  /**
+   * Start of the out-edges of the vertex in the CSR index, as of the last
+   * call of index().
+   *
+   * @param vertex vertex id.
+   * @return position in the CSR index.
+   */
+  public int getOutStart(int vertex) {
+
+    var offsets = topology.offsets;
+    return vertex + 1 < offsets.length ? offsets[vertex] : 0;
+  }
+
+  /**
+   * End (exclusive) of the out-edges of the vertex in the CSR index.
+   *
+   * @param vertex vertex id.
+   * @return position in the CSR index.
+   */
+  public int getOutEnd(int vertex) {
+
+    var offsets = topology.offsets;
+    return vertex + 1 < offsets.length ? offsets[vertex + 1] : 0;
+  }
+
+  /**
+   * Edge id at the position of the CSR index.
+   *
+   * @param position position in the CSR index.
+   * @return edge id.
+   */
+  public int getOutEdge(int position) {
+
+    return topology.out_edges[position];
+  }
+
+  /**
+   * Group of the edge, distinguishing edges between the same vertices in
+   * snapshots, e.g. the locus of a path. All edges are in group 0 by default.
+   *
+   * @param edge edge id.
+   * @return group.
+   */
+  public int getGroup(int edge) {
+
+    return 0;
+  }
+
+  public double getCost(int edge) {
+
+    return topology.cost[edge];
+  }
+
+  public void setCost(int edge, double cost) {
+
+    var t = topology;
+    if (t.shared) {
+      if (Double.compare(t.cost[edge], cost) == 0) {
+        return;
+      }
+      t = own();
+    }
+    t.cost[edge] = cost;
+  }
+
+  public double getPheromone(int edge) {
+
+    var l = layer;
+    return l.trails[edge] * l.decay;
+  }
+
+  public void setPheromone(int edge, double trail) {
+
+    var l = writable();
+    l.trails[edge] = trail / l.decay;
+  }
+
+  public void addPheromone(int edge, double deposit) {
+
+    var l = writable();
+    l.trails[edge] += deposit / l.decay;
+  }
+
+  /**
+   * Lock-free version of addPheromone(), for deposits made concurrently by
+   * parallel ants.
+   *
+   * @param edge edge id.
+   * @param deposit pheromone deposit.
+   */
+  public void addPheromoneAtomic(int edge, double deposit) {
+
+    var l = writable();
+    ELEMENT.getAndAdd(l.trails, edge, deposit / l.decay);
+  }
+
+  /**
+   * Evaporate the pheromone trail of a single edge.
+   *
+   * @param edge edge id.
+   * @param rate evaporate rate.
+   */
+  public void evaporate(int edge, double rate) {
+
+    writable().trails[edge] *= (1.0 - rate);
+  }
+
+  /**
+   * Lock-free version of evaporate(int, double), safe against concurrent
+   * deposits.
+   *
+   * @param edge edge id.
+   * @param rate evaporate rate.
+   */
+  public void evaporateAtomic(int edge, double rate) {
+
+    scaleAtomic(writable().trails, edge, 1.0 - rate);
+  }
+
+  private static void scaleAtomic(double[] array, int index, double factor) {
+
+    double value;
+    do {
+      value = (double) ELEMENT.getVolatile(array, index);
+    } while (!ELEMENT.compareAndSet(array, index, value, value * factor));
+  }
+
+  /**
+   * Evaporate the pheromone trails of all edges in O(1), by multiplying the
+   * decay factor of the graph, relative to which the trails are stored. The
+   * factor is folded into the trails once it gets smaller than MIN_DECAY, to
+   * prevent underflow.
+   *
+   * @param rate evaporate rate.
+   */
+  public synchronized void evaporate(double rate) {
+
+    if (rate == 0.0) {
+      return;
+    }
+    var l = writable();
+    var next = l.decay * (1.0 - rate);
+    if (next < MIN_DECAY) {
+      renormalize(l, next);
+    } else {
+      l.decay = next;
+    }
+    thaw();
+  }
+
+  /**
+   * Clamp the pheromone trails of all edges into [min, max], as the MAX-MIN
+   * Ant System does after evaporation. Like evaporate(double), this must not
+   * overlap with deposits of parallel ants.
+   *
+   * @param min lower bound.
+   * @param max upper bound.
+   */
+  public synchronized void clamp(double min, double max) {
+
+    var l = layer;
+    var size = topology.size;
+    var lower = min / l.decay;
+    var upper = max / l.decay;
+    var clamped = false;
+    for (int i = 0; i < size && !clamped; i++) {
+      clamped = l.trails[i] < lower || l.trails[i] > upper;
+    }
+    if (!clamped) {
+      return;
+    }
+    var trails = writable().trails;
+    for (int i = 0; i < size; i++) {
+      trails[i] = Math.min(Math.max(trails[i], lower), upper);
+    }
+    thaw();
+  }
+
+  /**
+   * Fold the decay factor into the pheromone trails of all edges, in one pass
+   * of Kernels.scale(). Like evaporate(double), this must not overlap with
+   * deposits of parallel ants, which NavigationEngine merges at barriers.
+   */
+  public synchronized void renormalize() {
+
+    var l = writable();
+    renormalize(l, l.decay);
+  }
+
+  private void renormalize(PheromoneLayer l, double factor) {
+
+    Kernels.get().scale(l.trails, topology.size, factor);
+    l.decay = 1.0;
+  }
+
+  /**
+   * Switch the pheromone layer to the decay factor, rescaling the stored
+   * trails so that the pheromone of the edges is kept, e.g. before trails
+   * relative to that factor are restored by setTrail().
+   *
+   * @param decay decay factor.
+   */
+  synchronized void rebase(double decay) {
+
+    var l = writable();
+    if (Double.compare(l.decay, decay) != 0) {
+      Kernels.get().scale(l.trails, topology.size, l.decay / decay);
+      l.decay = decay;
+    }
+  }
+
+  /**
+   * Set the pheromone trail of an edge relative to the decay factor, as it is
+   * stored.
+   *
+   * @param edge edge id.
+   * @param trail trail relative to the decay factor.
+   */
+  void setTrail(int edge, double trail) {
+
+    writable().trails[edge] = trail;
+  }
+
+  /**
+   * Entropy of the pheromone trails, independent of the decay factor, which
+   * cancels out in the distribution.
+   *
+   * @return entropy in nats, or NaN if there is no pheromone.
+   */
+  @Override
+  public synchronized double getPheromoneEntropy() {
+
+    var trails = layer.trails;
+    var size = topology.size;
+    double sum = 0.0;
+    for (int i = 0; i < size; i++) {
+      sum += trails[i];
+    }
+    if (!(sum > 0.0)) {
+      return Double.NaN;
+    }
+    double entropy = 0.0;
+    for (int i = 0; i < size; i++) {
+      var p = trails[i] / sum;
+      if (p > 0.0) {
+        entropy -= p * Math.log(p);
+      }
+    }
+    return entropy;
+  }
+
+  public double getDecay() {
+
+    return layer.decay;
+  }
+
+  /**
+   * Pheromone trails relative to the decay factor, indexed by edge id, for
+   * the kernels reading them in bulk.
+   *
+   * @return trail array, not to be modified.
+   */
+  double[] getTrails() {
+
+    return layer.trails;
+  }
+
+  /**
+   * Current pheromone layer of this graph, which is modified by the deposits
+   * and evaporation from now on, unless shared with a fork.
+   *
+   * @return PheromoneLayer
+   */
+  public PheromoneLayer getLayer() {
+
+    return layer;
+  }
+
+  /**
+   * New pheromone layer with the initial trails of the edges, i.e. those they
+   * had when attached, e.g. for a colony starting afresh on this topology.
+   *
+   * @return PheromoneLayer
+   */
+  public synchronized PheromoneLayer newLayer() {
+
+    var t = topology;
+    var trails = Arrays.copyOf(t.initial, Math.max(t.size, 16));
+    return new PheromoneLayer(trails, 1.0);
+  }
+
+  /**
+   * Copy of the current pheromone layer.
+   *
+   * @return PheromoneLayer
+   */
+  public synchronized PheromoneLayer copyLayer() {
+
+    return layer.copy();
+  }
+
+  /**
+   * Switch to another pheromone layer of this topology, e.g. one returned by
+   * newLayer() or copyLayer(). The current layer is left as it is, and may
+   * be switched back to or discarded.
+   *
+   * @param layer pheromone layer covering all edges of this graph.
+   */
+  public synchronized void setLayer(PheromoneLayer layer) {
+
+    if (layer.trails.length < topology.size) {
+      throw new IllegalArgumentException(String.format(
+              "Pheromone layer of %d edges for a graph of %d edges.",
+              layer.trails.length, topology.size));
+    }
+    this.layer = layer;
+    thaw();
+  }
+
+  /**
+   * Invalidate any state derived from the pheromone trails, costs or
+   * endpoints of the edges. Called on every modification of them.
+   */
+  public void thaw() {
+  }
+}
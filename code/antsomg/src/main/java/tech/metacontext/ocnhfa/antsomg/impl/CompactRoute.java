@@ -0,0 +1,253 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import tech.metacontext.ocnhfa.antsomg.model.Trace;
+import tech.metacontext.ocnhfa.antsomg.model.Vertex;
+
+/**
+ * Route of an Ant encoded as the ids of the visited vertices, one per
+ * dimension of each trace, packed into a byte[] while all ids fit in a byte
+ * and into an int[] otherwise. The ids are given by a Codec shared by the
+ * routes of the same kind of traces.
+ * <p>
+ * Traces are encoded by Trace.getDimension(int) when added, and materialized
+ * by the Codec from their vertices when got, so a materialized trace is a new
+ * instance, which carries the visited vertices but not the moves, e.g. the
+ * pheromone records, of the trace added.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ * @param <T>
+ */
+public final class CompactRoute<T extends Trace> extends AbstractList<T>
+        implements RandomAccess {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Codec<T> codec;
+  private final int dimensions;
+  private byte[] bytes;
+  private int[] ints;
+  private int size;
+
+  public CompactRoute(Codec<T> codec) {
+
+    this.codec = codec;
+    this.dimensions = codec.dimensions;
+    this.bytes = new byte[INITIAL_CAPACITY * this.dimensions];
+  }
+
+  @Override
+  public boolean add(T trace) {
+
+    var offset = this.size * this.dimensions;
+    ensureCapacity(offset + this.dimensions);
+    for (int d = 0; d < this.dimensions; d++) {
+      var id = this.codec.id(trace.getDimension(d));
+      if (Objects.isNull(this.ints) && id > 0xFF) {
+        widen();
+      }
+      if (Objects.isNull(this.ints)) {
+        this.bytes[offset + d] = (byte) id;
+      } else {
+        this.ints[offset + d] = id;
+      }
+    }
+    this.size++;
+    this.modCount++;
+    return true;
+  }
+
+  private void ensureCapacity(int length) {
+
+    if (Objects.isNull(this.ints)) {
+      if (length > this.bytes.length) {
+        this.bytes = Arrays.copyOf(this.bytes, Math.max(length, this.bytes.length * 2));
+      }
+    } else if (length > this.ints.length) {
+      this.ints = Arrays.copyOf(this.ints, Math.max(length, this.ints.length * 2));
+    }
+  }
+
+  private void widen() {
+
+    this.ints = new int[this.bytes.length];
+    for (int i = 0; i < this.size * this.dimensions; i++) {
+      this.ints[i] = Byte.toUnsignedInt(this.bytes[i]);
+    }
+    this.bytes = null;
+  }
+
+  /**
+   * Id of the vertex visited in a dimension of a trace, 0 if none.
+   *
+   * @param index index of the trace.
+   * @param dimension index of the dimension.
+   * @return vertex id in the Codec.
+   */
+  public int getId(int index, int dimension) {
+
+    Objects.checkIndex(index, this.size);
+    Objects.checkIndex(dimension, this.dimensions);
+    var position = index * this.dimensions + dimension;
+    return Objects.isNull(this.ints)
+            ? Byte.toUnsignedInt(this.bytes[position])
+            : this.ints[position];
+  }
+
+  /**
+   * Vertex visited in a dimension of a trace, without materializing the trace.
+   *
+   * @param index index of the trace.
+   * @param dimension index of the dimension.
+   * @return vertex, or null.
+   */
+  public Vertex getVertex(int index, int dimension) {
+
+    return this.codec.vertex(getId(index, dimension));
+  }
+
+  @Override
+  public T get(int index) {
+
+    Objects.checkIndex(index, this.size);
+    var vertices = new Vertex[this.dimensions];
+    for (int d = 0; d < this.dimensions; d++) {
+      vertices[d] = getVertex(index, d);
+    }
+    return this.codec.factory.apply(vertices);
+  }
+
+  @Override
+  public int size() {
+
+    return this.size;
+  }
+
+  @Override
+  public void clear() {
+
+    this.size = 0;
+    this.modCount++;
+  }
+
+  public Codec<T> getCodec() {
+
+    return this.codec;
+  }
+
+  /**
+   * Dictionary of the vertices of the routes of one kind of traces, with the
+   * number of their dimensions and a factory of traces from their vertices.
+   * Ids are dense and start from 1, 0 standing for no vertex; the dictionary
+   * only grows, and may be shared by routes of different threads.
+   *
+   * @param <T>
+   */
+  public static final class Codec<T extends Trace> {
+
+    private final int dimensions;
+    private final Function<Vertex[], T> factory;
+    private final Map<Vertex, Integer> ids;
+    private volatile Vertex[] vertices;
+    private int count;
+
+    /**
+     * Constructor of Codec.
+     *
+     * @param dimensions number of the dimensions of the traces.
+     * @param factory trace of the vertices, in the order of the dimensions,
+     * null for no vertex.
+     */
+    public Codec(int dimensions, Function<Vertex[], T> factory) {
+
+      if (dimensions < 1) {
+        throw new IllegalArgumentException("Number of dimensions must be positive: " + dimensions);
+      }
+      this.dimensions = dimensions;
+      this.factory = factory;
+      this.ids = new ConcurrentHashMap<>();
+      this.vertices = new Vertex[INITIAL_CAPACITY];
+      this.count = 1;
+    }
+
+    public CompactRoute<T> newRoute() {
+
+      return new CompactRoute<>(this);
+    }
+
+    /**
+     * Id of the vertex, assigned on the first call.
+     *
+     * @param vertex
+     * @return id, 0 for null.
+     */
+    public int id(Vertex vertex) {
+
+      if (Objects.isNull(vertex)) {
+        return 0;
+      }
+      var id = this.ids.get(vertex);
+      return Objects.nonNull(id) ? id : intern(vertex);
+    }
+
+    private synchronized int intern(Vertex vertex) {
+
+      return this.ids.computeIfAbsent(vertex, v -> {
+        var table = this.vertices;
+        if (this.count == table.length) {
+          table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[this.count] = v;
+        this.vertices = table;
+        return this.count++;
+      });
+    }
+
+    /**
+     * Vertex of the id.
+     *
+     * @param id
+     * @return vertex, null for 0.
+     */
+    public Vertex vertex(int id) {
+
+      return this.vertices[id];
+    }
+
+    public int getDimensions() {
+
+      return this.dimensions;
+    }
+
+    /**
+     * Number of the vertices in the dictionary.
+     *
+     * @return size.
+     */
+    public synchronized int size() {
+
+      return this.count - 1;
+    }
+  }
+}
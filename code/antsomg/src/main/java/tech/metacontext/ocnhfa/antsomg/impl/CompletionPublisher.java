@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SubmissionPublisher;
+import tech.metacontext.ocnhfa.antsomg.model.Ant;
+
+/**
+ * Publisher of the ants of an AntsOMGSystem as they complete, see
+ * AntsOMGSystem.getPublisher(). The system calls publish() with the ants it
+ * has just stepped, which were not completed before the step, and every
+ * completed ant among them is submitted, in their order. The publisher keeps
+ * no reference to the ants published, so each ant must be passed once for the
+ * step completing it, e.g. as NavigationEngine does by checking the ants
+ * before stepping them. Submission blocks while the buffer of a subscriber is
+ * full, so a slow downstream stage holds the navigation back instead of
+ * filling the memory.
+ * <p>
+ * Nothing is published while there are no subscribers, so the subscribers
+ * should subscribe before the system starts navigating, e.g. between
+ * init_population() and the first navigate().
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ * @param <A>
+ */
+public class CompletionPublisher<A extends Ant> extends SubmissionPublisher<A> {
+
+  private int published;
+
+  /**
+   * Constructor of CompletionPublisher, delivering asynchronously as
+   * SubmissionPublisher() does, with a buffer of Flow.defaultBufferSize() ants
+   * per subscriber.
+   */
+  public CompletionPublisher() {
+  }
+
+  /**
+   * Constructor of CompletionPublisher.
+   *
+   * @param executor executor delivering the ants to the subscribers.
+   * @param buffer maximum number of ants buffered per subscriber.
+   */
+  public CompletionPublisher(Executor executor, int buffer) {
+
+    super(executor, buffer);
+  }
+
+  /**
+   * Submit the ant if it is completed.
+   *
+   * @param ant ant just stepped, not completed before.
+   * @return whether the ant was published.
+   */
+  public synchronized boolean publish(A ant) {
+
+    if (!hasSubscribers() || isClosed() || !ant.isCompleted()) {
+      return false;
+    }
+    submit(ant);
+    this.published++;
+    return true;
+  }
+
+  /**
+   * Submit the completed ants, in their order.
+   *
+   * @param ants ants just stepped, not completed before.
+   * @return number of ants published.
+   */
+  public synchronized int publish(List<? extends A> ants) {
+
+    if (!hasSubscribers() || isClosed()) {
+      return 0;
+    }
+    var count = 0;
+    for (var ant : ants) {
+      if (ant.isCompleted()) {
+        submit(ant);
+        count++;
+      }
+    }
+    this.published += count;
+    return count;
+  }
+
+  /**
+   * Number of the ants published so far.
+   *
+   * @return count.
+   */
+  public synchronized int getPublished() {
+
+    return this.published;
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Convergence monitor of the pheromone field of one or more StandardGraphs,
+ * updated once per iteration. Every update computes the transition
+ * distribution of each vertex, i.e. the normalized fractions of its out-edges
+ * (of the same group, see CompactGraph.getGroup()), and compares it with the
+ * previous update:
+ * <ul>
+ * <li>distribution change: the largest total variation distance of any
+ * vertex;</li>
+ * <li>trail delta: the sum of absolute trail changes relative to the sum of
+ * the previous trails;</li>
+ * <li>entropy: the mean transition entropy (in nats) of the vertices.</li>
+ * </ul>
+ * The graphs are considered converged once the measure of the StopPolicy
+ * stayed below its epsilon for patience consecutive updates.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class ConvergenceMonitor {
+
+  public enum Measure {
+
+    Distribution, Trail;
+  }
+
+  /**
+   * Stop policy of a ConvergenceMonitor.
+   *
+   * @param measure measure compared with epsilon.
+   * @param epsilon threshold of the measure.
+   * @param patience number of consecutive updates below epsilon.
+   * @param min_iterations number of updates before convergence is possible.
+   */
+  public record StopPolicy(Measure measure, double epsilon, int patience, int min_iterations) {
+
+    public static int DEFAULT_PATIENCE = 5;
+
+    public StopPolicy(double epsilon, int patience) {
+
+      this(Measure.Distribution, epsilon, patience, 0);
+    }
+
+    public StopPolicy(double epsilon) {
+
+      this(epsilon, DEFAULT_PATIENCE);
+    }
+
+    /**
+     * Parse a stop policy from epsilon[:patience[:measure]], e.g. "1e-4:5" or
+     * "0.001:10:Trail".
+     *
+     * @param value policy string.
+     * @return StopPolicy
+     */
+    public static StopPolicy valueOf(String value) {
+
+      var fields = value.split(":");
+      return new StopPolicy(
+              fields.length > 2 ? Measure.valueOf(fields[2]) : Measure.Distribution,
+              Double.parseDouble(fields[0]),
+              fields.length > 1 ? Integer.parseInt(fields[1]) : DEFAULT_PATIENCE,
+              0);
+    }
+
+    @Override
+    public String toString() {
+
+      return epsilon + ":" + patience + ":" + measure;
+    }
+  }
+
+  private static final class State {
+
+    double[] probabilities = new double[0], trails = new double[0];
+  }
+
+  private final StopPolicy policy;
+  private final List<StandardGraph<?, ?>> graphs;
+  private final State[] states;
+  private int iterations, stable;
+  private double distribution_change, trail_delta, entropy;
+  private boolean converged;
+
+  public ConvergenceMonitor(StopPolicy policy, StandardGraph<?, ?>... graphs) {
+
+    this.policy = policy;
+    this.graphs = List.of(graphs);
+    this.states = new State[graphs.length];
+    Arrays.setAll(this.states, i -> new State());
+    this.distribution_change = Double.POSITIVE_INFINITY;
+    this.trail_delta = Double.POSITIVE_INFINITY;
+    this.entropy = Double.NaN;
+  }
+
+  /**
+   * Compare the pheromone field with the previous update, to be called once
+   * per iteration.
+   *
+   * @return whether the graphs have converged.
+   */
+  public boolean update() {
+
+    var first = this.iterations++ == 0;
+    double change = 0.0, delta = 0.0, previous_sum = 0.0, entropy_sum = 0.0;
+    int vertices = 0;
+    for (int g = 0; g < this.graphs.size(); g++) {
+      var graph = this.graphs.get(g);
+      var state = this.states[g];
+      var count = graph.getEdgeCount();
+      var probabilities = new double[count];
+      var trails = new double[count];
+      var choice = new int[count];
+      var choices = choices(graph, choice);
+      for (int id = 0; id < count; id++) {
+        if (choice[id] >= 0) {
+          probabilities[id] = graph.getFraction(id);
+          trails[id] = graph.getPheromone(id);
+        }
+      }
+      var sums = new double[choices];
+      var entropies = new double[choices];
+      var changes = new double[choices];
+      for (int i = 0; i < count; i++) {
+        if (choice[i] >= 0) {
+          sums[choice[i]] += probabilities[i];
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        var c = choice[i];
+        if (c < 0) {
+          continue;
+        }
+        var p = sums[c] > 0.0 ? probabilities[i] / sums[c] : 0.0;
+        probabilities[i] = p;
+        if (p > 0.0) {
+          entropies[c] -= p * Math.log(p);
+        }
+        if (i < state.probabilities.length) {
+          changes[c] += Math.abs(p - state.probabilities[i]);
+          delta += Math.abs(trails[i] - state.trails[i]);
+          previous_sum += state.trails[i];
+        } else {
+          changes[c] += p;
+          delta += trails[i];
+        }
+      }
+      for (int c = 0; c < choices; c++) {
+        change = Math.max(change, changes[c] / 2.0);
+        entropy_sum += entropies[c];
+      }
+      vertices += choices;
+      state.probabilities = probabilities;
+      state.trails = trails;
+    }
+    this.entropy = vertices > 0 ? entropy_sum / vertices : Double.NaN;
+    if (first) {
+      return this.converged;
+    }
+    this.distribution_change = change;
+    this.trail_delta = previous_sum > 0.0 ? delta / previous_sum
+            : delta > 0.0 ? Double.POSITIVE_INFINITY : 0.0;
+    var measure = this.policy.measure() == Measure.Trail
+            ? this.trail_delta : this.distribution_change;
+    this.stable = measure < this.policy.epsilon() ? this.stable + 1 : 0;
+    this.converged = this.iterations >= this.policy.min_iterations()
+            && this.stable >= this.policy.patience();
+    return this.converged;
+  }
+
+  /**
+   * Number the choices of the graph, i.e. the out-edges of a vertex in the
+   * same group, walking the CSR index by origin vertex. Choices are numbered
+   * in the order of their smallest edge id.
+   *
+   * @param graph
+   * @param choice choice of each edge by edge id, filled with -1 for the
+   * edges not indexed.
+   * @return number of choices.
+   */
+  private static int choices(StandardGraph<?, ?> graph, int[] choice) {
+
+    graph.ensureIndex();
+    var first = new int[choice.length];
+    Arrays.fill(first, -1);
+    var groups = new int[4];
+    var firsts = new int[4];
+    for (int v = 0, n = graph.getVertexCount(); v < n; v++) {
+      var start = graph.getOutStart(v);
+      var end = graph.getOutEnd(v);
+      var k = 0;
+      for (int p = start; p < end; p++) {
+        var id = graph.getOutEdge(p);
+        var j = find(groups, k, graph.getGroup(id));
+        if (j == k) {
+          if (k == groups.length) {
+            groups = Arrays.copyOf(groups, k * 2);
+            firsts = Arrays.copyOf(firsts, k * 2);
+          }
+          groups[k] = graph.getGroup(id);
+          firsts[k++] = id;
+        } else {
+          firsts[j] = Math.min(firsts[j], id);
+        }
+      }
+      for (int p = start; p < end; p++) {
+        var id = graph.getOutEdge(p);
+        first[id] = firsts[find(groups, k, graph.getGroup(id))];
+      }
+    }
+    var choices = 0;
+    for (int id = 0; id < choice.length; id++) {
+      choice[id] = first[id] < 0 ? -1
+              : first[id] == id ? choices++ : choice[first[id]];
+    }
+    return choices;
+  }
+
+  private static int find(int[] groups, int size, int group) {
+
+    var j = 0;
+    while (j < size && groups[j] != group) {
+      j++;
+    }
+    return j;
+  }
+
+  public StopPolicy getPolicy() {
+
+    return policy;
+  }
+
+  public boolean isConverged() {
+
+    return converged;
+  }
+
+  public int getIterations() {
+
+    return iterations;
+  }
+
+  /**
+   * Number of consecutive updates with the measure below epsilon.
+   *
+   * @return number of updates.
+   */
+  public int getStable() {
+
+    return stable;
+  }
+
+  public double getDistribution_change() {
+
+    return distribution_change;
+  }
+
+  public double getTrail_delta() {
+
+    return trail_delta;
+  }
+
+  /**
+   * Mean transition entropy of the vertices as of the last update.
+   *
+   * @return entropy in nats, or NaN if not updated yet.
+   */
+  public double getEntropy() {
+
+    return entropy;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Pheromone deposits of one ant during a parallel iteration. In Deferred
+ * mode the deposits are recorded in private primitive buffers and merged
+ * into the trails at the iteration barrier by merge(), in the order they
+ * were made, so that the trails do not depend on the number of workers. In
+ * Atomic mode the deposits go to the trails at once with lock-free updates.
+ * Ants without a bound buffer deposit directly, as in sequential iterations.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class DepositBuffer {
+
+  public enum DepositMode {
+
+    Deferred, Atomic;
+  }
+
+  private static final ThreadLocal<DepositBuffer> BOUND = new ThreadLocal<>();
+
+  private final DepositMode mode;
+  private StandardEdge<?>[] edges;
+  private double[] amounts;
+  private int size;
+
+  public DepositBuffer(DepositMode mode) {
+
+    this.mode = mode;
+    this.edges = new StandardEdge<?>[16];
+    this.amounts = new double[16];
+  }
+
+  /**
+   * Deposit pheromone on the edge, via the buffer bound to the current
+   * thread if any.
+   *
+   * @param edge selected edge.
+   * @param amount pheromone deposit.
+   */
+  public static void deposit(StandardEdge<?> edge, double amount) {
+
+    var buffer = BOUND.get();
+    if (Objects.isNull(buffer)) {
+      edge.addPheromoneDeposit(amount);
+    } else {
+      buffer.add(edge, amount);
+    }
+  }
+
+  /**
+   * Run the task with deposits in the current thread going to the specified
+   * buffer.
+   *
+   * @param buffer deposit buffer.
+   * @param task task to be run.
+   */
+  public static void withBuffer(DepositBuffer buffer, Runnable task) {
+
+    var previous = BOUND.get();
+    BOUND.set(buffer);
+    try {
+      task.run();
+    } finally {
+      if (Objects.isNull(previous)) {
+        BOUND.remove();
+      } else {
+        BOUND.set(previous);
+      }
+    }
+  }
+
+  public void add(StandardEdge<?> edge, double amount) {
+
+    if (amount == 0.0) {
+      return;
+    }
+    if (this.mode == DepositMode.Atomic) {
+      edge.addPheromoneDepositAtomic(amount);
+      return;
+    }
+    if (size == edges.length) {
+      edges = Arrays.copyOf(edges, size * 2);
+      amounts = Arrays.copyOf(amounts, size * 2);
+    }
+    edges[size] = edge;
+    amounts[size++] = amount;
+  }
+
+  /**
+   * Merge the recorded deposits into the trails and clear the buffer. Merging
+   * is atomic per edge, so buffers sharing edges may be merged concurrently.
+   */
+  public void merge() {
+
+    for (int i = 0; i < size; i++) {
+      edges[i].addPheromoneDepositAtomic(amounts[i]);
+      edges[i] = null;
+    }
+    size = 0;
+  }
+
+  /**
+   * Merge the recorded deposits into the trails multiplied by the weight, e.g.
+   * by the rank of the ant, and clear the buffer.
+   *
+   * @param weight weight of the deposits.
+   */
+  public void merge(double weight) {
+
+    for (int i = 0; i < size; i++) {
+      edges[i].addPheromoneDepositAtomic(amounts[i] * weight);
+      edges[i] = null;
+    }
+    size = 0;
+  }
+
+  /**
+   * Discard the recorded deposits.
+   */
+  public void clear() {
+
+    Arrays.fill(edges, 0, size, null);
+    size = 0;
+  }
+
+  public DepositMode getMode() {
+
+    return mode;
+  }
+
+  public int size() {
+
+    return size;
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.Arrays;
+import tech.metacontext.ocnhfa.antsomg.impl.CompactGraph.EdgeRange;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
+
+/**
+ * Fraction arithmetic of one FractionMode with fixed alpha and beta. The
+ * heuristic term of every edge, depending on its cost only, is cached by edge
+ * id until invalidated, and each mode fills fractions in its own loop, so that
+ * the arithmetic is inlined without a switch per edge. Where the fractions are
+ * linear in the trails, i.e. in Coefficient mode and in the other modes with
+ * alpha 1.0, they are filled by the Kernels in bulk.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public abstract class FractionSampler {
+
+  protected final double alpha, beta;
+  private volatile double[] heuristics;
+  private volatile int computed;
+
+  protected FractionSampler(double alpha, double beta) {
+
+    this.alpha = alpha;
+    this.beta = beta;
+    this.heuristics = new double[0];
+  }
+
+  public static FractionSampler of(FractionMode mode, double alpha, double beta) {
+
+    return switch (mode) {
+      case Power ->
+        new Power(alpha, beta);
+      case Power_Multiply ->
+        new PowerMultiply(alpha, beta);
+      case Coefficient ->
+        new Coefficient(alpha, beta);
+    };
+  }
+
+  public abstract FractionMode getMode();
+
+  /**
+   * Heuristic term of an edge with the cost.
+   *
+   * @param cost
+   * @return heuristic term.
+   */
+  public abstract double heuristic(double cost);
+
+  /**
+   * Fraction of an edge.
+   *
+   * @param trail pheromone trail.
+   * @param heuristic heuristic term.
+   * @return fraction.
+   */
+  public abstract double fraction(double trail, double heuristic);
+
+  /**
+   * Fill the buffer with the fractions of the edges in the range.
+   *
+   * @param graph graph of the edges.
+   * @param range out-edges of a vertex of the graph.
+   * @param fractions buffer with at least range.size() elements.
+   */
+  public void fill(CompactGraph<?, ?> graph, EdgeRange<?> range, double[] fractions) {
+
+    fill(graph, range.getIds(), range.getStart(), range.size(), fractions);
+  }
+
+  /**
+   * Fill the buffer with the fractions of the edges of the ids.
+   *
+   * @param graph graph of the edges.
+   * @param ids edge ids.
+   * @param start start in ids.
+   * @param size number of edges.
+   * @param fractions buffer with at least size elements.
+   */
+  public abstract void fill(CompactGraph<?, ?> graph, int[] ids, int start, int size, double[] fractions);
+
+  public boolean matches(FractionMode mode, double alpha, double beta) {
+
+    return getMode() == mode && this.alpha == alpha && this.beta == beta;
+  }
+
+  public double getFraction(CompactGraph<?, ?> graph, int edge) {
+
+    return fraction(graph.getPheromone(edge), getHeuristic(graph, edge));
+  }
+
+  /**
+   * Cached heuristic term of the edge.
+   *
+   * @param graph graph of the edge.
+   * @param edge edge id.
+   * @return heuristic term.
+   */
+  public double getHeuristic(CompactGraph<?, ?> graph, int edge) {
+
+    var cache = this.heuristics;
+    if (edge >= cache.length) {
+      cache = grow(graph.getEdgeCount());
+    }
+    var h = cache[edge];
+    if (Double.isNaN(h)) {
+      h = heuristic(graph.getCost(edge));
+      cache[edge] = h;
+    }
+    return h;
+  }
+
+  /**
+   * Drop the cached heuristic term of the edge, on modification of its cost.
+   *
+   * @param edge edge id.
+   */
+  public synchronized void invalidate(int edge) {
+
+    var cache = this.heuristics;
+    if (edge < cache.length) {
+      cache[edge] = Double.NaN;
+    }
+    this.computed = Math.min(this.computed, edge);
+  }
+
+  /**
+   * Cached heuristic terms of all edges of the graph, computing the missing
+   * ones, for the kernels reading them in bulk.
+   *
+   * @param graph graph of the edges.
+   * @return heuristic terms by edge id, not to be modified.
+   */
+  public double[] getHeuristics(CompactGraph<?, ?> graph) {
+
+    var count = graph.getEdgeCount();
+    return this.computed < count ? compute(graph, count) : this.heuristics;
+  }
+
+  private synchronized double[] compute(CompactGraph<?, ?> graph, int count) {
+
+    var cache = grow(count);
+    for (int i = this.computed; i < count; i++) {
+      if (Double.isNaN(cache[i])) {
+        cache[i] = heuristic(graph.getCost(i));
+      }
+    }
+    this.computed = count;
+    return cache;
+  }
+
+  private synchronized double[] grow(int size) {
+
+    var cache = this.heuristics;
+    if (cache.length < size) {
+      var length = cache.length;
+      cache = Arrays.copyOf(cache, Math.max(size, length * 2));
+      Arrays.fill(cache, length, cache.length, Double.NaN);
+      this.heuristics = cache;
+    }
+    return cache;
+  }
+
+  /**
+   * Pheromone trail to the power of alpha, which is the trail itself for
+   * alpha 1.0, as Math.pow() specifies.
+   *
+   * @param trail pheromone trail.
+   * @return powered trail.
+   */
+  protected final double power(double trail) {
+
+    return this.alpha == 1.0 ? trail : Math.pow(trail, this.alpha);
+  }
+
+  static final class Power extends FractionSampler {
+
+    Power(double alpha, double beta) {
+
+      super(alpha, beta);
+    }
+
+    @Override
+    public FractionMode getMode() {
+
+      return FractionMode.Power;
+    }
+
+    @Override
+    public double heuristic(double cost) {
+
+      return Math.pow(1.0 / cost, this.beta);
+    }
+
+    @Override
+    public double fraction(double trail, double heuristic) {
+
+      return power(trail) + heuristic;
+    }
+
+    @Override
+    public void fill(CompactGraph<?, ?> graph, int[] ids, int start, int size, double[] fractions) {
+
+      if (this.alpha == 1.0) {
+        Kernels.get().linear(graph.getTrails(), graph.getDecay(), 1.0,
+                getHeuristics(graph), ids, start, size, fractions);
+        return;
+      }
+      for (int i = 0; i < size; i++) {
+        var edge = ids[start + i];
+        fractions[i] = power(graph.getPheromone(edge)) + getHeuristic(graph, edge);
+      }
+    }
+  }
+
+  static final class PowerMultiply extends FractionSampler {
+
+    PowerMultiply(double alpha, double beta) {
+
+      super(alpha, beta);
+    }
+
+    @Override
+    public FractionMode getMode() {
+
+      return FractionMode.Power_Multiply;
+    }
+
+    @Override
+    public double heuristic(double cost) {
+
+      return Math.pow(1.0 / cost, this.beta);
+    }
+
+    @Override
+    public double fraction(double trail, double heuristic) {
+
+      return power(trail) * heuristic;
+    }
+
+    @Override
+    public void fill(CompactGraph<?, ?> graph, int[] ids, int start, int size, double[] fractions) {
+
+      if (this.alpha == 1.0) {
+        Kernels.get().product(graph.getTrails(), graph.getDecay(),
+                getHeuristics(graph), ids, start, size, fractions);
+        return;
+      }
+      for (int i = 0; i < size; i++) {
+        var edge = ids[start + i];
+        fractions[i] = power(graph.getPheromone(edge)) * getHeuristic(graph, edge);
+      }
+    }
+  }
+
+  static final class Coefficient extends FractionSampler {
+
+    Coefficient(double alpha, double beta) {
+
+      super(alpha, beta);
+    }
+
+    @Override
+    public FractionMode getMode() {
+
+      return FractionMode.Coefficient;
+    }
+
+    @Override
+    public double heuristic(double cost) {
+
+      return 1.0 / cost * this.beta;
+    }
+
+    @Override
+    public double fraction(double trail, double heuristic) {
+
+      return trail * this.alpha + heuristic;
+    }
+
+    @Override
+    public void fill(CompactGraph<?, ?> graph, int[] ids, int start, int size, double[] fractions) {
+
+      Kernels.get().linear(graph.getTrails(), graph.getDecay(), this.alpha,
+              getHeuristics(graph), ids, start, size, fractions);
+    }
+  }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Binary snapshot of the pheromone state of a CompactGraph: a version header,
+ * the decay factor, the vertex table by name and the group, endpoints, cost
+ * and pheromone trail of every edge by edge id. The trails are saved relative
+ * to the decay factor, as the graph stores them, so that a restored graph
+ * continues bit for bit. Snapshots are written through a small direct buffer
+ * and read from a memory-mapped file, and restored onto a graph built anew by
+ * init_graph(), matching its edges by group and endpoint names, so that the
+ * edge ids do not need to be the same.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public final class GraphSnapshot {
+
+  public static final String EXTENSION = ".aomg";
+  public static final int MAGIC = 0x414F4D47; // "AOMG"
+  public static final short VERSION = 2;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final String graph_class;
+  private final double decay;
+  private final String[] vertices;
+  private final int[] groups, from, to;
+  private final double[] cost, pheromone;
+
+  private GraphSnapshot(String graph_class, double decay, String[] vertices,
+          int[] groups, int[] from, int[] to, double[] cost, double[] pheromone) {
+
+    this.graph_class = graph_class;
+    this.decay = decay;
+    this.vertices = vertices;
+    this.groups = groups;
+    this.from = from;
+    this.to = to;
+    this.cost = cost;
+    this.pheromone = pheromone;
+  }
+
+  /**
+   * Take the snapshot of the graph in memory, e.g. to be written by another
+   * thread while the graph goes on.
+   *
+   * @param graph
+   * @return snapshot.
+   */
+  public static GraphSnapshot of(CompactGraph<?, ?> graph) {
+
+    synchronized (graph) {
+      var vertices = new String[graph.getVertexCount()];
+      for (int v = 0; v < vertices.length; v++) {
+        vertices[v] = name(graph, v);
+      }
+      var edge_count = graph.getEdgeCount();
+      var groups = new int[edge_count];
+      var from = new int[edge_count];
+      var to = new int[edge_count];
+      var cost = new double[edge_count];
+      var trails = graph.getTrails();
+      var pheromone = new double[edge_count];
+      for (int i = 0; i < edge_count; i++) {
+        groups[i] = graph.getGroup(i);
+        from[i] = graph.getFromId(i);
+        to[i] = graph.getToId(i);
+        cost[i] = graph.getCost(i);
+        pheromone[i] = trails[i];
+      }
+      return new GraphSnapshot(graph.getClass().getName(), graph.getDecay(), vertices,
+              groups, from, to, cost, pheromone);
+    }
+  }
+
+  /**
+   * Write the snapshot of the graph to the file, replacing it if it exists.
+   *
+   * @param graph
+   * @param path
+   * @throws IOException
+   */
+  public static void write(CompactGraph<?, ?> graph, Path path) throws IOException {
+
+    of(graph).write(path);
+  }
+
+  /**
+   * Write this snapshot to the file, replacing it if it exists.
+   *
+   * @param path
+   * @throws IOException
+   */
+  public void write(Path path) throws IOException {
+
+    try (var channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      var out = new Output(channel);
+      out.putInt(MAGIC);
+      out.putShort(VERSION);
+      out.putShort((short) 0);
+      out.putString(this.graph_class);
+      out.putDouble(this.decay);
+      out.putInt(this.vertices.length);
+      for (var vertex : this.vertices) {
+        out.putString(vertex);
+      }
+      out.putInt(this.from.length);
+      for (var group : this.groups) {
+        out.putInt(group);
+      }
+      for (var id : this.from) {
+        out.putInt(id);
+      }
+      for (var id : this.to) {
+        out.putInt(id);
+      }
+      for (var c : this.cost) {
+        out.putDouble(c);
+      }
+      for (var trail : this.pheromone) {
+        out.putDouble(trail);
+      }
+      out.flush();
+    }
+  }
+
+  /**
+   * Whether the other snapshot holds the same graph with the same costs and
+   * pheromone trails, i.e. writing it again would produce the same file.
+   *
+   * @param other
+   * @return true if the same.
+   */
+  public boolean isSame(GraphSnapshot other) {
+
+    return Objects.nonNull(other)
+            && this.graph_class.equals(other.graph_class)
+            && Double.compare(this.decay, other.decay) == 0
+            && Arrays.equals(this.vertices, other.vertices)
+            && Arrays.equals(this.groups, other.groups)
+            && Arrays.equals(this.from, other.from)
+            && Arrays.equals(this.to, other.to)
+            && Arrays.equals(this.cost, other.cost)
+            && Arrays.equals(this.pheromone, other.pheromone);
+  }
+
+  /**
+   * Read a snapshot from the memory-mapped file. Snapshots of version 1 hold
+   * the pheromone trails with the decay folded in, and are read with a decay
+   * factor of 1.
+   *
+   * @param path
+   * @return snapshot.
+   * @throws IOException if the file is not a snapshot of a supported version.
+   */
+  public static GraphSnapshot read(Path path) throws IOException {
+
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (in.remaining() < 8 || in.getInt() != MAGIC) {
+        throw new IOException("Not a graph snapshot: " + path);
+      }
+      var version = in.getShort();
+      if (version != 1 && version != VERSION) {
+        throw new IOException("Unsupported graph snapshot version " + version + ": " + path);
+      }
+      in.getShort();
+      var graph_class = getString(in);
+      var decay = version == 1 ? 1.0 : in.getDouble();
+      var vertices = new String[in.getInt()];
+      for (int v = 0; v < vertices.length; v++) {
+        vertices[v] = getString(in);
+      }
+      var edge_count = in.getInt();
+      var groups = new int[edge_count];
+      var from = new int[edge_count];
+      var to = new int[edge_count];
+      var cost = new double[edge_count];
+      var pheromone = new double[edge_count];
+      in.asIntBuffer().get(groups);
+      in.position(in.position() + edge_count * Integer.BYTES);
+      in.asIntBuffer().get(from);
+      in.position(in.position() + edge_count * Integer.BYTES);
+      in.asIntBuffer().get(to);
+      in.position(in.position() + edge_count * Integer.BYTES);
+      in.asDoubleBuffer().get(cost);
+      in.position(in.position() + edge_count * Double.BYTES);
+      in.asDoubleBuffer().get(pheromone);
+      return new GraphSnapshot(graph_class, decay, vertices, groups, from, to, cost, pheromone);
+    } catch (RuntimeException ex) {
+      throw new IOException("Corrupted graph snapshot: " + path, ex);
+    }
+  }
+
+  private static String getString(ByteBuffer in) {
+
+    var length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    var bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Restore the decay factor and the pheromone trails, and optionally the
+   * costs, onto the edges of the graph with the same group and endpoints.
+   * Edges of the graph missing in the snapshot keep their pheromone, rescaled
+   * to the restored decay factor.
+   *
+   * @param graph
+   * @param restore_cost whether to restore the costs as well.
+   * @return number of edges restored.
+   */
+  public int restore(CompactGraph<?, ?> graph, boolean restore_cost) {
+
+    synchronized (graph) {
+      graph.rebase(this.decay);
+      var restored = sameLayout(graph)
+              ? restoreById(graph, restore_cost)
+              : restoreByName(graph, restore_cost);
+      graph.thaw();
+      return restored;
+    }
+  }
+
+  private boolean sameLayout(CompactGraph<?, ?> graph) {
+
+    if (graph.getVertexCount() != vertices.length || graph.getEdgeCount() != from.length) {
+      return false;
+    }
+    for (int v = 0; v < vertices.length; v++) {
+      if (!Objects.equals(vertices[v], name(graph, v))) {
+        return false;
+      }
+    }
+    for (int i = 0; i < from.length; i++) {
+      if (graph.getFromId(i) != from[i] || graph.getToId(i) != to[i]
+              || graph.getGroup(i) != groups[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int restoreById(CompactGraph<?, ?> graph, boolean restore_cost) {
+
+    for (int i = 0; i < from.length; i++) {
+      if (restore_cost) {
+        graph.setCost(i, cost[i]);
+      }
+      graph.setTrail(i, pheromone[i]);
+    }
+    return from.length;
+  }
+
+  private int restoreByName(CompactGraph<?, ?> graph, boolean restore_cost) {
+
+    var index = new HashMap<EdgeKey, ArrayDeque<Integer>>();
+    for (int i = 0; i < from.length; i++) {
+      index.computeIfAbsent(new EdgeKey(groups[i], vertices[from[i]], vertices[to[i]]),
+              k -> new ArrayDeque<>()).add(i);
+    }
+    var restored = 0;
+    for (int i = 0; i < graph.getEdgeCount(); i++) {
+      var ids = index.get(new EdgeKey(graph.getGroup(i),
+              name(graph, graph.getFromId(i)), name(graph, graph.getToId(i))));
+      if (Objects.nonNull(ids) && !ids.isEmpty()) {
+        var id = ids.poll();
+        if (restore_cost) {
+          graph.setCost(i, cost[id]);
+        }
+        graph.setTrail(i, pheromone[id]);
+        restored++;
+      }
+    }
+    return restored;
+  }
+
+  private static String name(CompactGraph<?, ?> graph, int vertex) {
+
+    var v = graph.getVertex(vertex);
+    return Objects.isNull(v) ? null : v.getName();
+  }
+
+  public String getGraph_class() {
+
+    return graph_class;
+  }
+
+  public double getDecay() {
+
+    return decay;
+  }
+
+  public int getVertexCount() {
+
+    return vertices.length;
+  }
+
+  public int getEdgeCount() {
+
+    return from.length;
+  }
+
+  private record EdgeKey(int group, String from, String to) {
+
+  }
+
+  /**
+   * Buffered big-endian output to a file channel.
+   */
+  private static final class Output {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    Output(FileChannel channel) {
+
+      this.channel = channel;
+    }
+
+    private void ensure(int bytes) throws IOException {
+
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void putInt(int value) throws IOException {
+
+      ensure(Integer.BYTES);
+      buffer.putInt(value);
+    }
+
+    void putShort(short value) throws IOException {
+
+      ensure(Short.BYTES);
+      buffer.putShort(value);
+    }
+
+    void putDouble(double value) throws IOException {
+
+      ensure(Double.BYTES);
+      buffer.putDouble(value);
+    }
+
+    void putString(String value) throws IOException {
+
+      if (Objects.isNull(value)) {
+        putInt(-1);
+        return;
+      }
+      var bytes = value.getBytes(StandardCharsets.UTF_8);
+      putInt(bytes.length);
+      for (int offset = 0; offset < bytes.length;) {
+        ensure(1);
+        var length = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, length);
+        offset += length;
+      }
+    }
+
+    void flush() throws IOException {
+
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk kernels over the primitive arrays of CompactGraph, scoring the edges of
+ * a vertex or locus with one gather of their trails and heuristic terms, and
+ * scaling whole trail arrays. The kernels are selected once at startup: the
+ * SIMD ones on jdk.incubator.vector, if they were built with the profile
+ * vector and the module is resolved (e.g. with --add-modules
+ * jdk.incubator.vector), or else the scalar ones. Setting the
+ * system property antsomg.kernels to Scalar forces the scalar kernels.
+ * <p>
+ * Both evaluate every element with the same operations in the same order,
+ * without fused multiply-add, so that the results are identical and the
+ * selections stay reproducible with the same seeds.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public abstract class Kernels {
+
+  public enum Kind {
+
+    Scalar, Vector;
+  }
+
+  private static final Kernels INSTANCE = select();
+
+  public static Kernels get() {
+
+    return INSTANCE;
+  }
+
+  /**
+   * Kernels of the kind, for comparison, regardless of the selection.
+   *
+   * @param kind kind of kernels.
+   * @return Kernels
+   * @throws UnsupportedOperationException if the kind is not available.
+   */
+  public static Kernels of(Kind kind) {
+
+    return switch (kind) {
+      case Scalar ->
+        new Scalar();
+      case Vector ->
+        vector();
+    };
+  }
+
+  private static Kernels select() {
+
+    var logger = Logger.getLogger(Kernels.class.getName());
+    if (Kind.Scalar.name().equalsIgnoreCase(System.getProperty("antsomg.kernels"))) {
+      return new Scalar();
+    }
+    try {
+      var kernels = vector();
+      logger.log(Level.CONFIG, "Using vector kernels.");
+      return kernels;
+    } catch (UnsupportedOperationException ex) {
+      logger.log(Level.CONFIG, "Using scalar kernels.");
+      return new Scalar();
+    }
+  }
+
+  private static Kernels vector() {
+
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      throw new UnsupportedOperationException("Module jdk.incubator.vector not resolved.");
+    }
+    try {
+      return (Kernels) Class.forName(Kernels.class.getPackageName() + ".VectorKernels")
+              .getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError ex) {
+      throw new UnsupportedOperationException(ex);
+    }
+  }
+
+  public abstract Kind getKind();
+
+  /**
+   * out[i] = trails[id] * decay * alpha + heuristics[id], with id =
+   * ids[start + i].
+   *
+   * @param trails trails relative to the decay factor.
+   * @param decay decay factor.
+   * @param alpha coefficient of the trails.
+   * @param heuristics heuristic terms.
+   * @param ids edge ids.
+   * @param start start in ids.
+   * @param size number of edges.
+   * @param out buffer of at least size elements.
+   */
+  public abstract void linear(double[] trails, double decay, double alpha,
+          double[] heuristics, int[] ids, int start, int size, double[] out);
+
+  /**
+   * out[i] = trails[id] * decay * heuristics[id], with id = ids[start + i].
+   *
+   * @param trails trails relative to the decay factor.
+   * @param decay decay factor.
+   * @param heuristics heuristic terms.
+   * @param ids edge ids.
+   * @param start start in ids.
+   * @param size number of edges.
+   * @param out buffer of at least size elements.
+   */
+  public abstract void product(double[] trails, double decay,
+          double[] heuristics, int[] ids, int start, int size, double[] out);
+
+  /**
+   * array[i] *= factor for i in [0, size).
+   *
+   * @param array
+   * @param size number of elements.
+   * @param factor
+   */
+  public abstract void scale(double[] array, int size, double factor);
+
+  static final class Scalar extends Kernels {
+
+    @Override
+    public Kind getKind() {
+
+      return Kind.Scalar;
+    }
+
+    @Override
+    public void linear(double[] trails, double decay, double alpha,
+            double[] heuristics, int[] ids, int start, int size, double[] out) {
+
+      for (int i = 0; i < size; i++) {
+        var id = ids[start + i];
+        out[i] = trails[id] * decay * alpha + heuristics[id];
+      }
+    }
+
+    @Override
+    public void product(double[] trails, double decay,
+            double[] heuristics, int[] ids, int start, int size, double[] out) {
+
+      for (int i = 0; i < size; i++) {
+        var id = ids[start + i];
+        out[i] = trails[id] * decay * heuristics[id];
+      }
+    }
+
+    @Override
+    public void scale(double[] array, int size, double factor) {
+
+      for (int i = 0; i < size; i++) {
+        array[i] *= factor;
+      }
+    }
+  }
+}
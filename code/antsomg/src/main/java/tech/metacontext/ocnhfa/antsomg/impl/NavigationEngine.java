@@ -0,0 +1,440 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import tech.metacontext.ocnhfa.antsomg.impl.DepositBuffer.DepositMode;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.*;
+import tech.metacontext.ocnhfa.antsomg.model.Ant;
+import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
+import tech.metacontext.ocnhfa.antsomg.model.Instrumentation;
+
+/**
+ * Iteration engine driving the ants of an AntsOMGSystem through a per-ant
+ * step callback. Every call of navigate() derives a stream from the current
+ * getRandom(), from which each ant gets its own stream by index, so that the
+ * result does not depend on which worker runs which ant.
+ * <p>
+ * In Sequential mode the ants are stepped in order on the calling thread and
+ * deposit at once. Otherwise the ants are stepped in batches of batch_size on
+ * the executor, each with its own deposit buffer, which are merged in the
+ * order of the ants at the barrier closing the batch. The batch listener is
+ * notified after every barrier with the number of ants stepped, e.g. to
+ * evaporate per ant.
+ * <p>
+ * With a group step set, all ants are stepped by one call of it on the calling
+ * thread instead, e.g. to move the ants on the same vertex with
+ * StandardGraph.moveAll().
+ * <p>
+ * With a shared random stream, the ants stepped on the calling thread, i.e.
+ * in Sequential mode or by the group step, draw from getRandom() itself in
+ * their order, as a system looping over its ants does, so that such a system
+ * keeps its seeded results on the engine. The parallel modes always derive
+ * the streams of the ants.
+ * <p>
+ * With a publisher set, the ants completed are published after every step in
+ * Sequential mode, and after every barrier in the order of the ants
+ * otherwise, see CompletionPublisher. Only the ants which were not completed
+ * before the step are passed to the publisher, so that each ant is published
+ * once.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ * @param <A>
+ */
+public class NavigationEngine<A extends Ant> {
+
+  public enum ExecutionMode {
+
+    Sequential, ForkJoin, Virtual;
+  }
+
+  /**
+   * Per-ant step callback, implemented by the systems opting in.
+   *
+   * @param <A>
+   */
+  @FunctionalInterface
+  public interface Step<A extends Ant> {
+
+    void step(A ant);
+  }
+
+  /**
+   * Step callback for all ants of an iteration at once.
+   *
+   * @param <A>
+   */
+  @FunctionalInterface
+  public interface GroupStep<A extends Ant> {
+
+    void step(List<? extends A> ants);
+  }
+
+  public static int DEFAULT_BATCH_SIZE = 64;
+
+  private final AntsOMGSystem<A> system;
+  private final Step<? super A> step;
+  private ExecutionMode mode;
+  private ExecutorService executor;
+  private boolean own_executor;
+  private int batch_size;
+  private DepositMode deposit_mode;
+  private IntConsumer batch_listener;
+  private GroupStep<? super A> group_step;
+  private boolean shared_random;
+  private CompletionPublisher<A> publisher;
+  private volatile boolean cancelled;
+  private int iteration;
+
+  public NavigationEngine(AntsOMGSystem<A> system, Step<? super A> step) {
+
+    this.system = system;
+    this.step = step;
+    this.mode = ExecutionMode.Sequential;
+    this.batch_size = DEFAULT_BATCH_SIZE;
+    this.deposit_mode = DepositMode.Deferred;
+    this.batch_listener = ants -> {
+    };
+  }
+
+  public static <A extends Ant, S extends AntsOMGSystem<A> & Step<A>> NavigationEngine<A> of(S system) {
+
+    return new NavigationEngine<>(system, system);
+  }
+
+  /**
+   * Step all ants of the system and evaporate, unless cancelled. The
+   * iteration and the evaporation are published to Instrumentation.
+   */
+  public void iterate() {
+
+    var count = this.iteration++;
+    var start = Instrumentation.clock();
+    Instrumentation.iterationStarted(this.system, count);
+    navigate(this.system.getAnts());
+    if (!this.cancelled) {
+      var evaporation = Instrumentation.clock();
+      this.system.evaporate();
+      Instrumentation.evaporated(this.system, evaporation);
+    }
+    Instrumentation.iterationEnded(this.system, count, start);
+  }
+
+  /**
+   * Call navigate() of the system until its aim is achieved or the engine is
+   * cancelled.
+   *
+   * @return number of iterations.
+   */
+  public int run() {
+
+    int iterations = 0;
+    while (!this.cancelled && !this.system.isAimAchieved()) {
+      this.system.navigate();
+      iterations++;
+    }
+    return iterations;
+  }
+
+  /**
+   * Step the specified ants once each. Ants not started yet are skipped after
+   * cancel(), while the deposits of the finished ones are still merged.
+   *
+   * @param ants ants to be stepped.
+   */
+  public void navigate(List<? extends A> ants) {
+
+    var shared = this.shared_random
+            && (Objects.nonNull(this.group_step) || this.mode == ExecutionMode.Sequential);
+    var random = shared ? null : nextStream();
+    if (Objects.nonNull(this.group_step)) {
+      if (!this.cancelled) {
+        var pending = pending(ants);
+        if (shared) {
+          this.group_step.step(ants);
+        } else {
+          withRandom(random, () -> this.group_step.step(ants));
+        }
+        publish(pending);
+        this.batch_listener.accept(ants.size());
+      }
+      return;
+    }
+    if (this.mode == ExecutionMode.Sequential) {
+      for (int i = 0; i < ants.size() && !this.cancelled; i++) {
+        var ant = ants.get(i);
+        var completed = ant.isCompleted();
+        if (shared) {
+          this.step.step(ant);
+        } else {
+          withRandom(random.fork(i), () -> this.step.step(ant));
+        }
+        if (Objects.nonNull(this.publisher) && !completed) {
+          this.publisher.publish(ant);
+        }
+        this.batch_listener.accept(1);
+      }
+      return;
+    }
+    var service = getExecutor();
+    var buffers = IntStream.range(0, Math.min(this.batch_size, ants.size()))
+            .mapToObj(i -> new DepositBuffer(this.deposit_mode))
+            .toArray(DepositBuffer[]::new);
+    for (int start = 0; start < ants.size() && !this.cancelled; start += this.batch_size) {
+      var end = Math.min(start + this.batch_size, ants.size());
+      var pending = pending(ants.subList(start, end));
+      var tasks = new ArrayList<Callable<Object>>(end - start);
+      for (int i = start; i < end; i++) {
+        var index = i;
+        var buffer = buffers[i - start];
+        tasks.add(Executors.callable(() -> {
+          if (!this.cancelled) {
+            DepositBuffer.withBuffer(buffer, () -> withRandom(random.fork(index),
+                    () -> this.step.step(ants.get(index))));
+          }
+        }));
+      }
+      invoke(service, tasks);
+      Arrays.stream(buffers).forEach(DepositBuffer::merge);
+      publish(pending);
+      this.batch_listener.accept(end - start);
+    }
+  }
+
+  /**
+   * Ants not completed yet, to be published if the step completes them.
+   *
+   * @param ants ants to be stepped.
+   * @return ants not completed, or null if there is no one to publish to.
+   */
+  private List<A> pending(List<? extends A> ants) {
+
+    if (Objects.isNull(this.publisher) || !this.publisher.hasSubscribers()) {
+      return null;
+    }
+    return ants.stream()
+            .filter(ant -> !ant.isCompleted())
+            .collect(Collectors.toList());
+  }
+
+  private void publish(List<A> pending) {
+
+    if (Objects.nonNull(pending)) {
+      this.publisher.publish(pending);
+    }
+  }
+
+  private void invoke(ExecutorService service, List<Callable<Object>> tasks) {
+
+    try {
+      for (var future : service.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      cancel();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (ex.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  /**
+   * Executor of the parallel modes: the one set by setExecutor(), or else the
+   * common ForkJoinPool, or a virtual-thread-per-task executor if the runtime
+   * provides one. Without virtual threads, Virtual mode falls back to the
+   * common ForkJoinPool. An executor created by the engine is replaced, and
+   * shut down, when the mode changes.
+   *
+   * @return executor.
+   */
+  public synchronized ExecutorService getExecutor() {
+
+    if (Objects.isNull(this.executor)) {
+      this.executor = this.mode == ExecutionMode.Virtual
+              ? virtualExecutor() : ForkJoinPool.commonPool();
+      this.own_executor = true;
+    }
+    return this.executor;
+  }
+
+  private static ExecutorService virtualExecutor() {
+
+    try {
+      return (ExecutorService) Executors.class
+              .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      Logger.getLogger(NavigationEngine.class.getName()).log(Level.WARNING,
+              "Virtual threads not available, using the common ForkJoinPool.");
+      return ForkJoinPool.commonPool();
+    }
+  }
+
+  /**
+   * Run the parallel modes on the executor, which is kept when the mode
+   * changes and left to the caller to shut down.
+   *
+   * @param executor executor, or null for the default of the mode.
+   * @return this NavigationEngine.
+   */
+  public synchronized NavigationEngine<A> setExecutor(ExecutorService executor) {
+
+    releaseExecutor();
+    this.executor = executor;
+    this.own_executor = false;
+    return this;
+  }
+
+  /**
+   * Shut down and forget the executor if the engine created it. Shutting
+   * down the common ForkJoinPool has no effect.
+   */
+  private void releaseExecutor() {
+
+    if (this.own_executor) {
+      this.executor.shutdown();
+      this.executor = null;
+      this.own_executor = false;
+    }
+  }
+
+  /**
+   * Stop the engine: run() and navigate() return after the ants being
+   * stepped. The engine stays cancelled.
+   */
+  public void cancel() {
+
+    this.cancelled = true;
+  }
+
+  public boolean isCancelled() {
+
+    return this.cancelled;
+  }
+
+  public ExecutionMode getMode() {
+
+    return mode;
+  }
+
+  public synchronized NavigationEngine<A> setMode(ExecutionMode mode) {
+
+    if (this.mode != mode) {
+      releaseExecutor();
+    }
+    this.mode = mode;
+    return this;
+  }
+
+  public int getBatch_size() {
+
+    return batch_size;
+  }
+
+  public NavigationEngine<A> setBatch_size(int batch_size) {
+
+    this.batch_size = batch_size;
+    return this;
+  }
+
+  public DepositMode getDeposit_mode() {
+
+    return deposit_mode;
+  }
+
+  public NavigationEngine<A> setDeposit_mode(DepositMode deposit_mode) {
+
+    this.deposit_mode = deposit_mode;
+    return this;
+  }
+
+  public NavigationEngine<A> setBatch_listener(IntConsumer batch_listener) {
+
+    this.batch_listener = batch_listener;
+    return this;
+  }
+
+  public CompletionPublisher<A> getPublisher() {
+
+    return publisher;
+  }
+
+  /**
+   * Publish the ants as they complete, see CompletionPublisher.
+   *
+   * @param publisher publisher, or null not to publish.
+   * @return this NavigationEngine.
+   */
+  public NavigationEngine<A> setPublisher(CompletionPublisher<A> publisher) {
+
+    this.publisher = publisher;
+    return this;
+  }
+
+  public boolean isShared_random() {
+
+    return shared_random;
+  }
+
+  /**
+   * Let the ants stepped on the calling thread draw from getRandom() in their
+   * order instead of from streams derived per ant, see NavigationEngine.
+   *
+   * @param shared_random whether to share the random stream.
+   * @return this NavigationEngine.
+   */
+  public NavigationEngine<A> setShared_random(boolean shared_random) {
+
+    this.shared_random = shared_random;
+    return this;
+  }
+
+  public GroupStep<? super A> getGroup_step() {
+
+    return group_step;
+  }
+
+  /**
+   * Step all ants at once with the group step, regardless of the execution
+   * mode.
+   *
+   * @param group_step group step, or null to step the ants one by one.
+   * @return this NavigationEngine.
+   */
+  public NavigationEngine<A> setGroup_step(GroupStep<? super A> group_step) {
+
+    this.group_step = group_step;
+    return this;
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+import tech.metacontext.ocnhfa.antsomg.impl.DepositBuffer.DepositMode;
+
+/**
+ * Pheromone update rule of an iteration of a system, selecting which ants
+ * deposit and how much:
+ * <ul>
+ * <li>Standard: every ant deposits as it moves, as without a rule.</li>
+ * <li>MaxMin: MAX-MIN Ant System, only the best ant of the iteration
+ * deposits, and the trails are clamped into [min, max] after evaporation, so
+ * that no path is abandoned nor dominates for good.</li>
+ * <li>RankBased: the best rank ants of the iteration deposit, the one of rank
+ * r (from 0) with weight rank - r.</li>
+ * <li>Elitist: every ant deposits, and the best ant of the iteration deposits
+ * once more with the elite weight.</li>
+ * </ul>
+ * With any rule but Standard, the deposits of the ants are recorded in
+ * private buffers while they move, with step() or deposit(), and merged by
+ * update() once the iteration is over and the ants can be ranked by their
+ * quality. The moves of an iteration thus do not see the deposits of each
+ * other. Ants of the same quality are ranked in their order.
+ * <p>
+ * The ants are ranked on what they did in the iteration, whether or not
+ * they completed their tours: a system whose ants complete a tour per
+ * iteration ranks whole tours, while one whose ants take many iterations,
+ * e.g. one note per iteration, ranks partial tours.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class PheromoneUpdate {
+
+  public enum Rule {
+
+    Standard, MaxMin, RankBased, Elitist;
+  }
+
+  /**
+   * Update rule with its parameters, of which only those of the rule are
+   * used.
+   *
+   * @param rule
+   * @param min lower bound of the trails for MaxMin.
+   * @param max upper bound of the trails for MaxMin.
+   * @param rank number of depositing ants for RankBased.
+   * @param weight weight of the extra deposit of the best ant for Elitist.
+   */
+  public record UpdateRule(Rule rule, double min, double max, int rank, double weight) {
+
+    public static double DEFAULT_MIN = 0.1, DEFAULT_MAX = 10.0;
+    public static int DEFAULT_RANK = 10;
+    public static double DEFAULT_WEIGHT = 5.0;
+
+    public static final UpdateRule STANDARD = of(Rule.Standard);
+
+    public UpdateRule {
+
+      if (min < 0.0 || !(min <= max)) {
+        throw new IllegalArgumentException("Invalid trail bounds: [" + min + ", " + max + "]");
+      }
+      if (rank < 1) {
+        throw new IllegalArgumentException("Rank must be positive: " + rank);
+      }
+    }
+
+    public static UpdateRule of(Rule rule) {
+
+      return new UpdateRule(rule, DEFAULT_MIN, DEFAULT_MAX, DEFAULT_RANK, DEFAULT_WEIGHT);
+    }
+
+    public static UpdateRule maxMin(double min, double max) {
+
+      return new UpdateRule(Rule.MaxMin, min, max, DEFAULT_RANK, DEFAULT_WEIGHT);
+    }
+
+    public static UpdateRule rankBased(int rank) {
+
+      return new UpdateRule(Rule.RankBased, DEFAULT_MIN, DEFAULT_MAX, rank, DEFAULT_WEIGHT);
+    }
+
+    public static UpdateRule elitist(double weight) {
+
+      return new UpdateRule(Rule.Elitist, DEFAULT_MIN, DEFAULT_MAX, DEFAULT_RANK, weight);
+    }
+
+    /**
+     * Parse an update rule from rule[:parameter[:parameter]], i.e. Standard,
+     * MaxMin[:min[:max]], RankBased[:rank] or Elitist[:weight], e.g.
+     * "MaxMin:0.5:20" or "RankBased:6".
+     *
+     * @param value rule string.
+     * @return UpdateRule
+     */
+    public static UpdateRule valueOf(String value) {
+
+      var fields = value.split(":");
+      var rule = Rule.valueOf(fields[0]);
+      return switch (rule) {
+        case MaxMin ->
+          maxMin(fields.length > 1 ? Double.parseDouble(fields[1]) : DEFAULT_MIN,
+          fields.length > 2 ? Double.parseDouble(fields[2]) : DEFAULT_MAX);
+        case RankBased ->
+          rankBased(fields.length > 1 ? Integer.parseInt(fields[1]) : DEFAULT_RANK);
+        case Elitist ->
+          elitist(fields.length > 1 ? Double.parseDouble(fields[1]) : DEFAULT_WEIGHT);
+        default ->
+          STANDARD;
+      };
+    }
+
+    @Override
+    public String toString() {
+
+      return switch (rule) {
+        case MaxMin ->
+          rule + ":" + min + ":" + max;
+        case RankBased ->
+          rule + ":" + rank;
+        case Elitist ->
+          rule + ":" + weight;
+        default ->
+          rule.toString();
+      };
+    }
+  }
+
+  private final UpdateRule rule;
+  private DepositBuffer[] buffers;
+  private int ants;
+
+  public PheromoneUpdate(UpdateRule rule) {
+
+    this.rule = rule;
+    this.buffers = new DepositBuffer[0];
+  }
+
+  public PheromoneUpdate() {
+
+    this(UpdateRule.STANDARD);
+  }
+
+  /**
+   * Whether the deposits are recorded and merged by update(), i.e. the rule
+   * is not Standard.
+   *
+   * @return true if deferred.
+   */
+  public boolean isDeferred() {
+
+    return this.rule.rule() != Rule.Standard;
+  }
+
+  /**
+   * Start an iteration of the specified number of ants, indexed from 0.
+   *
+   * @param ants number of ants.
+   */
+  public void begin(int ants) {
+
+    if (!isDeferred()) {
+      return;
+    }
+    if (this.buffers.length < ants) {
+      var size = this.buffers.length;
+      this.buffers = Arrays.copyOf(this.buffers, ants);
+      for (int i = size; i < ants; i++) {
+        this.buffers[i] = new DepositBuffer(DepositMode.Deferred);
+      }
+    }
+    for (int i = 0; i < this.ants; i++) {
+      this.buffers[i].clear();
+    }
+    this.ants = ants;
+  }
+
+  /**
+   * Run the move of the ant, recording its deposits if deferred.
+   *
+   * @param index index of the ant in the iteration.
+   * @param task move of the ant.
+   */
+  public void step(int index, Runnable task) {
+
+    if (isDeferred()) {
+      DepositBuffer.withBuffer(this.buffers[index], task);
+    } else {
+      task.run();
+    }
+  }
+
+  /**
+   * Deposit pheromone on the edge on behalf of the ant, e.g. for moves made
+   * for many ants at once, recorded if deferred.
+   *
+   * @param index index of the ant in the iteration.
+   * @param edge selected edge.
+   * @param amount pheromone deposit.
+   */
+  public void deposit(int index, StandardEdge<?> edge, double amount) {
+
+    if (isDeferred()) {
+      this.buffers[index].add(edge, amount);
+    } else {
+      DepositBuffer.deposit(edge, amount);
+    }
+  }
+
+  /**
+   * Merge the deposits of the iteration according to the rule, ranking the
+   * ants by their quality.
+   *
+   * @param <A>
+   * @param ants ants of the iteration, in the order of their indices.
+   * @param quality quality of an ant, the higher the better.
+   */
+  public <A> void update(List<? extends A> ants, ToDoubleFunction<? super A> quality) {
+
+    if (!isDeferred()) {
+      return;
+    }
+    if (ants.size() != this.ants) {
+      throw new IllegalArgumentException(String.format(
+              "%d ants updated for an iteration of %d ants.", ants.size(), this.ants));
+    }
+    var qualities = ants.stream().mapToDouble(quality).toArray();
+    var weights = new double[this.ants];
+    if (this.rule.rule() == Rule.RankBased) {
+      var order = IntStream.range(0, this.ants).boxed()
+              .sorted(Comparator.comparingDouble((Integer i) -> qualities[i]).reversed())
+              .limit(this.rule.rank())
+              .mapToInt(Integer::intValue)
+              .toArray();
+      for (int r = 0; r < order.length; r++) {
+        weights[order[r]] = this.rule.rank() - r;
+      }
+    } else if (this.ants > 0) {
+      var best = 0;
+      for (int i = 1; i < this.ants; i++) {
+        if (qualities[i] > qualities[best]) {
+          best = i;
+        }
+      }
+      if (this.rule.rule() == Rule.Elitist) {
+        Arrays.fill(weights, 1.0);
+        weights[best] += this.rule.weight();
+      } else {
+        weights[best] = 1.0;
+      }
+    }
+    for (int i = 0; i < this.ants; i++) {
+      if (weights[i] > 0.0) {
+        this.buffers[i].merge(weights[i]);
+      } else {
+        this.buffers[i].clear();
+      }
+    }
+    this.ants = 0;
+  }
+
+  /**
+   * Clamp the trails of the graphs into the bounds of the rule if MaxMin, to
+   * be called after evaporation.
+   *
+   * @param graphs graphs of the system.
+   */
+  public void bound(CompactGraph<?, ?>... graphs) {
+
+    if (this.rule.rule() == Rule.MaxMin) {
+      for (var graph : graphs) {
+        graph.clamp(this.rule.min(), this.rule.max());
+      }
+    }
+  }
+
+  public UpdateRule getRule() {
+
+    return rule;
+  }
+}
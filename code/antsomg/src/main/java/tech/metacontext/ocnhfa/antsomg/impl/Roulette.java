@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Roulette-wheel selection kernel working on primitive fraction buffers, so
+ * that a move allocates nothing but its result.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public final class Roulette {
+
+  private static final ThreadLocal<double[]> SCRATCH
+          = ThreadLocal.withInitial(() -> new double[16]);
+
+  private Roulette() {
+  }
+
+  /**
+   * Scratch buffer of the current thread, holding at least the specified
+   * number of fractions. The content is left over from the previous use.
+   *
+   * @param size number of fractions to be held.
+   * @return scratch buffer.
+   */
+  public static double[] buffer(int size) {
+
+    var buffer = SCRATCH.get();
+    if (buffer.length < size) {
+      buffer = new double[Math.max(size, buffer.length * 2)];
+      SCRATCH.set(buffer);
+    }
+    return buffer;
+  }
+
+  /**
+   * Kahan-compensated sum of the first size fractions, with the final
+   * correction of DoubleStream.sum() as of JDK 18 (backported to later JDK 17
+   * updates). Earlier JDKs add the compensation instead and may differ in the
+   * last bit, so the sum is computed here, independently of the runtime, to
+   * keep selections reproducible with the same seeds.
+   *
+   * @param fractions fraction buffer.
+   * @param size number of fractions.
+   * @return sum.
+   */
+  public static double sum(double[] fractions, int size) {
+
+    double sum = 0.0, compensation = 0.0, simple = 0.0;
+    for (int i = 0; i < size; i++) {
+      var corrected = fractions[i] - compensation;
+      var next = sum + corrected;
+      compensation = (next - sum) - corrected;
+      sum = next;
+      simple += fractions[i];
+    }
+    var result = sum - compensation;
+    return Double.isNaN(result) && Double.isInfinite(simple) ? simple : result;
+  }
+
+  /**
+   * Index of the first fraction whose cumulative sum exceeds r.
+   *
+   * @param fractions fraction buffer.
+   * @param size number of fractions.
+   * @param r random number in [0, sum).
+   * @return selected index.
+   */
+  public static int select(double[] fractions, int size, double r) {
+
+    for (int i = 0; i < size; i++) {
+      if (r < fractions[i]) {
+        return i;
+      }
+      r -= fractions[i];
+    }
+    throw new NoSuchElementException("Fractions exhausted, size=" + size + ", r=" + r);
+  }
+
+  /**
+   * Index of the first fraction whose cumulative sum reaches r.
+   *
+   * @param fractions fraction buffer.
+   * @param size number of fractions.
+   * @param r random number in [0, sum].
+   * @return selected index.
+   */
+  public static int selectInclusive(double[] fractions, int size, double r) {
+
+    for (int i = 0; i < size; i++) {
+      if (r <= fractions[i]) {
+        return i;
+      }
+      r -= fractions[i];
+    }
+    throw new NoSuchElementException("Fractions exhausted, size=" + size + ", r=" + r);
+  }
+}
@@ -15,7 +15,10 @@
  */
 package tech.metacontext.ocnhfa.antsomg.impl;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import tech.metacontext.ocnhfa.antsomg.model.Edge;
@@ -25,11 +28,24 @@ import tech.metacontext.ocnhfa.antsomg.model.Edge;
  * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
  * @param <V>
  */
-public class StandardEdge<V extends StandardVertex> implements Edge<V> {
+public class StandardEdge<V extends StandardVertex> implements Edge<V>, Cloneable {
+
+   private static final VarHandle PHEROMONE_TRAIL;
+
+   static {
+      try {
+         PHEROMONE_TRAIL = MethodHandles.lookup()
+                 .findVarHandle(StandardEdge.class, "pheromoneTrail", double.class);
+      } catch (NoSuchFieldException | IllegalAccessException ex) {
+         throw new ExceptionInInitializerError(ex);
+      }
+   }
 
    private double pheromoneTrail;
    private double cost;
    private V from, to;
+   private CompactGraph<?, ?> graph;
+   private int id = -1;
 
    public StandardEdge(V from, V to, double cost) {
 
@@ -40,7 +56,7 @@ public class StandardEdge<V extends StandardVertex> implements Edge<V> {
 
    public <E extends StandardEdge> E getReverse() {
 
-      return getReverse(this.cost);
+      return getReverse(getCost());
    }
 
    public <E extends StandardEdge> E getReverse(double cost) {
@@ -58,36 +74,77 @@ public class StandardEdge<V extends StandardVertex> implements Edge<V> {
    public String toString() {
       return this.getClass().getSimpleName() + "{"
               + "from=" + from + ", to=" + to
-              + (cost > 0 ? ", cost=" + cost : "")
-              + (pheromoneTrail > 0 ? ", pheromoneTrail=" + pheromoneTrail : "")
+              + (getCost() > 0 ? ", cost=" + getCost() : "")
+              + (getPheromoneTrail() > 0 ? ", pheromoneTrail=" + getPheromoneTrail() : "")
               + '}';
    }
 
    @Override
    public void addPheromoneDeposit(double pheromoneDeposit) {
 
-      this.pheromoneTrail += pheromoneDeposit;
+      if (Objects.nonNull(this.graph)) {
+         this.graph.addPheromone(this.id, pheromoneDeposit);
+      } else {
+         this.pheromoneTrail += pheromoneDeposit;
+      }
+      if (pheromoneDeposit != 0.0) {
+         modified();
+      }
+   }
+
+   /**
+    * Lock-free version of addPheromoneDeposit(), for deposits made
+    * concurrently by parallel ants.
+    *
+    * @param pheromoneDeposit pheromone deposit.
+    */
+   public void addPheromoneDepositAtomic(double pheromoneDeposit) {
+
+      if (Objects.nonNull(this.graph)) {
+         this.graph.addPheromoneAtomic(this.id, pheromoneDeposit);
+      } else {
+         PHEROMONE_TRAIL.getAndAdd(this, pheromoneDeposit);
+      }
+      if (pheromoneDeposit != 0.0) {
+         modified();
+      }
    }
 
    @Override
    public double getPheromoneTrail() {
 
-      return this.pheromoneTrail;
+      return Objects.nonNull(this.graph)
+              ? this.graph.getPheromone(this.id) : this.pheromoneTrail;
    }
 
    public void setPheromoneTrail(double pheromoneTrail) {
 
-      this.pheromoneTrail = pheromoneTrail;
+      if (getPheromoneTrail() != pheromoneTrail) {
+         modified();
+      }
+      if (Objects.nonNull(this.graph)) {
+         this.graph.setPheromone(this.id, pheromoneTrail);
+      } else {
+         this.pheromoneTrail = pheromoneTrail;
+      }
    }
 
    @Override
    public double getCost() {
 
-      return this.cost;
+      return Objects.nonNull(this.graph) ? this.graph.getCost(this.id) : this.cost;
    }
 
    public void setCost(double cost) {
-      this.cost = cost;
+
+      if (getCost() != cost) {
+         modified();
+      }
+      if (Objects.nonNull(this.graph)) {
+         this.graph.setCost(this.id, cost);
+      } else {
+         this.cost = cost;
+      }
    }
 
    @Override
@@ -99,19 +156,48 @@ public class StandardEdge<V extends StandardVertex> implements Edge<V> {
    @Override
    public void evaporate(double rate) {
 
-      this.pheromoneTrail *= (1.0 - rate);
+      if (Objects.nonNull(this.graph)) {
+         this.graph.evaporate(this.id, rate);
+      } else {
+         this.pheromoneTrail *= (1.0 - rate);
+      }
+      if (rate != 0.0) {
+         modified();
+      }
+   }
+
+   /**
+    * Lock-free version of evaporate(), safe against concurrent deposits.
+    *
+    * @param rate evaporate rate.
+    */
+   public void evaporateAtomic(double rate) {
+
+      if (Objects.nonNull(this.graph)) {
+         this.graph.evaporateAtomic(this.id, rate);
+      } else {
+         double trail;
+         do {
+            trail = (double) PHEROMONE_TRAIL.getVolatile(this);
+         } while (!PHEROMONE_TRAIL.compareAndSet(this, trail, trail * (1.0 - rate)));
+      }
+      if (rate != 0.0) {
+         modified();
+      }
    }
 
    @Override
    public void setFrom(V from) {
 
       this.from = from;
+      relinked();
    }
 
    @Override
    public void setTo(V to) {
 
       this.to = to;
+      relinked();
    }
 
    @Override
@@ -120,4 +206,90 @@ public class StandardEdge<V extends StandardVertex> implements Edge<V> {
       return this.to;
    }
 
+   /**
+    * Id of this edge in the compact storage of its graph.
+    *
+    * @return edge id, or -1 if not attached to a graph.
+    */
+   public int getId() {
+
+      return this.id;
+   }
+
+   /**
+    * Graph this edge is attached to, see CompactGraph.attach().
+    *
+    * @return graph, or null if not attached.
+    */
+   public CompactGraph<?, ?> getGraph() {
+
+      return this.graph;
+   }
+
+   /**
+    * Turn this edge into a handle of the specified id of the graph, whose
+    * arrays hold the cost and pheromone trail from now on.
+    *
+    * @param graph graph of this edge.
+    * @param id edge id.
+    */
+   void setGraph(CompactGraph<?, ?> graph, int id) {
+
+      this.graph = graph;
+      this.id = id;
+   }
+
+   /**
+    * Detach this edge from its graph, holding the cost and pheromone trail in
+    * its own fields again.
+    *
+    * @param cost cost of the edge in its graph.
+    * @param pheromoneTrail pheromone trail of the edge in its graph.
+    */
+   void detach(double cost, double pheromoneTrail) {
+
+      this.cost = cost;
+      this.pheromoneTrail = pheromoneTrail;
+      this.graph = null;
+      this.id = -1;
+   }
+
+   /**
+    * Handle of this edge for another graph sharing the topology of its graph,
+    * see CompactGraph(CompactGraph). The handle is a shallow copy of this
+    * edge, so that the fields of subclasses are kept.
+    *
+    * @param graph graph sharing the topology.
+    * @param id edge id.
+    * @return handle bound to the graph.
+    */
+   StandardEdge<V> handle(CompactGraph<?, ?> graph, int id) {
+
+      try {
+         @SuppressWarnings("unchecked")
+         var handle = (StandardEdge<V>) super.clone();
+         handle.setGraph(graph, id);
+         return handle;
+      } catch (CloneNotSupportedException ex) {
+         throw new AssertionError(ex);
+      }
+   }
+
+   private void relinked() {
+
+      var attached = this.graph;
+      if (Objects.nonNull(attached)) {
+         attached.relink(this.id);
+      }
+      modified();
+   }
+
+   private void modified() {
+
+      var attached = this.graph;
+      if (Objects.nonNull(attached)) {
+         attached.thaw();
+      }
+   }
+
 }
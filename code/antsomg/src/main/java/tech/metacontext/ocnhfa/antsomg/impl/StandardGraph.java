@@ -17,21 +17,16 @@ package tech.metacontext.ocnhfa.antsomg.impl;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
-import org.dom4j.DocumentHelper;
-import org.dom4j.io.OutputFormat;
-import org.dom4j.io.XMLWriter;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.*;
-import tech.metacontext.ocnhfa.antsomg.model.Graph;
 
 /**
  *
@@ -40,9 +35,15 @@ import tech.metacontext.ocnhfa.antsomg.model.Graph;
  * @param <V>
  */
 public abstract class StandardGraph<E extends StandardEdge<V>, V extends StandardVertex>
-        implements Graph<E, V, StandardMove<E>> {
+        extends CompactGraph<E, V> {
+
+  private static final ThreadLocal<int[]> IDS
+          = ThreadLocal.withInitial(() -> new int[16]);
 
   private List<E> edges;
+  private volatile Map<V, List<E>> adjacency;
+  private volatile Map<V, AliasTable<E>> frozen;
+  private volatile FractionSampler sampler;
   private V start;
   protected double alpha, beta;
   private FractionMode fraction_mode;
@@ -65,19 +66,113 @@ public abstract class StandardGraph<E extends StandardEdge<V>, V extends Standar
     this(ALPHA, BETA);
   }
 
+  /**
+   * Constructor of a graph sharing the topology of the source graph, see
+   * CompactGraph(CompactGraph), with its edges, start vertex, fraction mode,
+   * alpha and beta, and a copy-on-write view of its pheromone trails. Many
+   * colonies over the same space can be constructed so, without building the
+   * space again.
+   *
+   * @param source graph whose topology is shared.
+   */
+  protected StandardGraph(StandardGraph<E, V> source) {
+
+    super(indexed(source));
+    this.edges = new ArrayList<>(source.edges.size());
+    source.edges.forEach(edge -> this.edges.add(getEdge(edge.getId())));
+    this.adjacency = ranges();
+    this.start = source.start;
+    this.alpha = source.alpha;
+    this.beta = source.beta;
+    this.fraction_mode = source.fraction_mode;
+  }
+
+  /**
+   * Fork of this graph, sharing its topology and its pheromone trails until
+   * the first deposit or evaporation of either graph, so that forking a
+   * trained graph, e.g. per section or per voice, is O(E) in the edge handles
+   * with no copy of the arrays. Graph classes support fork() by declaring a
+   * constructor from a graph of their own class, which calls
+   * StandardGraph(StandardGraph); subclasses may override this method to
+   * narrow its return type.
+   *
+   * @return graph of the class of this graph.
+   * @throws IllegalStateException if the class of this graph has no
+   * accessible constructor from a graph of its own class.
+   */
+  public StandardGraph<E, V> fork() {
+
+    var name = this.getClass().getSimpleName();
+    try {
+      return this.getClass().getDeclaredConstructor(this.getClass()).newInstance(this);
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException(String.format(
+              "%s cannot be forked without a constructor %s(%s).", name, name, name), ex);
+    }
+  }
+
+  private static <E extends StandardEdge<V>, V extends StandardVertex> StandardGraph<E, V> indexed(
+          StandardGraph<E, V> graph) {
+
+    graph.ensureIndex();
+    return graph;
+  }
+
+  /**
+   * Rebuild the adjacency index if it was dropped, so that the CSR index
+   * covers the current edge list.
+   */
+  synchronized void ensureIndex() {
+
+    if (Objects.isNull(this.adjacency)) {
+      reindex();
+    }
+  }
+
   public double getFraction(E edge) {
 
-    return switch (this.fraction_mode) {
-      case Power ->
-        Math.pow(edge.getPheromoneTrail(), this.alpha)
-        + Math.pow(1.0 / edge.getCost(), this.beta);
-      case Power_Multiply ->
-        Math.pow(edge.getPheromoneTrail(), this.alpha)
-        * Math.pow(1.0 / edge.getCost(), this.beta);
-      case Coefficient ->
-        edge.getPheromoneTrail() * this.alpha
-        + 1.0 / edge.getCost() * this.beta;
-    };
+    var sampler = getSampler();
+    return edge.getGraph() == this
+            ? sampler.getFraction(this, edge.getId())
+            : sampler.fraction(edge.getPheromoneTrail(), sampler.heuristic(edge.getCost()));
+  }
+
+  /**
+   * Fraction of the edge, computed on the arrays of this graph.
+   *
+   * @param edge edge id.
+   * @return fraction.
+   */
+  public double getFraction(int edge) {
+
+    return getSampler().getFraction(this, edge);
+  }
+
+  /**
+   * Sampler of the current fraction mode, alpha and beta, rebuilt with an
+   * empty heuristic cache whenever any of them changed.
+   *
+   * @return FractionSampler
+   */
+  public FractionSampler getSampler() {
+
+    var current = this.sampler;
+    if (Objects.isNull(current)
+            || !current.matches(this.fraction_mode, this.alpha, this.beta)) {
+      current = FractionSampler.of(this.fraction_mode, this.alpha, this.beta);
+      this.sampler = current;
+    }
+    return current;
+  }
+
+  @Override
+  public void setCost(int edge, double cost) {
+
+    super.setCost(edge, cost);
+    var current = this.sampler;
+    if (Objects.nonNull(current)) {
+      current.invalidate(edge);
+    }
   }
 
   @Override
@@ -91,25 +186,153 @@ public abstract class StandardGraph<E extends StandardEdge<V>, V extends Standar
     return move(this.queryByVertex(current), pheromone_deposit, explore_chance);
   }
 
+  /**
+   * Move along one of the given paths, which must be out-edges of the same
+   * vertex.
+   *
+   * @param paths candidate paths.
+   * @param pheromone_deposit
+   * @param explore_chance
+   * @return StandardMove
+   */
   public StandardMove<E> move(List<E> paths, double pheromone_deposit, double explore_chance) {
 
-    var fractions = new ArrayList<Double>();
-    var sum = paths.stream()
-            .mapToDouble(this::getFraction)
-            .peek(fractions::add)
-            .sum();
-    var r = new AtomicReference<Double>(StandardParameters.getRandom().nextDouble() * sum);
+    var table = frozenTable(paths);
+    if (Objects.nonNull(table)) {
+      var u = StandardParameters.getRandom().nextDouble();
+      var isExploring = StandardParameters.getRandom().nextDouble() < explore_chance;
+      var selected = isExploring
+              ? paths.get(StandardParameters.getRandom().nextInt(paths.size()))
+              : sampleFrozen(table, paths, u);
+      DepositBuffer.deposit(selected, pheromone_deposit);
+      return StandardMove.getInstance(isExploring, paths, selected);
+    }
+    var fractions = Roulette.buffer(paths.size());
+    var sum = fillFractions(paths, fractions);
+    var r = StandardParameters.getRandom().nextDouble() * sum;
     var isExploring = StandardParameters.getRandom().nextDouble() < explore_chance;
     var selected = isExploring
             ? paths.get(StandardParameters.getRandom().nextInt(paths.size()))
-            : IntStream.range(0, paths.size())
-                    .filter(i -> r.getAndSet(r.get() - fractions.get(i)) < fractions.get(i))
-                    .mapToObj(paths::get)
-                    .findFirst().get();
-    selected.addPheromoneDeposit(pheromone_deposit);
+            : paths.get(Roulette.select(fractions, paths.size(), r));
+    DepositBuffer.deposit(selected, pheromone_deposit);
     return StandardMove.getInstance(isExploring, paths, selected);
   }
 
+  /**
+   * Move a number of ants standing on the same vertex, computing the
+   * distribution of its out-edges once. See moveAll(List, ...).
+   *
+   * @param current current vertex of the ants.
+   * @param ants number of ants.
+   * @param pheromone_deposit deposit of each ant.
+   * @param explore_chance
+   * @param record whether to record the StandardMoves of the ants.
+   * @return BatchMove
+   */
+  public BatchMove<E> moveAll(V current, int ants, double pheromone_deposit,
+          double explore_chance, boolean record) {
+
+    return moveAll(this.queryByVertex(current), ants, pheromone_deposit, explore_chance, record);
+  }
+
+  /**
+   * Move a number of ants along the given paths, which must be out-edges of
+   * the same vertex. The fractions are computed once into an alias table (or
+   * taken from the frozen one), from which every ant draws its selection, and
+   * each selected path gets the deposits of all its ants at once.
+   * <p>
+   * Unlike successive calls of move(), the ants do not see the deposits of
+   * each other, and the random numbers are drawn in a different order, so the
+   * selections differ from those of move() with the same seed.
+   *
+   * @param paths candidate paths.
+   * @param ants number of ants.
+   * @param pheromone_deposit deposit of each ant.
+   * @param explore_chance
+   * @param record whether to record the StandardMoves of the ants, with the
+   * pheromone trails before the deposits.
+   * @return BatchMove
+   */
+  public BatchMove<E> moveAll(List<E> paths, int ants, double pheromone_deposit,
+          double explore_chance, boolean record) {
+
+    if (paths.isEmpty()) {
+      throw new IllegalArgumentException("No paths to move along.");
+    }
+    var random = StandardParameters.getRandom();
+    var frozen = frozenTable(paths);
+    AliasTable<E> table = null;
+    double[] fractions = null;
+    var sum = 0.0;
+    if (Objects.isNull(frozen)) {
+      fractions = Roulette.buffer(paths.size());
+      sum = fillFractions(paths, fractions);
+      table = AliasTable.of(paths, fractions);
+    }
+    Map<E, Integer> positions = null;
+    if (Objects.nonNull(frozen) && frozen.getItems() != paths) {
+      positions = new HashMap<>();
+      for (int i = 0; i < paths.size(); i++) {
+        positions.putIfAbsent(paths.get(i), i);
+      }
+    }
+    var selected = new int[ants];
+    var exploring = new boolean[ants];
+    for (int i = 0; i < ants; i++) {
+      var u = random.nextDouble();
+      exploring[i] = random.nextDouble() < explore_chance;
+      selected[i] = exploring[i] ? random.nextInt(paths.size())
+              : Objects.nonNull(positions) ? positions.get(sampleFrozen(frozen, paths, u))
+              : Objects.nonNull(frozen) ? frozen.sample(u)
+              : Objects.nonNull(table) ? table.sample(u)
+              : Roulette.select(fractions, paths.size(), u * sum);
+    }
+    var batch = new BatchMove<>(paths, selected, exploring);
+    if (record) {
+      batch.record();
+    }
+    for (int i = 0; i < paths.size(); i++) {
+      var count = batch.getCount(i);
+      if (count > 0) {
+        DepositBuffer.deposit(paths.get(i), pheromone_deposit * count);
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Fill the buffer with the fractions of the given paths, gathering their ids
+   * for the bulk kernels if all of them are attached to this graph.
+   *
+   * @param paths candidate paths.
+   * @param fractions buffer with at least paths.size() elements.
+   * @return sum of the fractions.
+   */
+  public double fillFractions(List<E> paths, double[] fractions) {
+
+    if (paths instanceof EdgeRange<E> range && range.getGraph() == this) {
+      getSampler().fill(this, range, fractions);
+      return Roulette.sum(fractions, paths.size());
+    }
+    var ids = IDS.get();
+    if (ids.length < paths.size()) {
+      ids = new int[Math.max(paths.size(), ids.length * 2)];
+      IDS.set(ids);
+    }
+    for (int i = 0; i < paths.size(); i++) {
+      var path = paths.get(i);
+      if (path.getGraph() != this) {
+        for (int j = 0; j < paths.size(); j++) {
+          fractions[j] = getFraction(paths.get(j));
+        }
+        return Roulette.sum(fractions, paths.size());
+      }
+      ids[i] = path.getId();
+    }
+    getSampler().fill(this, ids, 0, paths.size(), fractions);
+    return Roulette.sum(fractions, paths.size());
+  }
+
   /**
    * Method move() for power_multiply mode.
    *
@@ -133,55 +356,201 @@ public abstract class StandardGraph<E extends StandardEdge<V>, V extends Standar
       case 1 ->
         paths.get(StandardParameters.getRandom().nextInt(paths.size()));
       default -> {
-        var fractions = new ArrayList<Double>();
-        var sum = paths.stream()
-                .mapToDouble(this::getFraction)
-                .peek(fractions::add)
-                .sum();
-        var r = new AtomicReference<Double>(StandardParameters.getRandom().nextDouble() * sum);
-        yield IntStream.range(0, paths.size())
-        .filter(i -> r.getAndSet(r.get() - fractions.get(i)) <= fractions.get(i))
-        .mapToObj(paths::get)
-        .findFirst().orElseThrow(() -> new NoSuchElementException("Fractions = " + fractions + ", r=" + r));
+        var table = frozenTable(paths);
+        if (Objects.nonNull(table)) {
+          yield sampleFrozen(table, paths, StandardParameters.getRandom().nextDouble());
+        }
+        var fractions = Roulette.buffer(paths.size());
+        var sum = fillFractions(paths, fractions);
+        var r = StandardParameters.getRandom().nextDouble() * sum;
+        yield paths.get(Roulette.selectInclusive(fractions, paths.size(), r));
       }
     };
-    selected.addPheromoneDeposit(pheromone_deposit);
+    DepositBuffer.deposit(selected, pheromone_deposit);
     return StandardMove.getInstance(isExploring, paths, selected);
   }
 
+  /**
+   * Precompute an alias table for the out-edges of every vertex, so that moves
+   * sample in constant time as long as the distributions stay unchanged, e.g.
+   * when both deposit and evaporation are 0.0. Any change of pheromone trail,
+   * cost or endpoints of an edge, of the edge list or of the fraction mode
+   * thaws the graph, and moves fall back to the roulette wheel.
+   */
+  public synchronized void freeze() {
+
+    var index = Objects.isNull(this.adjacency) ? reindex() : this.adjacency;
+    var tables = new HashMap<V, AliasTable<E>>();
+    index.forEach((vertex, paths) -> {
+      var table = freeze(paths);
+      if (Objects.nonNull(table)) {
+        tables.put(vertex, table);
+      }
+    });
+    this.frozen = tables;
+  }
+
+  /**
+   * Build the alias table of the given paths with their current fractions and
+   * register this graph to be thawed on their modification.
+   *
+   * @param paths out-edges of a vertex.
+   * @return alias table, or null if the fractions do not form a distribution.
+   */
+  protected AliasTable<E> freeze(List<E> paths) {
+
+    var fractions = new double[paths.size()];
+    for (int i = 0; i < paths.size(); i++) {
+      attach(paths.get(i));
+      fractions[i] = getFraction(paths.get(i));
+    }
+    return AliasTable.of(paths, fractions);
+  }
+
+  /**
+   * Drop the alias tables built by freeze().
+   */
+  @Override
+  public void thaw() {
+
+    if (Objects.nonNull(this.frozen)) {
+      this.frozen = null;
+    }
+  }
+
+  public boolean isFrozen() {
+
+    return Objects.nonNull(this.frozen);
+  }
+
+  /**
+   * Alias table covering the given paths, if the graph is frozen.
+   *
+   * @param paths out-edges of a vertex.
+   * @return alias table, or null.
+   */
+  protected AliasTable<E> frozenTable(List<E> paths) {
+
+    var tables = this.frozen;
+    return Objects.isNull(tables) || paths.isEmpty()
+            ? null : tables.get(paths.get(0).getFrom());
+  }
+
+  /**
+   * Sample one of the paths from the alias table. If the paths are a subset of
+   * the table, samples outside of them are rejected, and after
+   * FROZEN_ATTEMPTS rejections the roulette wheel is used instead.
+   *
+   * @param table alias table covering the paths.
+   * @param paths candidate paths.
+   * @param u random number in [0, 1).
+   * @return selected path.
+   */
+  protected E sampleFrozen(AliasTable<E> table, List<E> paths, double u) {
+
+    if (table.getItems() == paths) {
+      return table.get(u);
+    }
+    for (int i = 0; i < FROZEN_ATTEMPTS; i++) {
+      var candidate = table.get(i == 0 ? u : StandardParameters.getRandom().nextDouble());
+      if (paths.contains(candidate)) {
+        return candidate;
+      }
+    }
+    var fractions = Roulette.buffer(paths.size());
+    var r = StandardParameters.getRandom().nextDouble() * fillFractions(paths, fractions);
+    return paths.get(Roulette.select(fractions, paths.size(), r));
+  }
+
+  /**
+   * Out-edges of the specified vertex, looked up in the adjacency index.
+   *
+   * @param vertex origin vertex.
+   * @return unmodifiable view of the out-edges, empty if none.
+   */
   @Override
   public List<E> queryByVertex(V vertex) {
 
-    return this.edges.stream()
-            .filter(edge -> Objects.equals(edge.getFrom(), vertex))
-            .collect(Collectors.toList());
+    var index = this.adjacency;
+    if (Objects.isNull(index)) {
+      index = reindex();
+    }
+    return index.getOrDefault(vertex, List.of());
+  }
+
+  /**
+   * Rebuild the adjacency index, as the CSR index of the compact storage, from
+   * the current edge list. The index is dropped by addEdges() and setEdges()
+   * and rebuilt on the next query, so this only needs to be called explicitly
+   * after the edge list or the endpoints of an edge were modified in place.
+   *
+   * @return the rebuilt adjacency index.
+   */
+  public synchronized Map<V, List<E>> reindex() {
+
+    var index = index(this.edges);
+    this.adjacency = index;
+    thaw();
+    return index;
   }
 
   @Override
   public String asXML() {
 
-    var doc = DocumentHelper.createDocument();
-    doc.setXMLEncoding("UTF-8");
-    var root = doc.addElement(this.getClass().getSimpleName());
-    getEdges().stream().forEach(e -> {
-      var edge = root.addElement(e.getClass().getSimpleName());
-      edge.addElement("from").setText(e.getFrom().getName());
-      edge.addElement("to").setText(e.getTo().getName());
-      edge.addElement("cost").setText(String.valueOf(e.getCost()));
-      edge.addElement("pheromoneTrail").setText(String.valueOf(e.getPheromoneTrail()));
-    });
-    // return doc.asXML();
-    var format = OutputFormat.createPrettyPrint();
-    format.setExpandEmptyElements(true);
-    format.setSuppressDeclaration(true);
-    var stringWriter = new StringWriter();
-    var writer = new XMLWriter(stringWriter, format);
+    var writer = new StringWriter();
     try {
-      writer.write(doc);
+      writeXML(writer);
     } catch (IOException ex) {
       Logger.getLogger(StandardGraph.class.getName()).log(Level.SEVERE, null, ex);
     }
-    return stringWriter.toString();
+    return writer.toString();
+  }
+
+  /**
+   * Stream the XML of this graph into the writer in a single pass over the
+   * edges, pretty-printed as asXML() is.
+   *
+   * @param writer
+   * @throws IOException
+   */
+  public void writeXML(Writer writer) throws IOException {
+
+    writer.write('\n');
+    writeXMLElement(writer, false);
+    writer.write('\n');
+  }
+
+  /**
+   * Stream the root element of the XML of this graph, as embedded in the XML
+   * of a composer.
+   *
+   * @param writer
+   * @param embedded whether an element without children is written as an
+   * empty-element tag.
+   * @throws IOException
+   */
+  public void writeXMLElement(Writer writer, boolean embedded) throws IOException {
+
+    var name = this.getClass().getSimpleName();
+    var edges = getEdges();
+    if (embedded && edges.isEmpty()) {
+      writer.write("<" + name + "/>");
+      return;
+    }
+    writer.write("<" + name + ">");
+    for (var e : edges) {
+      var edge = e.getClass().getSimpleName();
+      writer.write("\n  <" + edge + ">\n    ");
+      XMLText.element(writer, "from", e.getFrom().getName());
+      writer.write("\n    ");
+      XMLText.element(writer, "to", e.getTo().getName());
+      writer.write("\n    ");
+      XMLText.element(writer, "cost", String.valueOf(e.getCost()));
+      writer.write("\n    ");
+      XMLText.element(writer, "pheromoneTrail", String.valueOf(e.getPheromoneTrail()));
+      writer.write("\n  </" + edge + ">");
+    }
+    writer.write(edges.isEmpty() ? "</" + name + ">" : "\n</" + name + ">");
   }
 
   public boolean isBlank() {
@@ -193,47 +562,100 @@ public abstract class StandardGraph<E extends StandardEdge<V>, V extends Standar
 
   public String asGraphviz() {
 
-    return String.format("digraph %s {\n%s\n}",
-            this.getClass().getSimpleName(),
-            getEdges().stream().map(
-                    path -> isBlank()
-                            ? String.format("\t%s -> %s [ label=<c=%.1f> ];",
-                                    path.getFrom().getName(),
-                                    path.getTo().getName(),
-                                    path.getCost())
-                            : String.format("\t%s -> %s [ label=<c=%.1f, pher=%.2f> ];",
-                                    path.getFrom().getName(),
-                                    path.getTo().getName(),
-                                    path.getCost(),
-                                    path.getPheromoneTrail())
-            ).collect(Collectors.joining("\n"))
-    );
+    var writer = new StringWriter();
+    try {
+      writeGraphviz(writer);
+    } catch (IOException ex) {
+      Logger.getLogger(StandardGraph.class.getName()).log(Level.SEVERE, null, ex);
+    }
+    return writer.toString();
   }
 
-  public String asCypher() {
+  /**
+   * Stream the Graphviz dot of this graph into the writer. isBlank() is
+   * evaluated once for the whole graph, so that the export is linear in the
+   * number of edges.
+   *
+   * @param writer
+   * @throws IOException
+   */
+  public void writeGraphviz(Writer writer) throws IOException {
+
+    var blank = isBlank();
+    writer.write("digraph " + this.getClass().getSimpleName() + " {\n");
+    var separator = "";
+    for (var path : getEdges()) {
+      writer.write(separator);
+      writer.write(blank
+              ? String.format("\t%s -> %s [ label=<c=%.1f> ];",
+                      path.getFrom().getName(),
+                      path.getTo().getName(),
+                      path.getCost())
+              : String.format("\t%s -> %s [ label=<c=%.1f, pher=%.2f> ];",
+                      path.getFrom().getName(),
+                      path.getTo().getName(),
+                      path.getCost(),
+                      path.getPheromoneTrail()));
+      separator = "\n";
+    }
+    writer.write("\n}");
+  }
 
-    String vertices = getEdges().stream()
-            .flatMap(path -> Stream.of(path.getFrom(), path.getTo()))
-            .filter(Objects::nonNull)
-            .distinct()
-            .map(v -> String.format("(%s:%s{name:\"%s\"})", v.getName(), v.getClass().getSimpleName(), v.getName()))
-            .collect(Collectors.joining(", "));
+  public String asCypher() {
 
-    String cypher = String.format("CREATE %s;", vertices);
+    var writer = new StringWriter();
+    try {
+      writeCypher(writer);
+    } catch (IOException ex) {
+      Logger.getLogger(StandardGraph.class.getName()).log(Level.SEVERE, null, ex);
+    }
+    return writer.toString();
+  }
 
-    cypher += String.format("MATCH %s CREATE %s;",
-            vertices,
-            getEdges().stream()
-                    .map(path -> String.format("(%s)-[:TO]->(%s)",
-                    path.getFrom().getName(), path.getTo().getName()))
-                    .collect(Collectors.joining(", ")));
+  /**
+   * Stream the Cypher statements creating this graph into the writer.
+   *
+   * @param writer
+   * @throws IOException
+   */
+  public void writeCypher(Writer writer) throws IOException {
 
-    return cypher;
+    var edges = getEdges();
+    var distinct = new LinkedHashSet<V>();
+    for (var path : edges) {
+      if (Objects.nonNull(path.getFrom())) {
+        distinct.add(path.getFrom());
+      }
+      if (Objects.nonNull(path.getTo())) {
+        distinct.add(path.getTo());
+      }
+    }
+    var vertices = new StringBuilder();
+    for (var v : distinct) {
+      if (vertices.length() > 0) {
+        vertices.append(", ");
+      }
+      vertices.append(String.format("(%s:%s{name:\"%s\"})", v.getName(), v.getClass().getSimpleName(), v.getName()));
+    }
+    writer.write("CREATE ");
+    writer.append(vertices).write(";");
+    writer.write("MATCH ");
+    writer.append(vertices).write(" CREATE ");
+    var separator = "";
+    for (var path : edges) {
+      writer.write(separator);
+      writer.write("(" + path.getFrom().getName() + ")-[:TO]->(" + path.getTo().getName() + ")");
+      separator = ", ";
+    }
+    writer.write(";");
   }
 
   public void addEdges(E... edges) {
 
+    List.of(edges).forEach(this::attach);
     this.edges.addAll(List.of(edges));
+    this.adjacency = null;
+    thaw();
   }
 
   public List<E> getEdges() {
@@ -244,6 +666,24 @@ public abstract class StandardGraph<E extends StandardEdge<V>, V extends Standar
   public void setEdges(List<E> edges) {
 
     this.edges = edges;
+    this.edges.forEach(this::attach);
+    this.adjacency = null;
+    thaw();
+  }
+
+  /**
+   * Rebuild the compact storage from the given edges, see
+   * CompactGraph.rebuild(List), which then make up the edge list.
+   *
+   * @param edges edges to be kept.
+   */
+  @Override
+  protected synchronized void rebuild(List<E> edges) {
+
+    super.rebuild(edges);
+    this.edges = new ArrayList<>(edges);
+    this.adjacency = null;
+    thaw();
   }
 
   public V getStart() {
@@ -263,6 +703,9 @@ public abstract class StandardGraph<E extends StandardEdge<V>, V extends Standar
 
   public void setFraction_mode(FractionMode fraction_mode) {
 
+    if (this.fraction_mode != fraction_mode) {
+      thaw();
+    }
     this.fraction_mode = fraction_mode;
   }
 
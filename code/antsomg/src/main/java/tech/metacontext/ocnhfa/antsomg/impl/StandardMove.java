@@ -16,8 +16,10 @@
 package tech.metacontext.ocnhfa.antsomg.impl;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import tech.metacontext.ocnhfa.antsomg.model.Move;
 
 /**
@@ -28,9 +30,23 @@ import tech.metacontext.ocnhfa.antsomg.model.Move;
 public class StandardMove<E extends StandardEdge<? extends StandardVertex>>
         implements Move<E> {
 
+    /**
+     * Recording policy of the pheromone trails of the candidate edges when a
+     * move is made: not at all, as a double[] aligned with the candidate list,
+     * or as a HashMap from edge to trail. See StandardParameters.RECORDING.
+     */
+    public enum Recording {
+
+        Off, Compact, Full;
+    }
+
+    private static final double[] NONE = new double[0];
+
     private final boolean exploring;
     private final E selected;
-    private final Map<E, Double> pheromoneRecords;
+    private final List<E> candidates;
+    private final double[] trails;
+    private Map<E, Double> pheromoneRecords;
 
     public static <E extends StandardEdge<? extends StandardVertex>>
             StandardMove<E> getInstance(boolean exploring, List<E> edges, E selected) {
@@ -38,18 +54,53 @@ public class StandardMove<E extends StandardEdge<? extends StandardVertex>>
         return new StandardMove<>(exploring, edges, selected);
     }
 
+    /**
+     * Constructor of StandardMove, recording the pheromone trails of the
+     * candidate edges according to StandardParameters.RECORDING. In compact
+     * recording the candidate list is kept instead of copied, so it should not
+     * be modified afterwards.
+     *
+     * @param exploring
+     * @param edges candidate edges.
+     * @param selected
+     */
     public StandardMove(boolean exploring, List<E> edges, E selected) {
 
-        this(exploring, selected);
-        edges.stream()
-                .forEach(e -> this.pheromoneRecords.put(e, e.getPheromoneTrail()));
+        this(exploring, edges, selected, StandardParameters.RECORDING);
+    }
+
+    public StandardMove(boolean exploring, List<E> edges, E selected, Recording recording) {
+
+        this.exploring = exploring;
+        this.selected = selected;
+        switch (recording) {
+            case Compact -> {
+                this.candidates = edges;
+                this.trails = new double[edges.size()];
+                for (int i = 0; i < edges.size(); i++) {
+                    this.trails[i] = edges.get(i).getPheromoneTrail();
+                }
+            }
+            case Full -> {
+                this.candidates = List.of();
+                this.trails = NONE;
+                this.pheromoneRecords = new HashMap<>();
+                edges.stream()
+                        .forEach(e -> this.pheromoneRecords.put(e, e.getPheromoneTrail()));
+            }
+            default -> {
+                this.candidates = List.of();
+                this.trails = NONE;
+            }
+        }
     }
 
     public StandardMove(boolean exploring, E selected) {
 
         this.exploring = exploring;
         this.selected = selected;
-        this.pheromoneRecords = new HashMap<>();
+        this.candidates = List.of();
+        this.trails = NONE;
     }
 
     public StandardMove(E selected) {
@@ -57,9 +108,88 @@ public class StandardMove<E extends StandardEdge<? extends StandardVertex>>
         this(false, selected);
     }
 
+    /**
+     * Copy constructor, sharing the compact records of the move.
+     *
+     * @param move
+     */
+    protected StandardMove(StandardMove<E> move) {
+
+        this.exploring = move.exploring;
+        this.selected = move.selected;
+        this.candidates = move.candidates;
+        this.trails = move.trails;
+        if (Objects.nonNull(move.pheromoneRecords)) {
+            this.pheromoneRecords = new HashMap<>(move.pheromoneRecords);
+        }
+    }
+
+    /**
+     * Constructor sharing the records of another move from the same
+     * candidates, for the ants of a BatchMove.
+     *
+     * @param exploring
+     * @param selected
+     * @param records move from the same candidate paths.
+     */
+    protected StandardMove(boolean exploring, E selected, StandardMove<E> records) {
+
+        this.exploring = exploring;
+        this.selected = selected;
+        this.candidates = records.candidates;
+        this.trails = records.trails;
+        if (Objects.nonNull(records.pheromoneRecords)) {
+            this.pheromoneRecords = new HashMap<>(records.pheromoneRecords);
+        }
+    }
+
+    /**
+     * Constructor of a move read from a checkpoint, with its records as they
+     * were written.
+     *
+     * @param exploring
+     * @param selected
+     * @param candidates candidate edges of compact records.
+     * @param trails compact records.
+     * @param records full records, or null.
+     */
+    StandardMove(boolean exploring, E selected, List<E> candidates, double[] trails,
+            Map<E, Double> records) {
+
+        this.exploring = exploring;
+        this.selected = selected;
+        this.candidates = candidates;
+        this.trails = trails;
+        this.pheromoneRecords = records;
+    }
+
+    List<E> getCandidates() {
+
+        return this.candidates;
+    }
+
+    double[] getTrails() {
+
+        return this.trails;
+    }
+
+    /**
+     * Full records, or the compact ones if already expanded.
+     *
+     * @return records, or null.
+     */
+    Map<E, Double> getRecords() {
+
+        return this.pheromoneRecords;
+    }
+
     public Double getPheromoneTrail(E edge) {
 
-        return this.pheromoneRecords.get(edge);
+        if (Objects.nonNull(this.pheromoneRecords)) {
+            return this.pheromoneRecords.get(edge);
+        }
+        var index = this.candidates.indexOf(edge);
+        return index < 0 ? null : this.trails[index];
     }
 
     @Override
@@ -74,8 +204,22 @@ public class StandardMove<E extends StandardEdge<? extends StandardVertex>>
         return this.selected;
     }
 
+    /**
+     * Recorded pheromone trails of the candidate edges, empty if not recorded.
+     * Compact records are expanded into a map, in the order of the candidate
+     * list, on the first call.
+     *
+     * @return map from candidate edge to its pheromone trail.
+     */
     public Map<E, Double> getPheromoneRecords() {
 
+        if (Objects.isNull(this.pheromoneRecords)) {
+            var records = new LinkedHashMap<E, Double>();
+            for (int i = 0; i < this.trails.length; i++) {
+                records.put(this.candidates.get(i), this.trails[i]);
+            }
+            this.pheromoneRecords = records;
+        }
         return this.pheromoneRecords;
     }
 
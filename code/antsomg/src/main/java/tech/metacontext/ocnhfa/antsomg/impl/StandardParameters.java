@@ -15,8 +15,15 @@
  */
 package tech.metacontext.ocnhfa.antsomg.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import tech.metacontext.ocnhfa.antsomg.impl.ex.*;
 
 /**
@@ -26,12 +33,15 @@ import tech.metacontext.ocnhfa.antsomg.impl.ex.*;
 public class StandardParameters {
 
   private static Random RANDOM;
+  private static final ThreadLocal<Random> BOUND = new ThreadLocal<>();
 
   public static double ALPHA = 1.0;
   public static double BETA = 1.0;
   public static double PHEROMONE_DEPOSIT = 0.1;
   public static double EXPLORE_CHANCE = 0.1;
   public static double EVAPORATE_RATE = 0.05;
+  public static int FROZEN_ATTEMPTS = 8;
+  public static StandardMove.Recording RECORDING = StandardMove.Recording.Full;
 
   public static void initialization(long SEED) {
 
@@ -41,11 +51,115 @@ public class StandardParameters {
     StandardParameters.RANDOM = new Random(SEED);
   }
 
+  /**
+   * Whether the global random number stream was initialized, e.g. to skip
+   * initialization() when it may have been done already in this JVM.
+   *
+   * @return true if initialized.
+   */
+  public static boolean isInitialized() {
+
+    return Objects.nonNull(StandardParameters.RANDOM);
+  }
+
+  /**
+   * Random number stream of the current thread: the one bound by withRandom(),
+   * or the global one initialized with the seed.
+   *
+   * @return Random
+   */
   public static Random getRandom() {
 
+    var bound = BOUND.get();
+    if (Objects.nonNull(bound)) {
+      return bound;
+    }
     if (Objects.nonNull(StandardParameters.RANDOM)) {
       return StandardParameters.RANDOM;
     }
     throw new RandomSeedNotInitializedException();
   }
+
+  /**
+   * State of the global random number stream, for checkpoints.
+   *
+   * @return serialized state.
+   * @throws IOException if the stream cannot be serialized.
+   */
+  public static synchronized byte[] getRandomState() throws IOException {
+
+    if (Objects.isNull(StandardParameters.RANDOM)) {
+      throw new RandomSeedNotInitializedException();
+    }
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new ObjectOutputStream(bytes)) {
+      out.writeObject(StandardParameters.RANDOM);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Replace the global random number stream with the one of the state, so
+   * that it continues where getRandomState() was called.
+   *
+   * @param state serialized state.
+   * @throws IOException if the state is not a serialized Random.
+   */
+  public static synchronized void setRandomState(byte[] state) throws IOException {
+
+    try (var in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+      StandardParameters.RANDOM = (Random) in.readObject();
+    } catch (ClassNotFoundException | ClassCastException ex) {
+      throw new IOException("Not a random number stream state.", ex);
+    }
+  }
+
+  /**
+   * New stream seeded from the current getRandom(), for deriving streams of
+   * composers, ants or operations with StandardRandom.fork().
+   *
+   * @return StandardRandom
+   */
+  public static StandardRandom nextStream() {
+
+    return new StandardRandom(getRandom().nextLong());
+  }
+
+  /**
+   * Run the task with getRandom() returning the specified stream in the
+   * current thread.
+   *
+   * @param random random number stream.
+   * @param task task to be run.
+   */
+  public static void withRandom(Random random, Runnable task) {
+
+    var previous = BOUND.get();
+    BOUND.set(random);
+    try {
+      task.run();
+    } finally {
+      if (Objects.isNull(previous)) {
+        BOUND.remove();
+      } else {
+        BOUND.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Get the result of the task with getRandom() returning the specified
+   * stream in the current thread.
+   *
+   * @param <T>
+   * @param random random number stream.
+   * @param task task to be run.
+   * @return result of the task.
+   */
+  public static <T> T withRandom(Random random, Supplier<T> task) {
+
+    var result = new AtomicReference<T>();
+    withRandom(random, () -> result.set(task.get()));
+    return result.get();
+  }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import tech.metacontext.ocnhfa.antsomg.impl.ex.RandomSeedInitializedException;
+
+/**
+ * Random number stream backed by SplittableRandom, from which independent
+ * streams can be derived for composers, ants and operations. Derived streams
+ * depend only on the seed and their keys, not on the order or the thread they
+ * are used in, so results stay reproducible with any number of workers. Like
+ * SplittableRandom, a stream is not meant to be shared between threads.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public class StandardRandom extends Random {
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private final long seed;
+  private final SplittableRandom random;
+
+  public StandardRandom(long seed) {
+
+    super(seed);
+    this.seed = seed;
+    this.random = new SplittableRandom(seed);
+  }
+
+  /**
+   * Split off a new stream, advancing this one.
+   *
+   * @return new independent stream.
+   */
+  public StandardRandom split() {
+
+    return new StandardRandom(random.nextLong());
+  }
+
+  /**
+   * Derive the stream of the specified key, e.g. the index of an ant. The
+   * result depends only on the seed of this stream and the key, and this
+   * stream is not advanced.
+   *
+   * @param key key of the derived stream.
+   * @return derived stream.
+   */
+  public StandardRandom fork(long key) {
+
+    return new StandardRandom(mix64(seed + (key + 1) * GOLDEN_GAMMA));
+  }
+
+  private static long mix64(long z) {
+
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  public long getSeed() {
+
+    return seed;
+  }
+
+  @Override
+  public synchronized void setSeed(long seed) {
+
+    // Invoked once by the constructor of Random.
+    if (random != null) {
+      throw new RandomSeedInitializedException();
+    }
+    super.setSeed(seed);
+  }
+
+  @Override
+  protected int next(int bits) {
+
+    return random.nextInt() >>> (32 - bits);
+  }
+
+  @Override
+  public int nextInt() {
+
+    return random.nextInt();
+  }
+
+  @Override
+  public int nextInt(int bound) {
+
+    return random.nextInt(bound);
+  }
+
+  @Override
+  public long nextLong() {
+
+    return random.nextLong();
+  }
+
+  @Override
+  public double nextDouble() {
+
+    return random.nextDouble();
+  }
+
+  @Override
+  public boolean nextBoolean() {
+
+    return random.nextBoolean();
+  }
+}
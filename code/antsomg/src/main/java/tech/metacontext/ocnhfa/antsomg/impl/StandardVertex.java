@@ -25,10 +25,33 @@ import tech.metacontext.ocnhfa.antsomg.model.Vertex;
 public class StandardVertex implements Vertex {
 
     private final String name;
+    private final int hash;
+    private int id = -1;
 
     public StandardVertex(String name) {
 
         this.name = name;
+        this.hash = 73 * 7 + Objects.hashCode(name);
+    }
+
+    /**
+     * Dense id of the vertex in the VertexRegistry of its class.
+     *
+     * @return id, or -1 if the vertex is not interned.
+     */
+    public int getId() {
+
+        return this.id;
+    }
+
+    public boolean isInterned() {
+
+        return this.id >= 0;
+    }
+
+    void setId(int id) {
+
+        this.id = id;
     }
 
     @Override
@@ -46,9 +69,7 @@ public class StandardVertex implements Vertex {
     @Override
     public int hashCode() {
 
-        int hash = 7;
-        hash = 73 * hash + Objects.hashCode(this.name);
-        return hash;
+        return this.hash;
     }
 
     @Override
@@ -64,6 +85,9 @@ public class StandardVertex implements Vertex {
             return false;
         }
         final StandardVertex other = (StandardVertex) obj;
+        if (this.isInterned() && other.isInterned()) {
+            return false;
+        }
         return Objects.equals(this.name, other.name);
     }
 
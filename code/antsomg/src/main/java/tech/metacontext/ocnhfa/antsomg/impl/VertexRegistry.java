@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry interning the vertices of one class to canonical instances, by the
+ * key they stand for, e.g. a pitch. Each vertex interned gets a dense id, in
+ * the order of interning from 0, which can index primitive arrays; see
+ * StandardVertex.getId().
+ * <p>
+ * A vertex class with a registry should create its instances only through
+ * it, so that equal vertices are the same instance and equals() may compare
+ * identity.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ * @param <K> key of the vertices.
+ * @param <V> vertex class.
+ */
+public final class VertexRegistry<K, V extends StandardVertex> {
+
+  private final Function<K, V> factory;
+  private final Map<K, V> vertices;
+  private volatile StandardVertex[] by_id;
+  private int count;
+
+  /**
+   * Constructor of VertexRegistry.
+   *
+   * @param factory new vertex of a key, called once per key.
+   */
+  public VertexRegistry(Function<K, V> factory) {
+
+    this.factory = factory;
+    this.vertices = new ConcurrentHashMap<>();
+    this.by_id = new StandardVertex[16];
+  }
+
+  /**
+   * Canonical vertex of the key, created and given the next id on the first
+   * call.
+   *
+   * @param key
+   * @return vertex.
+   */
+  public V intern(K key) {
+
+    var vertex = this.vertices.get(key);
+    return Objects.nonNull(vertex) ? vertex : register(key);
+  }
+
+  private synchronized V register(K key) {
+
+    var vertex = this.vertices.get(key);
+    if (Objects.isNull(vertex)) {
+      vertex = this.factory.apply(key);
+      if (vertex.isInterned()) {
+        throw new IllegalStateException("Vertex already interned: " + vertex);
+      }
+      var table = this.by_id;
+      if (this.count == table.length) {
+        table = Arrays.copyOf(table, table.length * 2);
+      }
+      vertex.setId(this.count);
+      table[this.count++] = vertex;
+      this.by_id = table;
+      this.vertices.put(key, vertex);
+    }
+    return vertex;
+  }
+
+  /**
+   * Vertex of the id.
+   *
+   * @param id
+   * @return vertex.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int id) {
+
+    Objects.checkIndex(id, size());
+    return (V) this.by_id[id];
+  }
+
+  /**
+   * Number of the vertices interned, which bounds their ids.
+   *
+   * @return size.
+   */
+  public synchronized int size() {
+
+    return this.count;
+  }
+}
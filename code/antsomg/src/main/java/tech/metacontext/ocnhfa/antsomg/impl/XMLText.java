@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Escaping of the streaming XML exporters, writing the same entities as the
+ * dom4j writers they replace.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public final class XMLText {
+
+  private XMLText() {
+  }
+
+  /**
+   * Write the text content of an element, escaping &amp;, &lt; and &gt;.
+   *
+   * @param writer
+   * @param text text content, written as empty if null.
+   * @throws IOException
+   */
+  public static void text(Writer writer, String text) throws IOException {
+
+    write(writer, text, false);
+  }
+
+  /**
+   * Write an attribute value, escaping quotation marks as well.
+   *
+   * @param writer
+   * @param value attribute value, written as empty if null.
+   * @throws IOException
+   */
+  public static void attribute(Writer writer, String value) throws IOException {
+
+    write(writer, value, true);
+  }
+
+  /**
+   * Write an element with text content only, e.g. &lt;to&gt;C4&lt;/to&gt;.
+   *
+   * @param writer
+   * @param name element name.
+   * @param text text content.
+   * @throws IOException
+   */
+  public static void element(Writer writer, String name, String text) throws IOException {
+
+    writer.write('<');
+    writer.write(name);
+    writer.write('>');
+    text(writer, text);
+    writer.write("</");
+    writer.write(name);
+    writer.write('>');
+  }
+
+  private static void write(Writer writer, String s, boolean attribute) throws IOException {
+
+    if (Objects.isNull(s)) {
+      return;
+    }
+    int last = 0;
+    for (int i = 0; i < s.length(); i++) {
+      var entity = switch (s.charAt(i)) {
+        case '&' ->
+          "&amp;";
+        case '<' ->
+          "&lt;";
+        case '>' ->
+          "&gt;";
+        case '"' ->
+          attribute ? "&quot;" : null;
+        default ->
+          null;
+      };
+      if (Objects.nonNull(entity)) {
+        writer.write(s, last, i - last);
+        writer.write(entity);
+        last = i + 1;
+      }
+    }
+    writer.write(s, last, s.length() - last);
+  }
+}
@@ -32,4 +32,15 @@ public interface Ant<T extends Trace> {
 
     public void addCurrentTraceToRoute();
 
+    /**
+     * Whether the ant has completed its route. Ants which do not track their
+     * completion are never completed.
+     *
+     * @return true if completed.
+     */
+    default boolean isCompleted() {
+
+        return false;
+    }
+
 }
@@ -17,6 +17,7 @@ package tech.metacontext.ocnhfa.antsomg.model;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Flow;
 
 /**
  *
@@ -38,4 +39,14 @@ public interface AntsOMGSystem<A extends Ant> {
     Map<String, ? extends Graph> getGraphs();
 
     List<A> getAnts();
+
+    /**
+     * Publisher of the ants of this system, each published once as it
+     * completes, so that downstream stages, e.g. filtering, evaluation or
+     * saving, run while the system goes on navigating. The publisher is
+     * completed once the aim is achieved.
+     *
+     * @return publisher of the completed ants.
+     */
+    Flow.Publisher<A> getPublisher();
 }
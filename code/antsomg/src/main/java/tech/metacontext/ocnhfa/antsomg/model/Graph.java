@@ -33,4 +33,16 @@ public interface Graph<E extends Edge<V>, V extends Vertex, H extends Move<E>> {
     List<E> queryByVertex(V vertex);
 
     String asXML();
+
+    /**
+     * Shannon entropy (in nats) of the pheromone trails of all edges,
+     * normalized to a distribution. Low entropy means the trails concentrate
+     * on few edges.
+     *
+     * @return entropy, or NaN if not supported by the graph.
+     */
+    default double getPheromoneEntropy() {
+
+        return Double.NaN;
+    }
 }
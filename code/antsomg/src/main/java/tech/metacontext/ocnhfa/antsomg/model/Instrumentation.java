@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Registry of SystemListeners, through which the AntsOMGSystems publish their
+ * progress. Without any listener registered, every hook returns after a single
+ * volatile read, and clock() does not read the clock, so that systems may
+ * publish unconditionally.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public final class Instrumentation {
+
+    private static volatile SystemListener[] listeners = new SystemListener[0];
+
+    private Instrumentation() {
+    }
+
+    public static synchronized void addListener(SystemListener listener) {
+
+        Objects.requireNonNull(listener);
+        var current = listeners;
+        var updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public static synchronized void removeListener(SystemListener listener) {
+
+        listeners = Arrays.stream(listeners)
+                .filter(l -> l != listener)
+                .toArray(SystemListener[]::new);
+    }
+
+    public static List<SystemListener> getListeners() {
+
+        return List.of(listeners);
+    }
+
+    public static boolean isEnabled() {
+
+        return listeners.length > 0;
+    }
+
+    /**
+     * Start time of a phase to be published.
+     *
+     * @return System.nanoTime(), or 0 if no listener is registered.
+     */
+    public static long clock() {
+
+        return isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    public static void iterationStarted(AntsOMGSystem<?> system, int iteration) {
+
+        for (var listener : listeners) {
+            listener.iterationStarted(system, iteration);
+        }
+    }
+
+    /**
+     * Publish the end of an iteration, with the number of completed ants and
+     * the pheromone entropy of every graph of the system.
+     *
+     * @param system
+     * @param iteration
+     * @param start start time of the iteration, from clock().
+     */
+    public static void iterationEnded(AntsOMGSystem<?> system, int iteration, long start) {
+
+        var current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        var nanos = System.nanoTime() - start;
+        var ants = system.getAnts();
+        var completed = Objects.isNull(ants) ? 0
+                : (int) ants.stream().filter(Ant::isCompleted).count();
+        var population = Objects.isNull(ants) ? 0 : ants.size();
+        for (var listener : current) {
+            listener.iterationEnded(system, iteration, nanos);
+            listener.antsCompleted(system, completed, population);
+        }
+        var graphs = system.getGraphs();
+        if (Objects.nonNull(graphs)) {
+            graphs.forEach((name, graph) -> {
+                var entropy = graph.getPheromoneEntropy();
+                for (var listener : current) {
+                    listener.pheromoneEntropy(system, name, entropy);
+                }
+            });
+        }
+    }
+
+    public static void moved(AntsOMGSystem<?> system, String graph, Move<?> move) {
+
+        for (var listener : listeners) {
+            listener.moved(system, graph, move.isExploring());
+        }
+    }
+
+    /**
+     * @param system
+     * @param start start time of the evaporation, from clock().
+     */
+    public static void evaporated(AntsOMGSystem<?> system, long start) {
+
+        var current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        var nanos = System.nanoTime() - start;
+        for (var listener : current) {
+            listener.evaporated(system, nanos);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.model;
+
+/**
+ * Listener of the progress of AntsOMGSystems, registered with
+ * Instrumentation. The hooks may be called concurrently by systems running in
+ * parallel, so implementations must be thread-safe.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+public interface SystemListener {
+
+    default void iterationStarted(AntsOMGSystem<?> system, int iteration) {
+    }
+
+    /**
+     * @param system
+     * @param iteration
+     * @param nanos duration of the iteration.
+     */
+    default void iterationEnded(AntsOMGSystem<?> system, int iteration, long nanos) {
+    }
+
+    /**
+     * A move made by an ant of the system.
+     *
+     * @param system
+     * @param graph name of the graph in the system.
+     * @param exploring whether the move is exploring or exploiting.
+     */
+    default void moved(AntsOMGSystem<?> system, String graph, boolean exploring) {
+    }
+
+    /**
+     * @param system
+     * @param nanos duration of the evaporation of all graphs.
+     */
+    default void evaporated(AntsOMGSystem<?> system, long nanos) {
+    }
+
+    /**
+     * Number of completed ants at the end of an iteration.
+     *
+     * @param system
+     * @param completed
+     * @param population
+     */
+    default void antsCompleted(AntsOMGSystem<?> system, int completed, int population) {
+    }
+
+    /**
+     * Pheromone entropy of a graph at the end of an iteration.
+     *
+     * @param system
+     * @param graph name of the graph in the system.
+     * @param entropy see Graph.getPheromoneEntropy().
+     */
+    default void pheromoneEntropy(AntsOMGSystem<?> system, String graph, double entropy) {
+    }
+}
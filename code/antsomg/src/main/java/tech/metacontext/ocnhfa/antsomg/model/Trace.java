@@ -22,4 +22,14 @@ package tech.metacontext.ocnhfa.antsomg.model;
 public interface Trace {
 
     Vertex getDimension(String dimension);
+
+    /**
+     * Vertex of the dimension by its index, in the order the dimensions are
+     * declared by the trace, e.g. x, y, z. Unlike getDimension(String) no name
+     * is compared, so that CompactRoute can encode traces cheaply.
+     *
+     * @param dimension index of the dimension.
+     * @return vertex, or null if the dimension is not visited.
+     */
+    Vertex getDimension(int dimension);
 }
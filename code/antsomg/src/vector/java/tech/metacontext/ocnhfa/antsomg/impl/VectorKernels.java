@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Jonathan Chang, Chun-yien <ccy@musicapoetica.org>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.metacontext.ocnhfa.antsomg.impl;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels on jdk.incubator.vector, only loaded by Kernels if the module
+ * is resolved. The trails and heuristic terms are gathered by edge id, and the
+ * remainder of each range is done in scalar.
+ *
+ * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
+ */
+final class VectorKernels extends Kernels {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public Kind getKind() {
+
+    return Kind.Vector;
+  }
+
+  @Override
+  public void linear(double[] trails, double decay, double alpha,
+          double[] heuristics, int[] ids, int start, int size, double[] out) {
+
+    int i = 0;
+    for (var bound = SPECIES.loopBound(size); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, trails, 0, ids, start + i)
+              .mul(decay).mul(alpha)
+              .add(DoubleVector.fromArray(SPECIES, heuristics, 0, ids, start + i))
+              .intoArray(out, i);
+    }
+    for (; i < size; i++) {
+      var id = ids[start + i];
+      out[i] = trails[id] * decay * alpha + heuristics[id];
+    }
+  }
+
+  @Override
+  public void product(double[] trails, double decay,
+          double[] heuristics, int[] ids, int start, int size, double[] out) {
+
+    int i = 0;
+    for (var bound = SPECIES.loopBound(size); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, trails, 0, ids, start + i)
+              .mul(decay)
+              .mul(DoubleVector.fromArray(SPECIES, heuristics, 0, ids, start + i))
+              .intoArray(out, i);
+    }
+    for (; i < size; i++) {
+      var id = ids[start + i];
+      out[i] = trails[id] * decay * heuristics[id];
+    }
+  }
+
+  @Override
+  public void scale(double[] array, int size, double factor) {
+
+    int i = 0;
+    for (var bound = SPECIES.loopBound(size); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, array, i).mul(factor).intoArray(array, i);
+    }
+    for (; i < size; i++) {
+      array[i] *= factor;
+    }
+  }
+}
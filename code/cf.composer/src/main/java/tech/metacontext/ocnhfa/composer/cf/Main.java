@@ -15,8 +15,15 @@
  */
 package tech.metacontext.ocnhfa.composer.cf;
 
+import java.nio.file.Path;
 import java.util.Map;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpointer;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor.StopPolicy;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine.ExecutionMode;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.UpdateRule;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove.Recording;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.initialization;
 import static tech.metacontext.ocnhfa.composer.cf.model.Parameters.*;
 import tech.metacontext.ocnhfa.composer.cf.model.Studio;
@@ -70,14 +77,41 @@ public class Main {
     var fraction_mode = getParam(params, "FRACTION_MODE",
             DEFAULT_FRACTION_MODE, FractionMode::valueOf);
 
+    var stop_policy = getParam(params, "CONVERGENCE", null, StopPolicy::valueOf);
+
+    var batched = getParam(params, "BATCHED", false, Boolean::valueOf);
+
+    var update_rule = getParam(params, "UPDATE_RULE",
+            UpdateRule.STANDARD, UpdateRule::valueOf);
+
+    var execution_mode = getParam(params, "EXECUTION_MODE",
+            ExecutionMode.Sequential, ExecutionMode::valueOf);
+
+    var checkpoint = getParam(params, "CHECKPOINT", null, Path::of);
+
+    var checkpoint_interval = getParam(params, "CHECKPOINT_INTERVAL",
+            Checkpointer.DEFAULT_INTERVAL, Integer::valueOf);
+
+    var resume = getParam(params, "RESUME", null, Path::of);
+
     var clef = getParam(params, "CLEF", null, Clef::valueOf);
 
     var save = getParam(params, "SAVE", false, Boolean::valueOf);
 
+    // Pheromone snapshots of moves are only read when routes are saved.
+    StandardParameters.RECORDING = getParam(params, "RECORDING",
+            save ? Recording.Compact : Recording.Off, Recording::valueOf);
+
     var studio = new Studio(type)
             .setThread_number(thread_number)
             .setTarget_size(target_size)
-            .setFraction_mode(fraction_mode);
+            .setFraction_mode(fraction_mode)
+            .setStop_policy(stop_policy)
+            .setBatched(batched)
+            .setUpdate_rule(update_rule)
+            .setExecution_mode(execution_mode)
+            .setCheckpoint(checkpoint, checkpoint_interval)
+            .setResume(resume);
 
     switch (type) {
       case DEVELOP_STANDARD -> {
@@ -114,8 +148,16 @@ public class Main {
           THREAD_NUMBER=(Integer) number of threads | 
           TARGET_SIZE=(Integer) selected target size
           FRACTION_MODE=Power | Coefficient | Power_Multiply
+          CONVERGENCE=epsilon[:patience[:Distribution | Trail]] stop developing once converged
+          BATCHED=(Boolean) move the threads on the same node together, FALSE by default
+          UPDATE_RULE=Standard* | MaxMin[:min[:max]] | RankBased[:rank] | Elitist[:weight] pheromone update rule
+          EXECUTION_MODE=Sequential* | ForkJoin | Virtual stepping of the threads
+          CHECKPOINT=(Path) directory to save checkpoints of the composers into
+          CHECKPOINT_INTERVAL=(Integer) navigations between checkpoints, 10 by default
+          RESUME=(Path) directory to resume from, with the same parameters and SEED
           CLEF=Treble | Bass | Soprano | Tenor | Alto (auto select by range if not specified)
           SAVE=(Boolean) Specify if save score, FALSE by default)
+          RECORDING=Off | Compact | Full (Compact if SAVE=TRUE, otherwise Off)
           %s
           When TYPE=DEVELOP_STANDARD
           COMPOSER_NUMBER=(Integer) number of composer(s)
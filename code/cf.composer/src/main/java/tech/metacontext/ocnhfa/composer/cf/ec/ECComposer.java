@@ -24,6 +24,8 @@ import java.util.Objects;
 import static java.util.function.Predicate.not;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor.StopPolicy;
+import tech.metacontext.ocnhfa.antsomg.model.Instrumentation;
 import tech.metacontext.ocnhfa.composer.cf.ec.function.Evaluator;
 import tech.metacontext.ocnhfa.composer.cf.ec.function.Mutator;
 import tech.metacontext.ocnhfa.composer.cf.ec.function.Recombinator;
@@ -112,9 +114,17 @@ public class ECComposer extends Composer {
 
   public void completeAll() {
 
-    while (!isAimAchieved()) {
-      navigate();
-    }
+    completeAll(null);
+  }
+
+  /**
+   * Complete all music threads and sort them by evaluation.
+   *
+   * @param policy stop policy of the development, or null.
+   */
+  public void completeAll(StopPolicy policy) {
+
+    develop(policy);
     System.out.println();
     this.eval_sort();
   }
@@ -123,20 +133,18 @@ public class ECComposer extends Composer {
   public void navigate() {
 
     var count = this.getNavigation_count() + 1;
+    var start = Instrumentation.clock();
+    Instrumentation.iterationStarted(this, count);
     this.setNavigation_count(count);
     this.logger.log(Level.INFO, "*** navigating, navigation_count = {0}", count);
     this.setToCadence(count > CF_LENGTH_LOWER);
 
-    this.music_threads.stream()
+    navigate(this.music_threads.stream()
             .map(Entry::getKey)
             .filter(not(MusicThread::isCompleted))
-            .forEach(thread -> {
-              do {
-                if (nav_y(thread, nav_x(thread))) break;
-              } while (true);
-              this.logger.log(Level.INFO, thread.toString());
-            });
+            .collect(Collectors.toList()));
     evaporate();
+    Instrumentation.iterationEnded(this, count, start);
     System.out.print(".");
   }
 
@@ -258,6 +266,12 @@ public class ECComposer extends Composer {
     this.music_threads = music_threads;
   }
 
+  @Override
+  public List<MusicThread> getAnts() {
+
+    return this.getMusicThreads();
+  }
+
   @Override
   public List<MusicThread> getMusicThreads() {
 
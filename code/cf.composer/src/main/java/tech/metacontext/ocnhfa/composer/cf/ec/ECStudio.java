@@ -18,6 +18,7 @@ package tech.metacontext.ocnhfa.composer.cf.ec;
 import java.io.File;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -128,11 +129,9 @@ public class ECStudio extends Studio {
     this.composers.stream()
             .forEach(c -> {
               c.setFraction_mode(this.getFraction_mode());
+              c.setBatched(this.isBatched());
               if (this.getComposer_type() == ComposerType.COMPOSE_STATIC) {
-                c.x_pheromone_deposit_amount = 0.0;
-                c.x_pheromone_evaporate_rate = 0.0;
-                c.y_pheromone_deposit_amount = 0.0;
-                c.y_pheromone_evaporate_rate = 0.0;
+                c.settle();
               }
             });
 
@@ -149,7 +148,7 @@ public class ECStudio extends Studio {
               .forEach(c -> {
                 System.out.printf("\nProcessing %s ", c.getId());
                 c.init_population();
-                c.completeAll();
+                c.completeAll(this.getStop_policy());
               });
       System.out.println();
       chart_data.add(dumpAll(true));
@@ -268,14 +267,14 @@ public class ECStudio extends Studio {
     var projects = Arrays.stream(path.listFiles(File::isDirectory))
             .filter(file -> this.getFolder() == null || this.getFolder().equals(file.getName()))
             .sorted()
-            .map(MusicReader::getComposerXML)
-            .filter(Objects::nonNull)
+            .map(folder -> new SimpleEntry<>(folder, MusicReader.getComposerXML(folder)))
+            .filter(e -> Objects.nonNull(e.getValue()))
             .collect(Collectors.toList());
     System.out.println(projects.size() + " folder(s) located.");
     this.setComposer_number(projects.size());
     createComposers();
     var it = this.composers.iterator();
-    projects.forEach(p -> it.next().init(p, this.getThread_number()));
+    projects.forEach(p -> it.next().init(p.getValue(), this.getThread_number(), p.getKey()));
   }
 
   private void createComposers() {
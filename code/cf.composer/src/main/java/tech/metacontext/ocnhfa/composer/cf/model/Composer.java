@@ -15,22 +15,42 @@
  */
 package tech.metacontext.ocnhfa.composer.cf.model;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import static java.util.function.Predicate.not;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import org.dom4j.Document;
-import org.dom4j.DocumentException;
-import org.dom4j.DocumentHelper;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Decoder;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Encoder;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpointer;
+import tech.metacontext.ocnhfa.antsomg.impl.CompletionPublisher;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor.StopPolicy;
+import tech.metacontext.ocnhfa.antsomg.impl.GraphSnapshot;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine.ExecutionMode;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.UpdateRule;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
+import tech.metacontext.ocnhfa.antsomg.impl.XMLText;
 import tech.metacontext.ocnhfa.antsomg.model.*;
 import tech.metacontext.ocnhfa.composer.cf.ex.*;
+import tech.metacontext.ocnhfa.composer.cf.model.constraints.MusicThreadRating;
 import static tech.metacontext.ocnhfa.composer.cf.model.Parameters.*;
 import tech.metacontext.ocnhfa.composer.cf.model.enums.*;
 import static tech.metacontext.ocnhfa.composer.cf.model.enums.EcclesiasticalMode.RANDOM_MODE;
@@ -42,7 +62,11 @@ import tech.metacontext.ocnhfa.composer.cf.model.y.*;
  *
  * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
  */
-public class Composer implements AntsOMGSystem<MusicThread> {
+public class Composer implements AntsOMGSystem<MusicThread>, Checkpoint.State,
+        NavigationEngine.Step<MusicThread> {
+
+  private static MusicSpace music_space;
+  private static PitchSpace pitch_space;
 
   protected String id;
   protected Logger logger;
@@ -53,8 +77,15 @@ public class Composer implements AntsOMGSystem<MusicThread> {
 
   private Map<String, Graph> graphs;
   private List<MusicThread> music_threads;
+  private CompletionPublisher<MusicThread> publisher = new CompletionPublisher<>();
   private int navigation_count; //navigation count
   private boolean toCadence;
+  private boolean batched;
+  private PheromoneUpdate update = new PheromoneUpdate();
+  private final NavigationEngine<MusicThread> engine
+          = NavigationEngine.of(this).setShared_random(true);
+  private Map<MusicThread, Integer> indices;
+  private List<MusicThought> thoughts;
 
   public double x_pheromone_deposit_amount = X_PHEROMONE_DEPOSIT_AMOUNT;
   public double y_pheromone_deposit_amount = Y_PHEROMONE_DEPOSIT_AMOUNT;
@@ -101,12 +132,28 @@ public class Composer implements AntsOMGSystem<MusicThread> {
 
   public void init(Document doc, int thread_number) {
 
+    this.init(doc, thread_number, null);
+  }
+
+  /**
+   * Initialize from a saved composer, restoring the graphs from the snapshots
+   * in the folder if any, otherwise from the XML document.
+   *
+   * @param doc composer.xml document.
+   * @param thread_number thread number, or 0 for the saved one.
+   * @param folder composer folder, may be null.
+   */
+  public void init(Document doc, int thread_number, File folder) {
+
     this.thread_number = (thread_number > 0) ? thread_number : Integer.valueOf(
             doc.getRootElement().element("thread_number").getTextTrim());
     this.ecclesiastical_mode = EcclesiasticalMode.valueOf(
             doc.getRootElement().element("mode").getTextTrim());
     this.preset_source = doc.getRootElement().attributeValue("id");
     this.init();
+    if (Objects.nonNull(folder) && restore(folder)) {
+      return;
+    }
 
     var x = doc.getRootElement().element("MusicSpace");
     x.elements("MusicPath").stream().forEach(e -> {
@@ -138,38 +185,116 @@ public class Composer implements AntsOMGSystem<MusicThread> {
     });
   }
 
-  public String asXML() {
+  /**
+   * Restore the pheromone trails and costs of both graphs from the snapshots
+   * graph_x.aomg and graph_y.aomg in the folder.
+   *
+   * @param folder composer folder.
+   * @return true if both snapshots were restored.
+   */
+  public boolean restore(File folder) {
 
-    var doc = DocumentHelper.createDocument();
-    var root = doc.addElement("CFComposer").addAttribute("id", this.id);
-    if (Objects.nonNull(this.preset_source)) {
-      root.addElement("preset_source").addText(this.preset_source);
+    var x = new File(folder, "graph_x" + GraphSnapshot.EXTENSION);
+    var y = new File(folder, "graph_y" + GraphSnapshot.EXTENSION);
+    if (!x.isFile() || !y.isFile()) {
+      return false;
     }
-    root.addElement("thread_number").addText(String.valueOf(this.thread_number));
-    root.addElement("mode").addText(this.ecclesiastical_mode.name());
     try {
-      var x = DocumentHelper.parseText(this.getX().asXML()).getRootElement();
-      var y = DocumentHelper.parseText(this.getY().asXML()).getRootElement();
-      root.add(x);
-      root.add(y);
-    } catch (DocumentException ex) {
+      GraphSnapshot.read(x.toPath()).restore(this.getX(), true);
+      GraphSnapshot.read(y.toPath()).restore(this.getY(), true);
+      this.logger.log(Level.INFO, "Graphs restored from snapshots in {0}", folder);
+      return true;
+    } catch (IOException ex) {
+      this.logger.log(Level.WARNING, "Snapshots not restored, reading composer.xml", ex);
+      return false;
+    }
+  }
+
+  /**
+   * Write the snapshots of both graphs into the folder.
+   *
+   * @param folder composer folder.
+   * @throws IOException
+   */
+  public void saveSnapshots(File folder) throws IOException {
+
+    GraphSnapshot.write(this.getX(), new File(folder, "graph_x" + GraphSnapshot.EXTENSION).toPath());
+    GraphSnapshot.write(this.getY(), new File(folder, "graph_y" + GraphSnapshot.EXTENSION).toPath());
+  }
+
+  public String asXML() {
+
+    var writer = new StringWriter();
+    try {
+      writeXML(writer);
+    } catch (IOException ex) {
       Logger.getLogger(Composer.class.getName()).log(Level.SEVERE, null, ex);
     }
-    return doc.asXML();
+    return writer.toString();
   }
 
+  /**
+   * Stream composer.xml into the writer, with the graphs written in place
+   * rather than parsed back from their asXML().
+   *
+   * @param writer
+   * @throws IOException
+   */
+  public void writeXML(Writer writer) throws IOException {
+
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<CFComposer");
+    if (Objects.nonNull(this.id)) {
+      writer.write(" id=\"");
+      XMLText.attribute(writer, this.id);
+      writer.write('"');
+    }
+    writer.write('>');
+    if (Objects.nonNull(this.preset_source)) {
+      XMLText.element(writer, "preset_source", this.preset_source);
+    }
+    XMLText.element(writer, "thread_number", String.valueOf(this.thread_number));
+    XMLText.element(writer, "mode", this.ecclesiastical_mode.name());
+    this.getX().writeXMLElement(writer, true);
+    this.getY().writeXMLElement(writer, true);
+    writer.write("</CFComposer>");
+  }
+
+  /**
+   * Initialize the graphs, sharing the topology of the spaces of all
+   * composers, each with its own pheromone trails.
+   */
   @Override
   public void init_graphs() {
 
     this.graphs = new HashMap<>(Map.of(
-            "x", new MusicSpace(),
-            "y", new PitchSpace()));
-    this.graphs.values().forEach(Graph::init_graph);
+            "x", new MusicSpace(musicSpace()),
+            "y", new PitchSpace(pitchSpace())));
+  }
+
+  private static synchronized MusicSpace musicSpace() {
+
+    if (Objects.isNull(music_space)) {
+      music_space = new MusicSpace();
+      music_space.init_graph();
+    }
+    return music_space;
+  }
+
+  private static synchronized PitchSpace pitchSpace() {
+
+    if (Objects.isNull(pitch_space)) {
+      pitch_space = new PitchSpace();
+      pitch_space.init_graph();
+    }
+    return pitch_space;
   }
 
   @Override
   public void init_population() {
 
+    if (this.publisher.isClosed()) {
+      this.publisher = new CompletionPublisher<>();
+    }
     this.music_threads = new ArrayList<>();
     for (var i = 0; i < this.thread_number; i++) {
       var mt = new MusicThread(this.ecclesiastical_mode, null, this.getX().getStart(), this.logger);
@@ -180,29 +305,160 @@ public class Composer implements AntsOMGSystem<MusicThread> {
   @Override
   public void navigate() {
 
+    var iteration = navigation_count;
+    var start = Instrumentation.clock();
+    Instrumentation.iterationStarted(this, iteration);
     this.logger.log(Level.INFO, "*** navigating, navigation_count = {0}",
             navigation_count++);
     this.toCadence = navigation_count > CF_LENGTH_LOWER;
 
-    this.music_threads.stream()
+    var threads = this.music_threads.stream()
             .filter(not(MusicThread::isCompleted))
-            .forEach(thread -> {
-              boolean ok;
-              do {
-                ok = nav_y(thread, nav_x(thread));
-              } while (!ok);
-              this.logger.log(Level.INFO, thread.toString());
-            });
+            .collect(Collectors.toList());
+    navigate(threads);
     evaporate();
+    publish(threads);
+    Instrumentation.iterationEnded(this, iteration, start);
     System.out.print(".");
   }
 
+  /**
+   * Publish the threads completed among the given ones, and complete the
+   * publisher once all threads are completed.
+   *
+   * @param threads threads just navigated.
+   */
+  private void publish(List<MusicThread> threads) {
+
+    if (this.publisher.isClosed()) {
+      return;
+    }
+    this.publisher.publish(threads);
+    if (isAimAchieved()) {
+      this.publisher.close();
+    }
+  }
+
+  /**
+   * Navigate the threads once each. If batched, the x moves of all threads are
+   * drawn first with batch_x(), and only the threads whose MusicThought leads
+   * to no possibilities navigate x again one by one. Unless the update rule is
+   * Standard, the deposits of this step are merged at its end by the rule,
+   * ranking the threads by MusicThreadRating of their melodies so far. A
+   * thread takes many steps to complete its melody, so the rule ranks partial
+   * melodies at every step, not the completed ones.
+   * <p>
+   * The threads are stepped by the NavigationEngine in the execution mode of
+   * this composer. In Sequential mode they draw from the global random stream
+   * in their order, as before the engine.
+   *
+   * @param threads threads not completed yet.
+   */
+  protected void navigate(List<MusicThread> threads) {
+
+    this.update.begin(threads.size());
+    this.thoughts = this.batched ? batch_x(threads) : null;
+    this.indices = new IdentityHashMap<>();
+    for (int i = 0; i < threads.size(); i++) {
+      this.indices.put(threads.get(i), i);
+    }
+    try {
+      this.engine.navigate(threads);
+    } finally {
+      this.thoughts = null;
+      this.indices = null;
+    }
+    this.update.update(threads, MusicThreadRating::rate);
+  }
+
+  /**
+   * Navigate the thread once, as a step of navigate(List).
+   *
+   * @param thread thread not completed yet.
+   */
+  @Override
+  public void step(MusicThread thread) {
+
+    var index = this.indices.get(thread);
+    var thought = Objects.nonNull(this.thoughts) ? this.thoughts.get(index) : null;
+    this.update.step(index, () -> navigate(thread, thought));
+    this.logger.log(Level.INFO, thread.toString());
+  }
+
+  private void navigate(MusicThread thread, MusicThought thought) {
+
+    var ok = Objects.nonNull(thought) && nav_y(thread, thought);
+    while (!ok) {
+      ok = nav_y(thread, nav_x(thread));
+    }
+  }
+
   protected MusicThought nav_x(MusicThread thread)
           throws UnexpectedLocationException, UnexpectedMusicNodeException {
 
     if (!thread.getCurrentTrace().x.equals(this.getX().getStart())) {
       throw new UnexpectedLocationException(thread.getCurrentTrace());
     }
+    var fixed = fixed_x(thread);
+    if (Objects.nonNull(fixed)) {
+      return fixed;
+    }
+
+    var move1 = x_move(thread); //Start to Directional/Complemental
+    var move2 = x_move(thread); //Directional/Complemental to Upward-Downward/ShortTerm-LongTerm
+    return x_thought(thread, move1, move2, x_move(thread));
+  }
+
+  /**
+   * Navigate x of all threads at once, moving the threads on the same node
+   * together with StandardGraph.moveAll(). The threads do not see the
+   * deposits of each other, and the random numbers are drawn in a different
+   * order than with nav_x().
+   *
+   * @param threads threads at the start of x.
+   * @return MusicThoughts of the threads, in the same order.
+   */
+  protected List<MusicThought> batch_x(List<MusicThread> threads)
+          throws UnexpectedLocationException, UnexpectedMusicNodeException {
+
+    var thoughts = new ArrayList<MusicThought>(threads.size());
+    var pending = new ArrayList<MusicThread>();
+    for (var thread : threads) {
+      if (!thread.getCurrentTrace().x.equals(this.getX().getStart())) {
+        throw new UnexpectedLocationException(thread.getCurrentTrace());
+      }
+      var fixed = fixed_x(thread);
+      thoughts.add(fixed);
+      if (Objects.isNull(fixed)) {
+        pending.add(thread);
+      }
+    }
+    var moves1 = x_move(pending);
+    var moves2 = x_move(pending);
+    var moves3 = x_move(pending);
+    for (int i = 0, j = 0; i < threads.size(); i++) {
+      if (Objects.isNull(thoughts.get(i))) {
+        thoughts.set(i, x_thought(threads.get(i), moves1.get(j), moves2.get(j), moves3.get(j)));
+        if (this.update.isDeferred()) {
+          for (var move : List.of(moves1.get(j), moves2.get(j), moves3.get(j))) {
+            this.update.deposit(i, move.getSelected(), x_pheromone_deposit_amount);
+          }
+        }
+        j++;
+      }
+    }
+    return thoughts;
+  }
+
+  /**
+   * MusicThought determined by the last pitch path regardless of x, with the
+   * traces of x set accordingly.
+   *
+   * @param thread
+   * @return MusicThought, or null if x is to be navigated.
+   */
+  private MusicThought fixed_x(MusicThread thread) {
+
     var y = thread.getCurrentTrace().y;
     if (thread.getCf().length() >= 2 && thread.getCf().getMelody().getLast().getName().matches("[BF].")) {
       thread.setCurrentTrace(new MusicTrace(MusicThought.DIRECTIONAL, y));
@@ -216,9 +472,12 @@ public class Composer implements AntsOMGSystem<MusicThread> {
       thread.setCurrentTrace(new MusicTrace(this.getX().getStart(), y));
       return MusicThought.Complemental_ShortTerm;
     }
+    return null;
+  }
+
+  private MusicThought x_thought(MusicThread thread, StandardMove<MusicPath> move1,
+          StandardMove<MusicPath> move2, StandardMove<MusicPath> move3) {
 
-    var move1 = x_move(thread); //Start to Directional/Complemental
-    var move2 = x_move(thread); //Directional/Complemental to Upward-Downward/ShortTerm-LongTerm
     MusicThought mt = MusicThought.getInstance(
             move1.getSelected().getTo(),
             move2.getSelected().getTo());
@@ -227,11 +486,10 @@ public class Composer implements AntsOMGSystem<MusicThread> {
               move1.getSelected().getTo(),
               move2.getSelected().getTo());
     }
-    var move3 = x_move(thread);
     if (!move3.getSelected().getTo().equals(this.getX().getStart())) {
       throw new UnexpectedLocationException(thread.getCurrentTrace());
     }
-    thread.setCurrentTrace(new MusicTrace(move3, y));
+    thread.setCurrentTrace(new MusicTrace(move3, thread.getCurrentTrace().y));
     return mt;
   }
 
@@ -239,11 +497,35 @@ public class Composer implements AntsOMGSystem<MusicThread> {
 
     var current_x = this.getX().move(thread.getCurrentTrace().x,
             x_pheromone_deposit_amount, x_explore_chance);
+    Instrumentation.moved(this, "x", current_x);
     thread.setCurrentTrace(new MusicTrace(current_x,
             thread.getCurrentTrace().y));
     return current_x;
   }
 
+  private List<StandardMove<MusicPath>> x_move(List<MusicThread> threads) {
+
+    var groups = new LinkedHashMap<MusicNode, List<Integer>>();
+    for (int i = 0; i < threads.size(); i++) {
+      groups.computeIfAbsent(threads.get(i).getCurrentTrace().x, node -> new ArrayList<>()).add(i);
+    }
+    var moves = new ArrayList<StandardMove<MusicPath>>(Collections.nCopies(threads.size(), null));
+    groups.forEach((node, members) -> {
+      var batch = this.getX().moveAll(node, members.size(),
+              this.update.isDeferred() ? 0.0 : x_pheromone_deposit_amount,
+              x_explore_chance, true);
+      for (int j = 0; j < members.size(); j++) {
+        var thread = threads.get(members.get(j));
+        var current_x = batch.getMove(j);
+        Instrumentation.moved(this, "x", current_x);
+        thread.setCurrentTrace(new MusicTrace(current_x,
+                thread.getCurrentTrace().y));
+        moves.set(members.get(j), current_x);
+      }
+    });
+    return moves;
+  }
+
   protected boolean nav_y(MusicThread thread, MusicThought mt) {
 
     this.logger.log(Level.INFO, "nav_y invoked with MusicThought = {0}", mt.name());
@@ -258,6 +540,7 @@ public class Composer implements AntsOMGSystem<MusicThread> {
             thread.getCf().getDominant(), mt.getPredicate(thread),
             y_pheromone_deposit_amount, y_explore_chance);
     if (Objects.nonNull(current_y)) {
+      Instrumentation.moved(this, "y", current_y);
       current_y.setMt(mt);
       thread.addPitchMove(current_y);
       return true;
@@ -270,10 +553,11 @@ public class Composer implements AntsOMGSystem<MusicThread> {
   public void evaporate() {
 
     this.logger.log(Level.INFO, "evaporate...");
-    this.getX().getEdges()
-            .forEach(p -> p.evaporate(x_pheromone_evaporate_rate));
-    this.getY().getEdges()
-            .forEach(p -> p.evaporate(y_pheromone_evaporate_rate));
+    var start = Instrumentation.clock();
+    this.getX().evaporate(x_pheromone_evaporate_rate);
+    this.getY().evaporate(y_pheromone_evaporate_rate);
+    this.update.bound(this.getX(), this.getY());
+    Instrumentation.evaporated(this, start);
   }
 
   @Override
@@ -291,11 +575,39 @@ public class Composer implements AntsOMGSystem<MusicThread> {
     return music_threads;
   }
 
+  /**
+   * Publisher of the music threads as they complete, renewed by
+   * init_population() once completed. Threads already completed, e.g.
+   * restored from a checkpoint, are published when develop() starts.
+   *
+   * @return publisher of the completed threads.
+   */
+  @Override
+  public CompletionPublisher<MusicThread> getPublisher() {
+
+    return publisher;
+  }
+
   public void setAnts(List<MusicThread> mts) {
 
     this.music_threads = mts;
   }
 
+  public boolean isBatched() {
+
+    return batched;
+  }
+
+  /**
+   * Move the threads on the same node of x together, see batch_x().
+   *
+   * @param batched whether to navigate x in batches.
+   */
+  public void setBatched(boolean batched) {
+
+    this.batched = batched;
+  }
+
   public boolean isToCadence() {
 
     return toCadence;
@@ -357,12 +669,179 @@ public class Composer implements AntsOMGSystem<MusicThread> {
     return this.id;
   }
 
+  public UpdateRule getUpdate_rule() {
+
+    return this.update.getRule();
+  }
+
+  /**
+   * Select the pheromone update rule, see PheromoneUpdate. The threads are
+   * ranked at every step on their partial melodies, see navigate(List).
+   *
+   * @param update_rule
+   */
+  public void setUpdate_rule(UpdateRule update_rule) {
+
+    this.update = new PheromoneUpdate(update_rule);
+  }
+
+  public ExecutionMode getMode() {
+
+    return this.engine.getMode();
+  }
+
+  /**
+   * Select the execution mode of the NavigationEngine stepping the threads,
+   * Sequential by default. The parallel modes step the threads with streams
+   * derived per thread and merge their deposits in batches, so their results
+   * differ from those of Sequential mode with the same seed.
+   *
+   * @param mode execution mode.
+   */
+  public void setMode(ExecutionMode mode) {
+
+    this.engine.setMode(mode);
+  }
+
   public void setFraction_mode(FractionMode fraction_mode) {
 
     this.getX().setFraction_mode(fraction_mode);
     this.getY().setFraction_mode(fraction_mode);
   }
 
+  /**
+   * Freeze both graphs, for composing without pheromone update.
+   */
+  public void freeze() {
+
+    this.getX().freeze();
+    this.getY().freeze();
+  }
+
+  /**
+   * Stop the pheromone update of both graphs and freeze them, so that the
+   * remaining threads are composed on the graphs as they are.
+   */
+  public void settle() {
+
+    this.x_pheromone_deposit_amount = 0.0;
+    this.x_pheromone_evaporate_rate = 0.0;
+    this.y_pheromone_deposit_amount = 0.0;
+    this.y_pheromone_evaporate_rate = 0.0;
+    this.freeze();
+  }
+
+  /**
+   * Navigate until the aim is achieved. With a stop policy, the composer is
+   * settled once its graphs converged, and the remaining threads finish on the
+   * frozen graphs.
+   *
+   * @param policy stop policy, or null to develop until the aim is achieved.
+   */
+  public void develop(StopPolicy policy) {
+
+    develop(policy, null, null);
+  }
+
+  /**
+   * Navigate until the aim is achieved, taking checkpoints with the
+   * checkpointer. A composer resumed from a checkpoint continues with a new
+   * convergence monitor, if any.
+   *
+   * @param policy stop policy, or null to develop until the aim is achieved.
+   * @param checkpointer checkpointer, or null.
+   * @param name name of the composer in the checkpoints.
+   */
+  public void develop(StopPolicy policy, Checkpointer checkpointer, String name) {
+
+    var monitor = Objects.isNull(policy) ? null : monitor(policy);
+    publish(this.music_threads);
+    while (!isAimAchieved()) {
+      navigate();
+      if (Objects.nonNull(monitor) && !monitor.isConverged() && monitor.update()) {
+        this.logger.log(Level.INFO,
+                "Graphs converged after {0} iterations, entropy = {1}",
+                new Object[]{monitor.getIterations(), monitor.getEntropy()});
+        settle();
+      }
+      if (Objects.nonNull(checkpointer)) {
+        checkpointer.iterated(name, this);
+      }
+    }
+    if (Objects.nonNull(checkpointer)) {
+      checkpointer.checkpoint(name, this);
+    }
+  }
+
+  @Override
+  public void writeState(Encoder out) throws IOException {
+
+    out.writeString(this.id);
+    out.writeInt(this.navigation_count);
+    out.writeBoolean(this.toCadence);
+    out.writeDouble(this.x_pheromone_deposit_amount);
+    out.writeDouble(this.y_pheromone_deposit_amount);
+    out.writeDouble(this.x_explore_chance);
+    out.writeDouble(this.y_explore_chance);
+    out.writeDouble(this.x_pheromone_evaporate_rate);
+    out.writeDouble(this.y_pheromone_evaporate_rate);
+    out.writeBoolean(this.getX().isFrozen());
+    out.writeBoolean(this.getY().isFrozen());
+    out.writeSize(this.music_threads.size());
+    for (var thread : this.music_threads) {
+      thread.writeState(out);
+    }
+  }
+
+  /**
+   * Restore the state written by writeState(), replacing the music threads.
+   * The graphs are frozen again if they were, so the fraction mode should be
+   * set beforehand.
+   *
+   * @param in
+   * @throws IOException
+   */
+  @Override
+  public void readState(Decoder in) throws IOException {
+
+    this.id = in.readString();
+    this.navigation_count = in.readInt();
+    this.toCadence = in.readBoolean();
+    this.x_pheromone_deposit_amount = in.readDouble();
+    this.y_pheromone_deposit_amount = in.readDouble();
+    this.x_explore_chance = in.readDouble();
+    this.y_explore_chance = in.readDouble();
+    this.x_pheromone_evaporate_rate = in.readDouble();
+    this.y_pheromone_evaporate_rate = in.readDouble();
+    var frozen_x = in.readBoolean();
+    var frozen_y = in.readBoolean();
+    var x_nodes = Checkpoint.vertices(this.getX(), MusicThought::getNode);
+    var y_nodes = Checkpoint.vertices(this.getY(), name -> Pitch.valueOf(name).getNode());
+    var y_edges = Checkpoint.edges(this.getY(), (from, to) -> new PitchPath(from, to, 0.0));
+    var size = in.readSize();
+    this.music_threads = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      this.music_threads.add(MusicThread.readState(in, x_nodes, y_nodes, y_edges));
+    }
+    if (frozen_x) {
+      this.getX().freeze();
+    }
+    if (frozen_y) {
+      this.getY().freeze();
+    }
+  }
+
+  /**
+   * Monitor of the convergence of both graphs.
+   *
+   * @param policy stop policy.
+   * @return ConvergenceMonitor
+   */
+  public ConvergenceMonitor monitor(StopPolicy policy) {
+
+    return new ConvergenceMonitor(policy, this.getX(), this.getY());
+  }
+
   public EcclesiasticalMode getEcclesiastical_mode() {
 
     return ecclesiastical_mode;
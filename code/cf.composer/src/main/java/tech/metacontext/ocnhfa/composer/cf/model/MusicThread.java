@@ -15,13 +15,18 @@
  */
 package tech.metacontext.ocnhfa.composer.cf.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Decoder;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Encoder;
 import tech.metacontext.ocnhfa.antsomg.model.Ant;
 import tech.metacontext.ocnhfa.composer.cf.model.constraints.MusicThreadRating;
 import tech.metacontext.ocnhfa.composer.cf.model.devices.*;
@@ -54,7 +59,7 @@ public final class MusicThread implements Ant<MusicTrace>, Comparable<MusicThrea
             ? EcclesiasticalMode.getRandomMode() : ecclesiastical_mode;
     this.cf = new CantusFirmus(ecclesiastical_mode, finalis);
     this.setCurrentTrace(new MusicTrace(start, this.cf.getFinalis()));
-    this.route = new ArrayList<>();
+    this.route = MusicTrace.ROUTE_CODEC.newRoute();
     logger.log(Level.INFO, "MusicThread in {0}, starting at {1}, created.",
             new Object[]{ecclesiastical_mode.name(), this.cf.getFinalis().getPitch()});
   }
@@ -70,6 +75,97 @@ public final class MusicThread implements Ant<MusicTrace>, Comparable<MusicThrea
     this.completed = true;
   }
 
+  private MusicThread(CantusFirmus cf, MusicTrace currentTrace,
+          List<MusicTrace> route, boolean completed) {
+
+    this.cf = cf;
+    this.currentTrace = currentTrace;
+    this.route = route;
+    this.completed = completed;
+  }
+
+  /**
+   * Write the state of the thread into a checkpoint.
+   *
+   * @param out
+   * @throws IOException
+   */
+  public void writeState(Encoder out) throws IOException {
+
+    out.writeBoolean(this.completed);
+    out.writeName(this.cf.getEcclesiastical_Mode().name());
+    var history = this.cf.getHistory();
+    out.writeSize(history.size());
+    for (var pm : history) {
+      out.writeName(pm.getMt().name());
+      out.writeMove(pm);
+    }
+    writeTrace(out, this.currentTrace);
+    out.writeBoolean(Objects.nonNull(this.route));
+    if (Objects.nonNull(this.route)) {
+      out.writeSize(this.route.size());
+      for (var trace : this.route) {
+        writeTrace(out, trace);
+      }
+    }
+    out.writeDouble(this.exploreChance);
+    out.writeDouble(this.pheromoneDeposit);
+  }
+
+  private static void writeTrace(Encoder out, MusicTrace trace) throws IOException {
+
+    out.writeBoolean(Objects.nonNull(trace));
+    if (Objects.nonNull(trace)) {
+      out.writeVertex(trace.x);
+      out.writeVertex(trace.y);
+    }
+  }
+
+  /**
+   * Read a thread written by writeState().
+   *
+   * @param in
+   * @param x_nodes MusicNode of a name.
+   * @param y_nodes PitchNode of a name.
+   * @param y_edges PitchPath of the endpoints.
+   * @return MusicThread
+   * @throws IOException
+   */
+  public static MusicThread readState(Decoder in, Function<String, MusicNode> x_nodes,
+          Function<String, PitchNode> y_nodes,
+          BiFunction<PitchNode, PitchNode, PitchPath> y_edges) throws IOException {
+
+    var completed = in.readBoolean();
+    var mode = EcclesiasticalMode.valueOf(in.readName());
+    var history = new ArrayList<PitchMove>();
+    for (int i = in.readSize(); i > 0; i--) {
+      var mt = MusicThought.valueOf(in.readName());
+      history.add(new PitchMove(in.readMove(y_nodes, y_edges), mt));
+    }
+    var current = readTrace(in, x_nodes, y_nodes);
+    List<MusicTrace> route = null;
+    if (in.readBoolean()) {
+      route = MusicTrace.ROUTE_CODEC.newRoute();
+      for (int i = in.readSize(); i > 0; i--) {
+        route.add(readTrace(in, x_nodes, y_nodes));
+      }
+    }
+    var thread = new MusicThread(new CantusFirmus(mode, history), current, route, completed);
+    thread.exploreChance = in.readDouble();
+    thread.pheromoneDeposit = in.readDouble();
+    return thread;
+  }
+
+  private static MusicTrace readTrace(Decoder in, Function<String, MusicNode> x_nodes,
+          Function<String, PitchNode> y_nodes) throws IOException {
+
+    if (!in.readBoolean()) {
+      return null;
+    }
+    var x = in.readVertex(x_nodes);
+    return new MusicTrace(x, in.readVertex(y_nodes));
+  }
+
   @Override
   public void addCurrentTraceToRoute() {
 
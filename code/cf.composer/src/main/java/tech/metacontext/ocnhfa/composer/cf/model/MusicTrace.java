@@ -15,6 +15,7 @@
  */
 package tech.metacontext.ocnhfa.composer.cf.model;
 
+import tech.metacontext.ocnhfa.antsomg.impl.CompactRoute;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
 import tech.metacontext.ocnhfa.antsomg.model.Trace;
 import tech.metacontext.ocnhfa.antsomg.model.Vertex;
@@ -28,6 +29,13 @@ import tech.metacontext.ocnhfa.composer.cf.model.y.PitchNode;
  */
 public class MusicTrace implements Trace {
 
+    /**
+     * Codec of the compact routes of MusicThreads.
+     */
+    public static final CompactRoute.Codec<MusicTrace> ROUTE_CODEC
+            = new CompactRoute.Codec<>(2,
+                    vertices -> new MusicTrace((MusicNode) vertices[0], (PitchNode) vertices[1]));
+
     MusicNode x;
     PitchNode y;
 
@@ -56,6 +64,19 @@ public class MusicTrace implements Trace {
         };
     }
 
+    @Override
+    public Vertex getDimension(int dimension) {
+
+        return switch (dimension) {
+            case 0->
+                this.x;
+            case 1->
+                this.y;
+            default->
+                null;
+        };
+    }
+
     public MusicNode getX() {
 
         return this.x;
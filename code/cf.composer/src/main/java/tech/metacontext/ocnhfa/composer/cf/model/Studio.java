@@ -16,13 +16,26 @@
 package tech.metacontext.ocnhfa.composer.cf.model;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpointer;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor.StopPolicy;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine.ExecutionMode;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.UpdateRule;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
 import tech.metacontext.ocnhfa.composer.cf.ex.NoQualifiedThreadsSelectedException;
 import static tech.metacontext.ocnhfa.composer.cf.model.Parameters.LINE;
@@ -49,6 +62,13 @@ public class Studio {
   private int target_size;
   private EcclesiasticalMode ecclesiastical_mode;
   private FractionMode fraction_mode;
+  private StopPolicy stop_policy;
+  private boolean batched;
+  private UpdateRule update_rule = UpdateRule.STANDARD;
+  private ExecutionMode execution_mode = ExecutionMode.Sequential;
+  private Path checkpoint;
+  private int checkpoint_interval;
+  private Path resume;
 
   //Parameters for COMPOSE | COMPOSE_STATIC
   private String project_name;
@@ -62,6 +82,7 @@ public class Studio {
 
     this.composer_type = composer_type;
     this.target_size = Parameters.DEFAULT_TARGET_SIZE;
+    this.checkpoint_interval = Checkpointer.DEFAULT_INTERVAL;
   }
 
   public Studio() {
@@ -81,28 +102,39 @@ public class Studio {
       case DEVELOP_MODAL_STANDARD ->
         modal_composers();
     }
-    // Generate composers from specified source and compose.
-    this.composers.stream()
-            .peek(c -> System.out.printf("\nProcessing %s ", c.getId()))
-            .forEach(c -> {
-              c.setFraction_mode(this.fraction_mode);
-              if (this.composer_type == COMPOSE_STATIC) {
-                c.x_pheromone_deposit_amount = 0.0;
-                c.x_pheromone_evaporate_rate = 0.0;
-                c.y_pheromone_deposit_amount = 0.0;
-                c.y_pheromone_evaporate_rate = 0.0;
-              }
-              while (!c.isAimAchieved()) {
-                c.navigate();
-              }
-            });
+    this.composers.forEach(c -> {
+      c.setFraction_mode(this.fraction_mode);
+      c.setBatched(this.batched);
+      c.setUpdate_rule(this.update_rule);
+      c.setMode(this.execution_mode);
+    });
+    if (Objects.nonNull(this.resume)) {
+      resume_composers();
+    }
+    // Generate composers from specified source and compose, filtering the
+    // threads as they complete.
+    var qualified = new HashMap<Composer, Set<MusicThread>>();
+    try (var checkpointer = checkpointer()) {
+      IntStream.range(0, this.composers.size())
+              .peek(i -> System.out.printf("\nProcessing %s ", this.composers.get(i).getId()))
+              .forEach(i -> {
+                var c = this.composers.get(i);
+                if (this.composer_type == COMPOSE_STATIC) {
+                  c.settle();
+                }
+                var filtering = filter(c, qualified.computeIfAbsent(c,
+                        k -> Collections.newSetFromMap(new IdentityHashMap<>())));
+                c.develop(this.stop_policy, checkpointer, "composer-" + i);
+                filtering.join();
+              });
+    }
     System.out.println();
     // Select qualified threads by composer
     this.qualified_threads = IntStream.range(0, this.composers.size())
             .mapToObj(i -> Map.entry(i, this.composers.get(i)))
             .collect(Collectors.toMap(Entry::getValue,
                     entry -> entry.getValue().getAnts().stream()
-                            .filter(new MusicThreadConstraint())
+                            .filter(qualified.get(entry.getValue())::contains)
                             .distinct()
                             .collect(Collectors.toList())));
 
@@ -122,6 +154,55 @@ public class Studio {
             LINE, composers.size(), average);
   }
 
+  /**
+   * Filter the threads of the composer through MusicThreadConstraint as they
+   * are published, while the composer goes on developing.
+   *
+   * @param composer composer to be developed.
+   * @param qualified set to which the qualified threads are added.
+   * @return future completed once all threads are completed and filtered.
+   */
+  private static CompletableFuture<Void> filter(Composer composer, Set<MusicThread> qualified) {
+
+    var constraint = new MusicThreadConstraint();
+    return composer.getPublisher().consume(thread -> {
+      if (constraint.test(thread)) {
+        qualified.add(thread);
+      }
+    });
+  }
+
+  /**
+   * Restore each composer from its checkpoint, if any, and then the random
+   * number stream. The composers should be created with the same parameters
+   * and seed as in the checkpointed run.
+   */
+  private void resume_composers() {
+
+    System.out.println("Resuming composers from " + this.resume);
+    try {
+      for (int i = 0; i < this.composers.size(); i++) {
+        Checkpointer.resume(this.resume, "composer-" + i, this.composers.get(i));
+      }
+      Checkpointer.resumeRandom(this.resume);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private Checkpointer checkpointer() {
+
+    var directory = Objects.isNull(this.checkpoint) ? this.resume : this.checkpoint;
+    if (Objects.isNull(directory)) {
+      return null;
+    }
+    try {
+      return new Checkpointer(directory, this.checkpoint_interval);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
   public void saveScore(Clef clef) {
 
     if (Objects.isNull(this.qualified_threads)) {
@@ -170,13 +251,13 @@ public class Studio {
     var projects = Stream.of(path.listFiles(File::isDirectory))
             .filter(file -> this.folder == null || this.folder.equals(file.getName()))
             .sorted()
-            .map(MusicReader::getComposerXML)
-            .filter(Objects::nonNull)
+            .map(folder -> new SimpleEntry<>(folder, MusicReader.getComposerXML(folder)))
+            .filter(e -> Objects.nonNull(e.getValue()))
             .collect(Collectors.toList());
     System.out.println(projects.size() + " folder(s) located.");
     createComposers(projects.size());
     var it = this.composers.iterator();
-    projects.forEach(p -> it.next().init(p, this.thread_number));
+    projects.forEach(p -> it.next().init(p.getValue(), this.thread_number, p.getKey()));
   }
 
   private void modal_composers() {
@@ -300,6 +381,120 @@ public class Studio {
     return this;
   }
 
+  public StopPolicy getStop_policy() {
+
+    return stop_policy;
+  }
+
+  /**
+   * Stop the development of each composer once its graphs converged.
+   *
+   * @param stop_policy stop policy, or null to develop until all threads are
+   * completed.
+   * @return this Studio.
+   */
+  public Studio setStop_policy(StopPolicy stop_policy) {
+
+    this.stop_policy = stop_policy;
+    return this;
+  }
+
+  public boolean isBatched() {
+
+    return batched;
+  }
+
+  /**
+   * Navigate x of the threads of each composer in batches, see
+   * Composer.batch_x().
+   *
+   * @param batched whether to navigate in batches.
+   * @return this Studio.
+   */
+  public Studio setBatched(boolean batched) {
+
+    this.batched = batched;
+    return this;
+  }
+
+  public UpdateRule getUpdate_rule() {
+
+    return update_rule;
+  }
+
+  /**
+   * Pheromone update rule of the composers, see PheromoneUpdate.
+   *
+   * @param update_rule
+   * @return this Studio.
+   */
+  public Studio setUpdate_rule(UpdateRule update_rule) {
+
+    this.update_rule = update_rule;
+    return this;
+  }
+
+  public ExecutionMode getExecution_mode() {
+
+    return execution_mode;
+  }
+
+  /**
+   * Execution mode of the composers stepping their threads, see
+   * Composer.setMode().
+   *
+   * @param execution_mode
+   * @return this Studio.
+   */
+  public Studio setExecution_mode(ExecutionMode execution_mode) {
+
+    this.execution_mode = execution_mode;
+    return this;
+  }
+
+  public Path getCheckpoint() {
+
+    return checkpoint;
+  }
+
+  /**
+   * Take checkpoints of the composers while developing, see Checkpointer.
+   *
+   * @param checkpoint directory of the checkpoints, or null to take none; the
+   * resume directory is used if null while resuming.
+   * @param interval number of navigations between two checkpoints.
+   * @return this Studio.
+   */
+  public Studio setCheckpoint(Path checkpoint, int interval) {
+
+    this.checkpoint = checkpoint;
+    this.checkpoint_interval = interval;
+    return this;
+  }
+
+  public int getCheckpoint_interval() {
+
+    return checkpoint_interval;
+  }
+
+  public Path getResume() {
+
+    return resume;
+  }
+
+  /**
+   * Resume the composers from the checkpoints in the directory, taken by a run
+   * with the same parameters and seed.
+   *
+   * @param resume directory of the checkpoints, or null to start anew.
+   * @return this Studio.
+   */
+  public Studio setResume(Path resume) {
+
+    this.resume = resume;
+    return this;
+  }
+
   public Map<Composer, List<MusicThread>> getQualifiedThreads() {
 
     return this.qualified_threads;
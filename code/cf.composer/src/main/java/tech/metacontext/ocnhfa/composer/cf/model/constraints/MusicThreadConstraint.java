@@ -15,7 +15,6 @@
  */
 package tech.metacontext.ocnhfa.composer.cf.model.constraints;
 
-import java.util.HashMap;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 import tech.metacontext.ocnhfa.composer.cf.model.MusicThread;
@@ -44,18 +43,22 @@ public class MusicThreadConstraint implements Predicate<MusicThread> {
 
   public static boolean properRepetition(MusicThread thread) {
 
-    var map = new HashMap<PitchNode, Integer>();
+    // Repetition counts indexed by the ids of the PitchNodes.
+    var counts = new int[PitchNode.count()];
     var cf = thread.getCf().getMelody();
     for (int i = 0; i < thread.getCf().length(); i++) {
       var node = cf.get(i);
-      if (i == 0 || !node.equals(cf.get(i - 1))) {
-        var count = map.getOrDefault(node, 0);
-        map.put(node, count + 3);
-        if (map.values().stream().anyMatch(v -> v > 4)) {
+      if (i == 0 || node != cf.get(i - 1)) {
+        counts[node.getId()] += 3;
+        if (counts[node.getId()] > 4) {
           return false;
         }
       }
-      map.replaceAll((n, v) -> v > 0 ? v - 1 : 0);
+      for (int p = 0; p < counts.length; p++) {
+        if (counts[p] > 0) {
+          counts[p]--;
+        }
+      }
     }
     return true;
   }
@@ -53,7 +53,7 @@ public enum EcclesiasticalMode {
             .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
     this.cadences = finalis.stream()
             .filter(pn -> pn.ordinal() + 1 < Pitch.values().length)
-            .map(PitchNode::new)
+            .map(PitchNode::of)
             .map(Cadence::new)
             .collect(Collectors.toList());
   }
@@ -34,13 +34,13 @@ public enum MusicThought {
     Complemental_LongTerm,
     NULL;
 
-    public static final MusicNode START = new MusicNode("Start");
-    public static final MusicNode DIRECTIONAL = new MusicNode("Directional");
-    public static final MusicNode COMPLEMENTAL = new MusicNode("Complemental");
-    public static final MusicNode CONJUNCT = new MusicNode("Conjunct");
-    public static final MusicNode DISJUNCT = new MusicNode("Disjunct");
-    public static final MusicNode SHORTTERM = new MusicNode("ShortTerm");
-    public static final MusicNode LONGTERM = new MusicNode("LongTerm");
+    public static final MusicNode START = MusicNode.of("Start");
+    public static final MusicNode DIRECTIONAL = MusicNode.of("Directional");
+    public static final MusicNode COMPLEMENTAL = MusicNode.of("Complemental");
+    public static final MusicNode CONJUNCT = MusicNode.of("Conjunct");
+    public static final MusicNode DISJUNCT = MusicNode.of("Disjunct");
+    public static final MusicNode SHORTTERM = MusicNode.of("ShortTerm");
+    public static final MusicNode LONGTERM = MusicNode.of("LongTerm");
 
     public static MusicNode getNode(String name) {
 
@@ -47,7 +47,7 @@ public enum Pitch {
 
   private Pitch() {
 
-    this.node = new PitchNode(this);
+    this.node = PitchNode.of(this);
   }
 
   public PitchNode getNode() {
@@ -16,6 +16,7 @@
 package tech.metacontext.ocnhfa.composer.cf.model.x;
 
 import tech.metacontext.ocnhfa.antsomg.impl.StandardVertex;
+import tech.metacontext.ocnhfa.antsomg.impl.VertexRegistry;
 
 /**
  *
@@ -23,8 +24,22 @@ import tech.metacontext.ocnhfa.antsomg.impl.StandardVertex;
  */
 public class MusicNode extends StandardVertex {
 
-    public MusicNode(String name) {
-        
+    private static final VertexRegistry<String, MusicNode> REGISTRY
+            = new VertexRegistry<>(MusicNode::new);
+
+    /**
+     * Canonical MusicNode of the name.
+     *
+     * @param name
+     * @return MusicNode
+     */
+    public static MusicNode of(String name) {
+
+        return REGISTRY.intern(name);
+    }
+
+    private MusicNode(String name) {
+
         super(name);
     }
 
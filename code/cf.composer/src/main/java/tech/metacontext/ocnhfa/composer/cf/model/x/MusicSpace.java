@@ -35,6 +35,18 @@ public class MusicSpace extends StandardGraph<MusicPath, MusicNode> {
     this(X_ALPHA, X_BETA);
   }
 
+  /**
+   * Constructor of a MusicSpace sharing the topology of another one, and its
+   * pheromone trails until the first deposit or evaporation of either graph,
+   * which copies them first.
+   *
+   * @param topology initialized MusicSpace whose topology is shared.
+   */
+  public MusicSpace(MusicSpace topology) {
+
+    super(topology);
+  }
+
   @Override
   public void init_graph() {
 
@@ -34,6 +34,12 @@ public class PitchMove extends StandardMove<PitchPath> {
         this.mt = mt;
     }
 
+    public PitchMove(StandardMove<PitchPath> move, MusicThought mt) {
+
+        super(move);
+        this.mt = mt;
+    }
+
     @Override
     public String toString() {
 
@@ -17,6 +17,7 @@ package tech.metacontext.ocnhfa.composer.cf.model.y;
 
 import java.util.Objects;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardVertex;
+import tech.metacontext.ocnhfa.antsomg.impl.VertexRegistry;
 import tech.metacontext.ocnhfa.composer.cf.model.enums.Pitch;
 
 /**
@@ -25,39 +26,71 @@ import tech.metacontext.ocnhfa.composer.cf.model.enums.Pitch;
  */
 public class PitchNode extends StandardVertex {
 
-    private Pitch pitch;
+    private static final VertexRegistry<Pitch, PitchNode> REGISTRY
+            = new VertexRegistry<>(PitchNode::new);
 
-    public PitchNode(Pitch pitch) {
+    private final Pitch pitch;
+    private final int hash;
 
-        super(pitch.name());
-        this.pitch = pitch;
+    /**
+     * Canonical PitchNode of the pitch, the same as Pitch.getNode().
+     *
+     * @param pitch
+     * @return PitchNode
+     */
+    public static PitchNode of(Pitch pitch) {
+
+        return REGISTRY.intern(pitch);
     }
 
-    public Pitch getPitch() {
+    /**
+     * PitchNode of a dense id, see getId().
+     *
+     * @param id
+     * @return PitchNode
+     */
+    public static PitchNode of(int id) {
 
-        return pitch;
+        return REGISTRY.get(id);
+    }
+
+    /**
+     * Number of the PitchNodes, which bounds their ids.
+     *
+     * @return count.
+     */
+    public static int count() {
+
+        return REGISTRY.size();
     }
 
-    public void setPitch(Pitch pitch) {
+    private PitchNode(Pitch pitch) {
 
+        super(pitch.name());
         this.pitch = pitch;
+        this.hash = 73 * 5 + Objects.hashCode(pitch);
+    }
+
+    public Pitch getPitch() {
+
+        return pitch;
     }
 
     @Override
     public int hashCode() {
-      
-        int hash = 5;
-        hash = 73 * hash + Objects.hashCode(this.pitch);
-        return hash;
+
+        return this.hash;
     }
 
+    /**
+     * PitchNodes are interned, so equal PitchNodes are the same instance.
+     *
+     * @param obj
+     * @return true if the same PitchNode.
+     */
     @Override
     public boolean equals(Object obj) {
-      
-        if (this == obj) return true;
-        if (obj == null) return false;
-        if (getClass() != obj.getClass()) return false;
-        final PitchNode other = (PitchNode) obj;
-        return this.pitch == other.pitch;
+
+        return this == obj;
     }
 }
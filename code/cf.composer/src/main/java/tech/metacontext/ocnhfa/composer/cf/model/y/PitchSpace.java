@@ -41,6 +41,18 @@ public class PitchSpace extends StandardGraph<PitchPath, PitchNode> {
     this(Y_ALPHA, Y_BETA);
   }
 
+  /**
+   * Constructor of a PitchSpace sharing the topology of another one, and its
+   * pheromone trails until the first deposit or evaporation of either graph,
+   * which copies them first.
+   *
+   * @param topology initialized PitchSpace whose topology is shared.
+   */
+  public PitchSpace(PitchSpace topology) {
+
+    super(topology);
+  }
+
   @Override
   public void init_graph() {
 
@@ -100,6 +112,6 @@ public class PitchSpace extends StandardGraph<PitchPath, PitchNode> {
         paths, pheromone_deposit, explore_chance);
     };
 
-    return new PitchMove(result.isExploring(), paths, result.getSelected(), MusicThought.NULL);
+    return new PitchMove(result, MusicThought.NULL);
   }
 }
@@ -19,6 +19,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.IntStream;
@@ -44,23 +45,26 @@ public class MusicWriter {
       File parent = new File(project_dir, "Composer-" + composer.getId());
       parent.mkdirs();
       // write composer.xml
-      try ( var fw_composer = new FileWriter(new File(parent, "composer.xml"));
-               var bw_composer = new BufferedWriter(fw_composer);) {
-         bw_composer.write(composer.asXML());
+      try ( var bw_composer = Files.newBufferedWriter(new File(parent, "composer.xml").toPath());) {
+         composer.writeXML(bw_composer);
+      } catch (IOException ex) {
+         composer.getLogger().log(Level.SEVERE, null, ex);
+      }
+      // write graph_x.aomg, graph_y.aomg
+      try {
+         composer.saveSnapshots(parent);
       } catch (IOException ex) {
          composer.getLogger().log(Level.SEVERE, null, ex);
       }
       // write graph_x.graphviz
-      try ( var fw_graph_x = new FileWriter(new File(parent, "graph_x.graphviz"));
-               var bw_graph_x = new BufferedWriter(fw_graph_x);) {
-         bw_graph_x.write(composer.getX().asGraphviz());
+      try ( var bw_graph_x = Files.newBufferedWriter(new File(parent, "graph_x.graphviz").toPath());) {
+         composer.getX().writeGraphviz(bw_graph_x);
       } catch (IOException ex) {
          composer.getLogger().log(Level.SEVERE, null, ex);
       }
       // write graph_y.graphviz
-      try ( var fw_graph_y = new FileWriter(new File(parent, "graph_y.graphviz"));
-               var bw_graph_y = new BufferedWriter(fw_graph_y);) {
-         bw_graph_y.write(composer.getY().asGraphviz());
+      try ( var bw_graph_y = Files.newBufferedWriter(new File(parent, "graph_y.graphviz").toPath());) {
+         composer.getY().writeGraphviz(bw_graph_y);
       } catch (IOException ex) {
          composer.getLogger().log(Level.SEVERE, null, ex);
       }
@@ -18,6 +18,8 @@ package art.cctcc.music;
 import art.cctcc.music.motet.MotetStudio;
 import art.cctcc.music.utils.Settings;
 import java.io.IOException;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove.Recording;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
 import static tech.metacontext.ocnhfa.composer.cf.model.Parameters.LINE;
 import static tech.metacontext.ocnhfa.composer.cf.model.Parameters.argsToParam;
 
@@ -41,6 +43,8 @@ public class Main {
     }
 
     var settings = new Settings(params);
+    // Pheromone snapshots of moves are never saved with motets.
+    StandardParameters.RECORDING = Recording.Off;
     System.out.printf("\n%s\n%s\n%s\n", LINE, "Settings", LINE);
     System.out.println(settings);
 
@@ -46,6 +46,7 @@ public class Parameters {
   public static final int CPT_DEVELOPING_POPULATION = 10000;
   public static final int CPT_COMPOSING_POPULATION = 100;
   public static final int CPT_TESTING_POPULATION = 20;
+  public static int CPT_PARALLEL_BATCH_SIZE = 64;
 
   public static double X_PHEROMONE_EVAPORATE_RATE = 0.1;
   public static double X_PHEROMONE_DEPOSIT_AMOUNT = 1.0;
@@ -25,8 +25,12 @@ import art.cctcc.music.cpt.graphs.y_cpt_cf.CptCfPitchSpace;
 import art.cctcc.music.cpt.model.CptCantusFirmus;
 import art.cctcc.music.cpt.model.enums.CptTask;
 import static art.cctcc.music.cpt.model.enums.CptTask.*;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,11 +39,16 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
-import org.dom4j.DocumentException;
-import org.dom4j.DocumentHelper;
+import tech.metacontext.ocnhfa.antsomg.impl.CompletionPublisher;
+import tech.metacontext.ocnhfa.antsomg.impl.DepositBuffer.DepositMode;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine.ExecutionMode;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.UpdateRule;
+import tech.metacontext.ocnhfa.antsomg.impl.XMLText;
 import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
 import tech.metacontext.ocnhfa.antsomg.model.Graph;
+import tech.metacontext.ocnhfa.antsomg.model.Instrumentation;
 import tech.metacontext.ocnhfa.composer.cf.ex.UnexpectedMusicNodeException;
 import tech.metacontext.ocnhfa.composer.cf.model.enums.MusicThought;
 
@@ -51,6 +60,8 @@ import tech.metacontext.ocnhfa.composer.cf.model.enums.MusicThought;
  */
 public class CptComposer implements AntsOMGSystem<CptThread> {
 
+  private static CptMusicSpace music_space;
+
   private String id;
   private CptCantusFirmus cf;
   private boolean treble;
@@ -63,10 +74,15 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
   private double y_pheromone_evaporate_rate = Y_PHEROMONE_EVAPORATE_RATE;
 
   private boolean parallel;
+  private DepositMode deposit_mode = DepositMode.Deferred;
+  private PheromoneUpdate update = new PheromoneUpdate();
+  private Map<CptThread, Integer> indices;
   private boolean chromatic;
 
   private Map<String, Graph> graphs;
   private List<CptThread> threads;
+  private final NavigationEngine<CptThread> engine;
+  private CompletionPublisher<CptThread> publisher;
 
   public static CptComposer getInstance(String id, CptCantusFirmus cf, boolean isTreble) {
 
@@ -79,6 +95,10 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
     this.cf = cf;
     this.treble = isTreble;
     this.setTask(DEVELOP_PRIMARY);
+    this.publisher = new CompletionPublisher<>();
+    this.engine = new NavigationEngine<>(this, this::step)
+            .setBatch_listener(this::afterBatch)
+            .setPublisher(this.publisher);
   }
 
   @Override
@@ -90,18 +110,37 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
       CptEvaluation.type = CptEvaluation.EvalType.chromatic;
     }
     this.graphs = new HashMap<>(Map.of(
-            "x", new CptMusicSpace(),
+            "x", new CptMusicSpace(musicSpace()),
             "y", y));
     try {
-      this.graphs.values().forEach(Graph::init_graph);
+      y.init_graph();
     } catch (ImmatureCptCfPitchSpaceException ex) {
       System.out.println(ex);
     }
   }
 
+  /**
+   * CptMusicSpace whose topology is shared by the music spaces of all
+   * composers, each with its own pheromone trails.
+   *
+   * @return CptMusicSpace
+   */
+  private static synchronized CptMusicSpace musicSpace() {
+
+    if (Objects.isNull(music_space)) {
+      music_space = new CptMusicSpace();
+      music_space.init_graph();
+    }
+    return music_space;
+  }
+
   @Override
   public void init_population() {
 
+    if (this.publisher.isClosed()) {
+      this.publisher = new CompletionPublisher<>();
+      this.engine.setPublisher(this.publisher);
+    }
     this.threads = Stream.generate(this::generate)
             .limit(population)
             .collect(Collectors.toList());
@@ -128,25 +167,94 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
   }
 
   int counter, section;
+  private int iteration;
 
   @Override
   public void navigate() {
 
+    var count = this.iteration++;
+    var start = Instrumentation.clock();
+    Instrumentation.iterationStarted(this, count);
+    if (this.task == COMPOSE) {
+      this.getX().freeze();
+      this.getY().freeze();
+    }
     counter = 0;
     section = this.threads.size() * (cf.length() - 1) / 20;
-    StreamSupport.stream(this.threads.spliterator(), parallel)
-            .peek(this::developThread)
-            .forEach(t -> {
-              while (counter >= section) {
-                counter -= section;
-                System.out.print("=");
-              }
-            });
+    var deferred = this.task != COMPOSE && this.update.isDeferred();
+    if (deferred) {
+      this.update.begin(this.threads.size());
+      this.indices = new IdentityHashMap<>();
+      for (int i = 0; i < this.threads.size(); i++) {
+        this.indices.put(this.threads.get(i), i);
+      }
+    }
+    this.engine
+            .setMode(parallel ? ExecutionMode.ForkJoin : ExecutionMode.Sequential)
+            .setBatch_size(CPT_PARALLEL_BATCH_SIZE)
+            .setDeposit_mode(deposit_mode)
+            .navigate(this.threads);
+    if (deferred) {
+      this.update.update(this.threads, thread -> CptEvaluation.getInstance(thread).get());
+      this.indices = null;
+    }
+    if (isAimAchieved()) {
+      this.publisher.close();
+    }
     Collections.sort(this.threads);
+    Instrumentation.iterationEnded(this, count, start);
+  }
+
+  /**
+   * Evaporate after every ant in sequential mode, or after every batch of
+   * CPT_PARALLEL_BATCH_SIZE parallel ants, whose deposits are merged at the
+   * end of the batch, so the result does not depend on the number of workers
+   * in Deferred mode.
+   *
+   * @param ants number of ants stepped.
+   */
+  private void afterBatch(int ants) {
+
+    if (this.task != COMPOSE) {
+      this.evaporate(ants);
+    }
+    progress();
+  }
+
+  private void progress() {
+
+    while (counter >= section) {
+      counter -= section;
+      System.out.print("=");
+    }
   }
 
   public void developThread(CptThread thread) {
 
+    traceThread(thread);
+    if (this.task != COMPOSE) {
+      this.evaporate();
+    }
+  }
+
+  /**
+   * Trace the thread, recording its deposits for the update rule unless it is
+   * Standard. Each thread traces a whole counterpoint, so the rule ranks the
+   * completed counterpoints of the iteration by CptEvaluation.
+   *
+   * @param thread thread to be traced.
+   */
+  private void step(CptThread thread) {
+
+    if (Objects.nonNull(this.indices)) {
+      this.update.step(this.indices.get(thread), () -> traceThread(thread));
+    } else {
+      traceThread(thread);
+    }
+  }
+
+  private void traceThread(CptThread thread) {
+
     IntStream.range(1, cf.length())
             .forEach(i -> {
               var x_move = nav_x(thread);
@@ -156,9 +264,6 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
     assert thread.getCpt().length() == cf.length();
     thread.setCompleted(true);
     counter += (cf.length() - 1);
-    if (this.task != COMPOSE) {
-      this.evaporate();
-    }
   }
 
   public CptMusicMove nav_x(CptThread thread) {
@@ -172,6 +277,8 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
     } else {
       var move0 = this.getX().getMove(this.getX().getStart(), X_EXPLORE_CHANCE);
       var move1 = this.getX().getMove(move0.getSelected().getTo(), X_EXPLORE_CHANCE);
+      Instrumentation.moved(this, "x", move0);
+      Instrumentation.moved(this, "x", move1);
       x_move = new CptMusicMove(move0, move1);
     }
     if (Objects.isNull(x_move.getMusicThought())) {
@@ -195,6 +302,7 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
     } while (this.getY().queryByVertex(locus, current).stream()
             .filter(x_move.getPredicate(thread)).count() > 0
             && !x_move.getPredicate(thread).test(y_move.getSelected()));
+    Instrumentation.moved(this, "y", y_move);
     this.getY().move(y_move, y_pheromone_deposit);
     return y_move;
   }
@@ -202,14 +310,26 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
   @Override
   public void evaporate() {
 
+    var start = Instrumentation.clock();
     if (this.task != DEVELOP_SECONDARY) {
-      this.getX().getEdges()
-              .forEach(p -> p.evaporate(x_pheromone_evaporate_rate));
+      this.getX().evaporate(x_pheromone_evaporate_rate);
+      this.update.bound(this.getX());
+    }
+    this.getY().evaporate(y_pheromone_evaporate_rate);
+    this.update.bound(this.getY());
+    Instrumentation.evaporated(this, start);
+  }
+
+  /**
+   * Evaporate as many times as the specified number of ants.
+   *
+   * @param times number of ants.
+   */
+  public void evaporate(int times) {
+
+    for (int i = 0; i < times; i++) {
+      this.evaporate();
     }
-    var loci = this.getY().getLoci();
-    IntStream.range(0, loci.size()).boxed()
-            .flatMap(i -> loci.get(i).stream())
-            .forEach(p -> p.evaporate(y_pheromone_evaporate_rate));
   }
 
   @Override
@@ -232,27 +352,39 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
 
   public String asXML() {
 
-    var doc = DocumentHelper.createDocument();
-    var root = doc.addElement("CptComposer").addAttribute("id", this.id);
-    root.addElement("thread_number")
-            .addText(String.valueOf(this.threads.size()));
-    root.addElement("mode")
-            .addText(this.cf.getMode().name());
-    root.addElement("cantus_firmus")
-            .addText(this.cf.getId());
-    root.addElement("cantus_firmus_melody")
-            .addText(this.cf.getMelody().toString());
-    root.addElement("counterpoint_place")
-            .addText(this.treble ? "treble" : "bass");
+    var writer = new StringWriter();
     try {
-      var x = DocumentHelper.parseText(this.getX().asXML()).getRootElement();
-      var y = DocumentHelper.parseText(this.getY().asXML()).getRootElement();
-      root.add(x);
-      root.add(y);
-    } catch (DocumentException ex) {
+      writeXML(writer);
+    } catch (IOException ex) {
       Logger.getLogger(CptComposer.class.getName()).log(Level.SEVERE, null, ex);
     }
-    return doc.asXML();
+    return writer.toString();
+  }
+
+  /**
+   * Stream the XML of this composer into the writer, with the graphs written
+   * in place.
+   *
+   * @param writer
+   * @throws IOException
+   */
+  public void writeXML(Writer writer) throws IOException {
+
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<CptComposer");
+    if (Objects.nonNull(this.id)) {
+      writer.write(" id=\"");
+      XMLText.attribute(writer, this.id);
+      writer.write('"');
+    }
+    writer.write('>');
+    XMLText.element(writer, "thread_number", String.valueOf(this.threads.size()));
+    XMLText.element(writer, "mode", this.cf.getMode().name());
+    XMLText.element(writer, "cantus_firmus", this.cf.getId());
+    XMLText.element(writer, "cantus_firmus_melody", this.cf.getMelody().toString());
+    XMLText.element(writer, "counterpoint_place", this.treble ? "treble" : "bass");
+    this.getX().writeXMLElement(writer, true);
+    this.getY().writeXMLElement(writer, true);
+    writer.write("</CptComposer>");
   }
 
   @Override
@@ -272,6 +404,20 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
     return this.threads;
   }
 
+  /**
+   * Publisher of the counterpoint threads as they complete, after every
+   * batch of parallel threads, so that they can be evaluated or ranked before
+   * the population is sorted at the end of navigate(). The publisher is
+   * renewed by init_population() once completed.
+   *
+   * @return publisher of the completed threads.
+   */
+  @Override
+  public CompletionPublisher<CptThread> getPublisher() {
+
+    return this.publisher;
+  }
+
   public void setAnts(List<CptThread> threads) {
 
     this.threads = threads;
@@ -355,6 +501,32 @@ public class CptComposer implements AntsOMGSystem<CptThread> {
     this.parallel = parallel;
   }
 
+  public DepositMode getDeposit_mode() {
+
+    return deposit_mode;
+  }
+
+  public void setDeposit_mode(DepositMode deposit_mode) {
+
+    this.deposit_mode = deposit_mode;
+  }
+
+  public UpdateRule getUpdate_rule() {
+
+    return this.update.getRule();
+  }
+
+  /**
+   * Select the pheromone update rule, see PheromoneUpdate. It does not apply
+   * to the COMPOSE task, which does not deposit.
+   *
+   * @param update_rule
+   */
+  public void setUpdate_rule(UpdateRule update_rule) {
+
+    this.update = new PheromoneUpdate(update_rule);
+  }
+
   public void setChromatic(boolean chromatic) {
 
     this.chromatic = chromatic;
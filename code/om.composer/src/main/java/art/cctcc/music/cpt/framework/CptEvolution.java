@@ -26,6 +26,8 @@ import java.util.Objects;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.getRandom;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.nextStream;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.withRandom;
 
 /**
  *
@@ -53,13 +55,14 @@ public class CptEvolution {
     boolean complete;
     System.out.printf(" (%.2f", this.evals.get(0));
     do {
-      var crossover_children = getCrossoverChildren();
+      var random = nextStream();
+      var crossover_children = withRandom(random.fork(0), this::getCrossoverChildren);
 
-      var mutants = Stream.generate(this::tournamentSelection_k2)
+      var mutants = withRandom(random.fork(1), () -> Stream.generate(this::tournamentSelection_k2)
               .distinct()
               .limit((int) (composer.getPopulation() * MUTATION_RATE))
               .map(this::mutation)
-              .toArray(CptThread[]::new);
+              .toArray(CptThread[]::new));
 
       var generated = Stream.of(crossover_children, mutants)
               .flatMap(Stream::of)
@@ -22,7 +22,6 @@ import art.cctcc.music.cpt.graphs.y_cpt.CptPitchPath;
 import art.cctcc.music.cpt.model.CptCantusFirmus;
 import art.cctcc.music.cpt.model.CptCounterpoint;
 import art.cctcc.music.cpt.model.enums.CptPitch;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import tech.metacontext.ocnhfa.antsomg.model.Ant;
@@ -34,7 +33,7 @@ import tech.metacontext.ocnhfa.antsomg.model.Ant;
 public class CptThread implements Ant<CptTrace>, Comparable {
 
   private final CptCounterpoint cpt;
-  private final LinkedList<CptTrace> route;
+  private final List<CptTrace> route;
   private CptTrace currentTrace;
   private boolean completed;
   /**
@@ -54,7 +53,7 @@ public class CptThread implements Ant<CptTrace>, Comparable {
     this.cpt = new CptCounterpoint(cf);
     this.cpt.addNote(entry);
     this.currentTrace = new CptTrace(null, new CptPitchMove(entry));
-    this.route = new LinkedList<>();
+    this.route = CptTrace.ROUTE_CODEC.newRoute();
   }
 
   /**
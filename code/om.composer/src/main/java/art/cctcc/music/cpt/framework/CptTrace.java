@@ -17,9 +17,12 @@ package art.cctcc.music.cpt.framework;
 
 import art.cctcc.music.cpt.graphs.x.CptMusicMove;
 import art.cctcc.music.cpt.graphs.y_cpt.CptPitchMove;
+import art.cctcc.music.cpt.graphs.y_cpt.CptPitchNode;
 import java.util.Objects;
+import tech.metacontext.ocnhfa.antsomg.impl.CompactRoute;
 import tech.metacontext.ocnhfa.antsomg.model.Trace;
 import tech.metacontext.ocnhfa.antsomg.model.Vertex;
+import tech.metacontext.ocnhfa.composer.cf.model.x.MusicNode;
 
 /**
  *
@@ -27,6 +30,16 @@ import tech.metacontext.ocnhfa.antsomg.model.Vertex;
  */
 public class CptTrace implements Trace {
 
+  /**
+   * Codec of the compact routes of CptThreads, with the dimensions x0, x1 and
+   * y.
+   */
+  public static final CompactRoute.Codec<CptTrace> ROUTE_CODEC
+          = new CompactRoute.Codec<>(3, vertices -> new CptTrace(
+                  Objects.isNull(vertices[0]) ? null
+                  : new CptMusicMove((MusicNode) vertices[0], (MusicNode) vertices[1]),
+                  new CptPitchMove((CptPitchNode) vertices[2])));
+
   private CptMusicMove x;
   private CptPitchMove y;
 
@@ -47,6 +60,17 @@ public class CptTrace implements Trace {
     };
   }
 
+  @Override
+  public Vertex getDimension(int dimension) {
+
+    return switch (dimension) {
+      case 0: yield Objects.isNull(this.x) ? null : this.x.getMoves()[0].getSelected().getTo();
+      case 1: yield Objects.isNull(this.x) ? null : this.x.getMoves()[1].getSelected().getTo();
+      case 2: yield this.y.getSelected().getTo();
+      default: yield null;
+    };
+  }
+
   @Override
   public String toString() {
 
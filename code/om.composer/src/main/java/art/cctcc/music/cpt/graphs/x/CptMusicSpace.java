@@ -17,12 +17,8 @@ package art.cctcc.music.cpt.graphs.x;
 
 import static art.cctcc.music.Parameters.ALPHA;
 import static art.cctcc.music.Parameters.BETA;
-import java.util.ArrayList;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.IntStream;
+import tech.metacontext.ocnhfa.antsomg.impl.DepositBuffer;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
-import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.getRandom;
 import tech.metacontext.ocnhfa.composer.cf.model.x.MusicNode;
 import tech.metacontext.ocnhfa.composer.cf.model.x.MusicPath;
 import tech.metacontext.ocnhfa.composer.cf.model.x.MusicSpace;
@@ -43,17 +39,22 @@ public class CptMusicSpace extends MusicSpace {
     this(ALPHA, BETA);
   }
 
-  public CptMusicSpace duplicate() {
-
-    var new_graph = new CptMusicSpace(this.alpha, this.beta);
-    new_graph.init_graph();
-    this.getEdges().forEach(path0 -> {
-      var new_path = new_graph.queryByVertex(path0.getFrom()).stream()
-              .filter(path -> Objects.equals(path.getTo(), path0.getTo()))
-              .findFirst().get();
-      new_path.setPheromoneTrail(path0.getPheromoneTrail());
-    });
-    return new_graph;
+  /**
+   * Constructor of a CptMusicSpace sharing the topology of another one, and
+   * its pheromone trails until the first deposit or evaporation of either
+   * graph, which copies them first.
+   *
+   * @param topology initialized CptMusicSpace whose topology is shared.
+   */
+  public CptMusicSpace(CptMusicSpace topology) {
+
+    super(topology);
+  }
+
+  @Override
+  public CptMusicSpace fork() {
+
+    return new CptMusicSpace(this);
   }
 
   @Override
@@ -65,29 +66,22 @@ public class CptMusicSpace extends MusicSpace {
     return null;
   }
 
+  /**
+   * Select a move without depositing pheromone, which is done later by
+   * move(CptMusicMove, double).
+   *
+   * @param current current MusicNode.
+   * @param explore_chance explore chance.
+   * @return StandardMove
+   */
   public StandardMove<MusicPath> getMove(MusicNode current, double explore_chance) {
 
-    var paths = this.queryByVertex(current);
-    var fractions = new ArrayList<Double>();
-    var sum = paths.stream()
-            .mapToDouble(this::getFraction)
-            .peek(fractions::add)
-            .sum();
-    var r = new AtomicReference<Double>(getRandom().nextDouble() * sum);
-    var isExploring = getRandom().nextDouble() < explore_chance;
-    var selected = isExploring
-            ? paths.get(getRandom().nextInt(paths.size()))
-            : IntStream.range(0, paths.size())
-                    .filter(i -> r.getAndSet(r.get() - fractions.get(i)) < fractions.get(i))
-                    .mapToObj(paths::get)
-                    .findFirst().get();
-
-    return StandardMove.getInstance(isExploring, paths, selected);
+    return super.move(this.queryByVertex(current), 0.0, explore_chance);
   }
 
   public void move(CptMusicMove move, double pheromone_deposit) {
 
-    move.getMoves()[0].getSelected().addPheromoneDeposit(pheromone_deposit);
-    move.getMoves()[1].getSelected().addPheromoneDeposit(pheromone_deposit);
+    DepositBuffer.deposit(move.getMoves()[0].getSelected(), pheromone_deposit);
+    DepositBuffer.deposit(move.getMoves()[1].getSelected(), pheromone_deposit);
   }
 }
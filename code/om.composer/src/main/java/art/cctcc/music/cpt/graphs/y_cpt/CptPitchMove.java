@@ -41,8 +41,7 @@ public class CptPitchMove extends StandardMove<CptPitchPath> {
 
   public CptPitchMove(StandardMove<CptPitchPath> move) {
 
-    super(move.isExploring(), move.getSelected());
-    this.getPheromoneRecords().putAll(move.getPheromoneRecords());
+    super(move);
   }
 
   /**
@@ -18,6 +18,7 @@ package art.cctcc.music.cpt.graphs.y_cpt;
 import art.cctcc.music.cpt.model.enums.CptPitch;
 import java.util.Objects;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardVertex;
+import tech.metacontext.ocnhfa.antsomg.impl.VertexRegistry;
 import tech.metacontext.ocnhfa.composer.cf.model.y.PitchNode;
 
 /**
@@ -26,7 +27,11 @@ import tech.metacontext.ocnhfa.composer.cf.model.y.PitchNode;
  */
 public class CptPitchNode extends StandardVertex {
 
-  private CptPitch pitch;
+  private static final VertexRegistry<CptPitch, CptPitchNode> REGISTRY
+          = new VertexRegistry<>(CptPitchNode::new);
+
+  private final CptPitch pitch;
+  private final int hash;
 
   private static CptPitchNode empty = new CptPitchNode();
 
@@ -35,46 +40,67 @@ public class CptPitchNode extends StandardVertex {
     return empty;
   }
 
-  public CptPitchNode(CptPitch pitch) {
+  /**
+   * Canonical CptPitchNode of the pitch, the same as CptPitch.getNode().
+   *
+   * @param pitch
+   * @return CptPitchNode
+   */
+  public static CptPitchNode of(CptPitch pitch) {
+
+    return REGISTRY.intern(pitch);
+  }
+
+  /**
+   * Number of the CptPitchNodes interned, which bounds their ids. The empty
+   * node is not interned.
+   *
+   * @return count.
+   */
+  public static int count() {
+
+    return REGISTRY.size();
+  }
+
+  private CptPitchNode(CptPitch pitch) {
 
     super(pitch.name());
     this.pitch = pitch;
+    this.hash = 97 * 7 + pitch.name().hashCode();
   }
 
   private CptPitchNode() {
 
     super(null);
+    this.pitch = null;
+    this.hash = 97 * 7;
   }
 
   public CptPitch getPitch() {
     return pitch;
   }
 
-  public void setPitch(CptPitch pitch) {
-    this.pitch = pitch;
-  }
-
   @Override
   public int hashCode() {
-    int hash = 7;
-    hash = 97 * hash + this.pitch.name().hashCode();
-    return hash;
+    return this.hash;
   }
 
+  /**
+   * CptPitchNodes are interned, so equal CptPitchNodes are the same instance.
+   * A CptPitchNode also equals the PitchNode of the same name.
+   *
+   * @param obj
+   * @return true if the same CptPitchNode or a PitchNode of the same name.
+   */
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
       return true;
     }
-    if (obj == null) {
-      return false;
-    }
     if (obj instanceof PitchNode) {
-      return Objects.equals(this.pitch.name(), ((PitchNode) obj).getName());
-    }
-    if (getClass() != obj.getClass()) {
-      return false;
+      return Objects.nonNull(this.pitch)
+              && Objects.equals(this.pitch.name(), ((PitchNode) obj).getName());
     }
-    return this.pitch == ((CptPitchNode) obj).pitch;
+    return false;
   }
 }
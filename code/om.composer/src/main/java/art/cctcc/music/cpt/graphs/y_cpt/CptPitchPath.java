@@ -57,14 +57,24 @@ public class CptPitchPath extends StandardEdge<CptPitchNode> {
     };
   }
 
+  /**
+   * Hash code from the dense ids of the interned endpoints.
+   *
+   * @return hash code.
+   */
   @Override
   public int hashCode() {
 
-    var from = this.getFrom() == null ? 0 : this.getFrom().getPitch().name().hashCode();
-    var to = this.getTo().getPitch().name().hashCode() * 57;
-    return from + to;
+    var from = this.getFrom() == null ? -1 : this.getFrom().getId();
+    return 57 * from + this.getTo().getId();
   }
 
+  /**
+   * CptPitchNodes are interned, so the endpoints are compared by identity.
+   *
+   * @param obj
+   * @return true if a CptPitchPath between the same CptPitchNodes.
+   */
   @Override
   public boolean equals(Object obj) {
 
@@ -75,7 +85,7 @@ public class CptPitchPath extends StandardEdge<CptPitchNode> {
       return true;
     }
     if (obj instanceof CptPitchPath cpp) {
-      return this.getFrom().equals(cpp.getFrom()) && this.getTo().equals(cpp.getTo());
+      return this.getFrom() == cpp.getFrom() && this.getTo() == cpp.getTo();
     }
     return false;
   }
@@ -30,7 +30,7 @@ public class CptPitchSpace extends StandardGraph<CptPitchPath, CptPitchNode> {
 
   private static CptPitchSpace cptps;
 
-  public static CptPitchSpace getInstance() {
+  public static synchronized CptPitchSpace getInstance() {
 
     if (Objects.isNull(cptps)) {
       cptps = new CptPitchSpace();
@@ -37,7 +37,7 @@ public class CptPitchSpaceChromatic extends CptPitchSpace {
 
   private static CptPitchSpaceChromatic cptps;
 
-  public static CptPitchSpaceChromatic getInstance() {
+  public static synchronized CptPitchSpaceChromatic getInstance() {
 
     if (Objects.isNull(cptps)) {
       cptps = new CptPitchSpaceChromatic();
@@ -28,24 +28,23 @@ import static art.cctcc.music.cpt.model.enums.CptPitch.*;
 import static art.cctcc.music.cpt.model.enums.IntervalQuality.*;
 import static art.cctcc.music.utils.CptCalculator.*;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import org.dom4j.DocumentHelper;
-import org.dom4j.io.OutputFormat;
-import org.dom4j.io.XMLWriter;
+import tech.metacontext.ocnhfa.antsomg.impl.AliasTable;
+import tech.metacontext.ocnhfa.antsomg.impl.DepositBuffer;
+import tech.metacontext.ocnhfa.antsomg.impl.Roulette;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.XMLText;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.getRandom;
 import tech.metacontext.ocnhfa.composer.cf.utils.Pair;
 
@@ -59,6 +58,8 @@ public class CptCfPitchSpace extends StandardGraph<CptPitchPath, CptPitchNode> {
   private boolean treble;
   private List<Set<CptPitchPath>> loci;
   private List<CptCadence> cadences;
+  private volatile List<AliasTable<CptPitchPath>[]> frozen_loci;
+  private volatile int[] groups;
 
   private CptPitchSpace y_cpt = CptPitchSpace.getInstance();
 
@@ -123,12 +124,10 @@ public class CptCfPitchSpace extends StandardGraph<CptPitchPath, CptPitchNode> {
     });
     if (this.loci.size() == cf.length()) {
       IntStream.iterate(cf.length() - 2, i -> i >= 0, i -> i - 1)
-              .forEach(locus -> {
-                var dead_ends = this.loci.get(locus).stream()
-                        .filter(path -> this.queryByVertex(locus + 1, path.getTo()).isEmpty())
-                        .collect(Collectors.toList());
-                this.loci.get(locus).removeAll(dead_ends);
-              });
+              .forEach(locus -> this.loci.get(locus).removeIf(
+                      path -> this.queryByVertex(locus + 1, path.getTo()).isEmpty()));
+      this.rebuild(getEdges());
+      this.groups = null;
     } else {
       throw new ImmatureCptCfPitchSpaceException(cf, treble, this.asGraphviz());
     }
@@ -143,16 +142,31 @@ public class CptCfPitchSpace extends StandardGraph<CptPitchPath, CptPitchNode> {
     return matrix.toCount();
   }
 
+  /**
+   * Add the paths as a new locus. Only the paths added to the locus are
+   * attached, so that duplicates do not leave edges outside the loci. The
+   * locus is sized as by HashSet(Collection), which keeps its iteration
+   * order, and thus the seeded results.
+   *
+   * @param paths paths of the new locus.
+   */
   @Override
   public void addEdges(CptPitchPath... paths) {
 
-    loci.add(new HashSet<>(List.of(paths)));
+    loci.add(new HashSet<>(Math.max((int) (paths.length / .75f) + 1, 16)));
+    addEdges(loci.size() - 1, paths);
   }
 
   public void addEdges(int locus, CptPitchPath... paths) {
 
     if (locus < loci.size()) {
-      loci.get(locus).addAll(Arrays.asList(paths));
+      for (var path : paths) {
+        if (loci.get(locus).add(path)) {
+          attach(path);
+        }
+      }
+      this.groups = null;
+      thaw();
     } else {
       this.addEdges();
       this.addEdges(locus, paths);
@@ -169,31 +183,100 @@ public class CptCfPitchSpace extends StandardGraph<CptPitchPath, CptPitchNode> {
   public void setEdges(List<CptPitchPath> edges) {
 
     this.loci = new ArrayList<>();
-    this.loci.add(new HashSet<>(edges));
+    this.addEdges(edges.toArray(CptPitchPath[]::new));
+  }
+
+  /**
+   * Locus of the path, as its group in graph snapshots. Every edge of this
+   * graph is in exactly one locus, as duplicates are not attached and the
+   * dead ends pruned by init_graph() are detached.
+   *
+   * @param edge edge id.
+   * @return locus.
+   */
+  @Override
+  public int getGroup(int edge) {
+
+    var g = this.groups;
+    if (Objects.isNull(g)) {
+      g = new int[getEdgeCount()];
+      for (int i = 0; i < loci.size(); i++) {
+        for (var path : loci.get(i)) {
+          g[path.getId()] = i;
+        }
+      }
+      this.groups = g;
+    }
+    return g[edge];
+  }
+
+  /**
+   * Precompute alias tables for the CptPitchPaths from each pitch at each
+   * locus, indexed by the ids of the CptPitchNodes.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public synchronized void freeze() {
+
+    var tables = new ArrayList<AliasTable<CptPitchPath>[]>();
+    this.loci.forEach(locus -> {
+      var grouped = new HashMap<CptPitchNode, List<CptPitchPath>>();
+      locus.forEach(path -> grouped.computeIfAbsent(path.getFrom(), k -> new ArrayList<>()).add(path));
+      var locus_tables = (AliasTable<CptPitchPath>[]) new AliasTable<?>[CptPitchNode.count()];
+      grouped.forEach((pitch, paths) -> {
+        var table = freeze(paths);
+        if (Objects.nonNull(table) && Objects.nonNull(pitch) && pitch.isInterned()) {
+          locus_tables[pitch.getId()] = table;
+        }
+      });
+      tables.add(locus_tables);
+    });
+    this.frozen_loci = tables;
+  }
+
+  @Override
+  public void thaw() {
+
+    super.thaw();
+    if (Objects.nonNull(this.frozen_loci)) {
+      this.frozen_loci = null;
+    }
+  }
+
+  @Override
+  public boolean isFrozen() {
+
+    return Objects.nonNull(this.frozen_loci);
   }
 
   public CptPitchMove getMove(int locus, CptPitchNode current, double explore_chance) {
 
+    var tables = this.frozen_loci;
+    var table = Objects.isNull(tables) || !current.isInterned() ? null
+            : tables.get(locus)[current.getId()];
+    if (Objects.nonNull(table)) {
+      var paths = table.getItems();
+      var u = getRandom().nextDouble();
+      var isExploring = getRandom().nextDouble() < explore_chance;
+      var selected = isExploring || paths.size() == 1
+              ? paths.get(getRandom().nextInt(paths.size()))
+              : table.get(u);
+      return new CptPitchMove(isExploring, paths, selected);
+    }
     var paths = this.queryByVertex(locus, current);
-    var fractions = new ArrayList<Double>();
-    var sum = paths.stream()
-            .mapToDouble(this::getFraction)
-            .peek(fractions::add)
-            .sum();
-    var r = new AtomicReference<Double>(getRandom().nextDouble() * sum);
+    var fractions = Roulette.buffer(paths.size());
+    var sum = fillFractions(paths, fractions);
+    var r = getRandom().nextDouble() * sum;
     var isExploring = getRandom().nextDouble() < explore_chance;
     var selected = isExploring || paths.size() == 1
             ? paths.get(getRandom().nextInt(paths.size()))
-            : IntStream.range(0, paths.size())
-                    .filter(i -> r.getAndSet(r.get() - fractions.get(i)) < fractions.get(i))
-                    .mapToObj(paths::get)
-                    .findFirst().get();
+            : paths.get(Roulette.select(fractions, paths.size(), r));
     return new CptPitchMove(isExploring, paths, selected);
   }
 
   public CptPitchMove move(CptPitchMove move, double pheromone_deposit) {
 
-    move.getSelected().addPheromoneDeposit(pheromone_deposit);
+    DepositBuffer.deposit(move.getSelected(), pheromone_deposit);
     return move;
   }
 
@@ -226,75 +309,91 @@ public class CptCfPitchSpace extends StandardGraph<CptPitchPath, CptPitchNode> {
   }
 
   @Override
-  public String asGraphviz() {
+  public void writeGraphviz(Writer writer) throws IOException {
 
+    var blank = isBlank();
     var incompleted = loci.size() < cf.length();
-
-    var cluster = IntStream.range(0, loci.size()).mapToObj(i -> String.format(
-            """
-            \tsubgraph cluster_%d {
-            \t\tnode [style=filled];
-            %s
-            \t\tlabel = \"locus #%d\";
-            \t\tcolor=blue
-            \t}""",
-            i,
-            loci.get(i).stream()
-                    .map(p -> String.format("\t\t%s_%d[label=\"%s\"];", p.getTo().getPitch().name(), i, p.getTo().getPitch().name()))
-                    .distinct()
-                    .collect(Collectors.joining("\n")),
-            i))
-            .collect(Collectors.joining("\n"));
-    var body = IntStream.range(1, loci.size()).mapToObj(
-            i -> loci.get(i).stream().map(
-                    path -> isBlank()
-                            ? String.format("\t%s -> %s [ label=<c=%.1f>, penwidth=0.5 ];",
-                                    path.getFrom().getName() + "_" + (i - 1),
-                                    path.getTo().getName() + "_" + i,
-                                    path.getCost())
-                            : String.format("\t%s -> %s [ label=<c=%.1f, pher=%.2f>, penwidth=0.5 ];",
-                                    path.getFrom().getName() + "_" + (i - 1),
-                                    path.getTo().getName() + "_" + i,
-                                    path.getCost(),
-                                    path.getPheromoneTrail()))
-                    .collect(Collectors.joining("\n")))
-            .collect(Collectors.joining("\n"));
-    return String.format("digraph %s {\n\t%s\n\trankdir=LR;\n\tnode [shape=circle];\n%s\n%s\n}",
-            this.getClass().getSimpleName(),
-            String.format("// cantus firmus = %s", this.cf.getMelody().toString())
-            + (incompleted ? String.format("\n\t// Incompleted Graph (cf.length = %d).", cf.length()) : ""),
-            cluster, body);
+    writer.write("digraph " + this.getClass().getSimpleName() + " {\n\t");
+    writer.write(String.format("// cantus firmus = %s", this.cf.getMelody().toString()));
+    if (incompleted) {
+      writer.write(String.format("\n\t// Incompleted Graph (cf.length = %d).", cf.length()));
+    }
+    writer.write("\n\trankdir=LR;\n\tnode [shape=circle];\n");
+    for (int i = 0; i < loci.size(); i++) {
+      if (i > 0) {
+        writer.write('\n');
+      }
+      writer.write(String.format("\tsubgraph cluster_%d {\n\t\tnode [style=filled];\n", i));
+      var names = new LinkedHashSet<String>();
+      for (var p : loci.get(i)) {
+        names.add(p.getTo().getPitch().name());
+      }
+      var separator = "";
+      for (var name : names) {
+        writer.write(separator);
+        writer.write(String.format("\t\t%s_%d[label=\"%s\"];", name, i, name));
+        separator = "\n";
+      }
+      writer.write(String.format("\n\t\tlabel = \"locus #%d\";\n\t\tcolor=blue\n\t}", i));
+    }
+    writer.write('\n');
+    for (int i = 1; i < loci.size(); i++) {
+      if (i > 1) {
+        writer.write('\n');
+      }
+      var separator = "";
+      for (var path : loci.get(i)) {
+        writer.write(separator);
+        writer.write(blank
+                ? String.format("\t%s -> %s [ label=<c=%.1f>, penwidth=0.5 ];",
+                        path.getFrom().getName() + "_" + (i - 1),
+                        path.getTo().getName() + "_" + i,
+                        path.getCost())
+                : String.format("\t%s -> %s [ label=<c=%.1f, pher=%.2f>, penwidth=0.5 ];",
+                        path.getFrom().getName() + "_" + (i - 1),
+                        path.getTo().getName() + "_" + i,
+                        path.getCost(),
+                        path.getPheromoneTrail()));
+        separator = "\n";
+      }
+    }
+    writer.write("\n}");
   }
 
   @Override
-  public String asXML() {
-
-    var doc = DocumentHelper.createDocument();
-    doc.setXMLEncoding("UTF-8");
-    var root = doc.addElement(this.getClass().getSimpleName());
-    IntStream.range(0, this.loci.size()).forEach(i -> {
-      var locus = root.addElement("locus").addAttribute("number", "" + i);
-      this.loci.get(i).stream().forEach(path -> {
-        var edge = locus.addElement("CptPitchPath");
+  public void writeXMLElement(Writer writer, boolean embedded) throws IOException {
+
+    var name = this.getClass().getSimpleName();
+    if (embedded && this.loci.isEmpty()) {
+      writer.write("<" + name + "/>");
+      return;
+    }
+    writer.write("<" + name + ">");
+    for (int i = 0; i < this.loci.size(); i++) {
+      var paths = this.loci.get(i);
+      writer.write("\n  <locus number=\"" + i + "\"");
+      if (paths.isEmpty()) {
+        writer.write(embedded ? "/>" : "></locus>");
+        continue;
+      }
+      writer.write(">");
+      for (var path : paths) {
+        writer.write("\n    <CptPitchPath>");
         if (Objects.nonNull(path.getFrom())) {
-          edge.addElement("from").setText(path.getFrom().getName());
+          writer.write("\n      ");
+          XMLText.element(writer, "from", path.getFrom().getName());
         }
-        edge.addElement("to").setText(path.getTo().getName());
-        edge.addElement("cost").setText(String.valueOf(path.getCost()));
-        edge.addElement("pheromoneTrail").setText(String.valueOf(path.getPheromoneTrail()));
-      });
-    });
-    var format = OutputFormat.createPrettyPrint();
-    format.setExpandEmptyElements(true);
-    format.setSuppressDeclaration(true);
-    var xmlResult = new StringWriter();
-    var writer = new XMLWriter(xmlResult, format);
-    try {
-      writer.write(doc);
-    } catch (IOException ex) {
-      Logger.getLogger(CptCfPitchSpace.class.getName()).log(Level.SEVERE, null, ex);
+        writer.write("\n      ");
+        XMLText.element(writer, "to", path.getTo().getName());
+        writer.write("\n      ");
+        XMLText.element(writer, "cost", String.valueOf(path.getCost()));
+        writer.write("\n      ");
+        XMLText.element(writer, "pheromoneTrail", String.valueOf(path.getPheromoneTrail()));
+        writer.write("\n    </CptPitchPath>");
+      }
+      writer.write("\n  </locus>");
     }
-    return xmlResult.toString();
+    writer.write(this.loci.isEmpty() ? "</" + name + ">" : "\n</" + name + ">");
   }
 
   private boolean hasStylisticDepartures(CptPitchPath path, int locus) {
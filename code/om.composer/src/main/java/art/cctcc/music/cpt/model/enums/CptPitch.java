@@ -45,7 +45,7 @@ public enum CptPitch {
   private CptPitch(int chromatic_number) {
 
     this.chromatic_number = chromatic_number;
-    this.node = new CptPitchNode(this);
+    this.node = CptPitchNode.of(this);
   }
 
   public CptPitchNode getNode() {
@@ -40,9 +40,11 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpointer;
 
 /**
  *
@@ -112,22 +114,35 @@ public class MotetStudio {
               }
               composer.setParallel(settings.parallel);
               composer.setChromatic(settings.chromatic);
+              composer.setUpdate_rule(settings.update_rule);
               composer.init_graphs();
               composer.getGraph().setFraction_mode(settings.fraction_mode);
             })
             .collect(Collectors.toList());
   }
 
-  public void developSchemePlanners() {
+  public void developSchemePlanners() throws IOException {
 
-    this.motet_composers.stream()
-            .peek(c -> System.out.printf("Developing scheme planner of %s ...\n", c.getId()))
-            .forEach(motet_composer -> {
-              motet_composer.init_population();
-              do {
-                motet_composer.navigate();
-              } while (!motet_composer.isAimAchieved());
-            });
+    this.motet_composers.forEach(motet_composer -> {
+      motet_composer.init_population();
+      motet_composer.setBatched(settings.batched);
+    });
+    if (Objects.nonNull(settings.resume)) {
+      System.out.println("Resuming scheme planners from " + settings.resume);
+      for (int i = 0; i < this.motet_composers.size(); i++) {
+        Checkpointer.resume(settings.resume, "planner-" + i, this.motet_composers.get(i));
+      }
+      Checkpointer.resumeRandom(settings.resume);
+    }
+    var directory = Objects.isNull(settings.checkpoint) ? settings.resume : settings.checkpoint;
+    try (var checkpointer = Objects.isNull(directory) ? null
+            : new Checkpointer(directory, settings.checkpoint_interval)) {
+      for (int i = 0; i < this.motet_composers.size(); i++) {
+        var motet_composer = this.motet_composers.get(i);
+        System.out.printf("Developing scheme planner of %s ...\n", motet_composer.getId());
+        motet_composer.develop(settings.convergence, checkpointer, "planner-" + i);
+      }
+    }
   }
 
   public void planSchemes() {
@@ -19,35 +19,61 @@ import static art.cctcc.music.Parameters.*;
 import art.cctcc.music.cpt.graphs.x.CptMusicSpace;
 import art.cctcc.music.cpt.model.CptCantusFirmus;
 import art.cctcc.music.motet.graphs.SectionGraph;
+import art.cctcc.music.motet.graphs.SectionNode;
+import art.cctcc.music.motet.graphs.SectionPath;
 import art.cctcc.music.motet.model.Motet;
 import art.cctcc.music.motet.model.enums.MotetComposerType;
 import static art.cctcc.music.motet.model.enums.MotetComposerType.*;
+import art.cctcc.music.motet.model.enums.SectionType;
 import static art.cctcc.music.motet.model.enums.SectionType.*;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import static java.util.function.Predicate.not;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Decoder;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Encoder;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpointer;
+import tech.metacontext.ocnhfa.antsomg.impl.CompletionPublisher;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor.StopPolicy;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine;
+import tech.metacontext.ocnhfa.antsomg.impl.NavigationEngine.ExecutionMode;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.UpdateRule;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.EVAPORATE_RATE;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.EXPLORE_CHANCE;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.PHEROMONE_DEPOSIT;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.nextStream;
+import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.withRandom;
 import tech.metacontext.ocnhfa.antsomg.model.AntsOMGSystem;
 import tech.metacontext.ocnhfa.antsomg.model.Graph;
+import tech.metacontext.ocnhfa.antsomg.model.Instrumentation;
 
 /**
  *
  * @author Jonathan Chang, Chun-yien <ccy@musicapoetica.org>
  */
-public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
+public class MotetComposer implements AntsOMGSystem<SectionPlanner>, Checkpoint.State,
+        NavigationEngine.Step<SectionPlanner> {
+
+  private static SectionGraph section_graph;
 
   private final String id;
   private SectionGraph graph;
   private List<SectionPlanner> threads;
+  private CompletionPublisher<SectionPlanner> publisher = new CompletionPublisher<>();
 
   private MotetComposerType type;
   private int population;
@@ -61,10 +87,19 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
 
   private boolean chromatic;
 
+  private int iteration;
+
+  private boolean settled;
+
+  private UpdateRule update_rule = UpdateRule.STANDARD;
+
+  private final NavigationEngine<SectionPlanner> engine
+          = NavigationEngine.of(this).setShared_random(true);
+
   public MotetComposer(String id) {
 
     this.id = id;
-    this.x = new HashMap<>();
+    this.x = new ConcurrentHashMap<>();
     this.setType(DEVELOP);
   }
 
@@ -93,15 +128,19 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
 
   public void compose(List<CptCantusFirmus> cf_list) {
 
-    StreamSupport.stream(this.motets.spliterator(), parallel)
-            .forEach(motet -> {
+    var random = nextStream();
+    var indices = IntStream.range(0, this.motets.size());
+    (parallel ? indices.parallel() : indices)
+            .forEach(i -> withRandom(random.fork(i), () -> {
+              var motet = this.motets.get(i);
               motet.setGraph_x(x);
               motet.select_cf(cf_list);
               motet.setTest(this.type == TEST);
               motet.setParallel(parallel);
               motet.setChromatic(chromatic);
+              motet.setUpdate_rule(update_rule);
               motet.compose();
-            });
+            }));
   }
 
   private SectionPlanner _getPlan() {
@@ -131,13 +170,30 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
   @Override
   public void init_graphs() {
 
-    graph = new SectionGraph();
-    graph.init_graph();
+    graph = new SectionGraph(sectionGraph());
+  }
+
+  /**
+   * SectionGraph whose topology is shared by the graphs of all composers,
+   * each with its own pheromone trails.
+   *
+   * @return SectionGraph
+   */
+  private static synchronized SectionGraph sectionGraph() {
+
+    if (Objects.isNull(section_graph)) {
+      section_graph = new SectionGraph();
+      section_graph.init_graph();
+    }
+    return section_graph;
   }
 
   @Override
   public void init_population() {
 
+    if (this.publisher.isClosed()) {
+      this.publisher = new CompletionPublisher<>();
+    }
     threads = Stream.generate(SectionPlanner::new)
             .limit(population)
             .collect(Collectors.toList());
@@ -146,26 +202,175 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
   @Override
   public void navigate() {
 
-    this.threads.stream()
+    var count = this.iteration++;
+    var start = Instrumentation.clock();
+    Instrumentation.iterationStarted(this, count);
+    var planners = this.threads.stream()
             .filter(not(SectionPlanner::isCompleted))
-            .forEach(thread -> {
-              var trace = thread.getCurrentTrace();
-              var move = graph.move(trace.getMove().getSelected().getTo(),
-                      pheromone_deposit, EXPLORE_CHANCE);
-              thread.setCurrentTrace(new SectionTrace(move));
-              if (FINISH.node.equals(move.getSelected().getTo())) {
-                thread.setCompleted(true);
-              }
-            });
+            .collect(Collectors.toList());
+    this.engine.navigate(planners);
     this.evaporate();
+    publish(planners);
+    Instrumentation.iterationEnded(this, count, start);
+  }
+
+  /**
+   * Publish the planners completed among the given ones, and complete the
+   * publisher once all planners are completed.
+   *
+   * @param planners planners just navigated.
+   */
+  private void publish(List<SectionPlanner> planners) {
+
+    if (this.publisher.isClosed()) {
+      return;
+    }
+    this.publisher.publish(planners);
+    if (isAimAchieved()) {
+      this.publisher.close();
+    }
+  }
+
+  /**
+   * Move the planner one section on, as a step of the NavigationEngine.
+   *
+   * @param thread planner not completed yet.
+   */
+  @Override
+  public void step(SectionPlanner thread) {
+
+    advance(thread, graph.move(thread.getCurrentTrace().getNode(),
+            pheromone_deposit, EXPLORE_CHANCE));
+  }
+
+  /**
+   * Move the planners on the same section node together, as the group step
+   * of the NavigationEngine if batched.
+   *
+   * @param planners planners not completed yet.
+   */
+  private void batch(List<? extends SectionPlanner> planners) {
+
+    var groups = new LinkedHashMap<SectionNode, List<SectionPlanner>>();
+    planners.forEach(thread -> groups.computeIfAbsent(
+            thread.getCurrentTrace().getNode(), node -> new ArrayList<>()).add(thread));
+    groups.forEach((node, members) -> {
+      var batch = graph.moveAll(node, members.size(),
+              pheromone_deposit, EXPLORE_CHANCE, true);
+      for (int i = 0; i < members.size(); i++) {
+        advance(members.get(i), batch.getMove(i));
+      }
+    });
+  }
+
+  private void advance(SectionPlanner thread, StandardMove<SectionPath> move) {
+
+    Instrumentation.moved(this, "section", move);
+    thread.setCurrentTrace(new SectionTrace(move));
+    if (FINISH.node.equals(move.getSelected().getTo())) {
+      thread.setCompleted(true);
+    }
+  }
+
+  /**
+   * Navigate until the aim is achieved. With a stop policy, the composer is
+   * settled once the section graph converged, and the remaining planners
+   * finish on the frozen graph.
+   *
+   * @param policy stop policy, or null to develop until the aim is achieved.
+   */
+  public void develop(StopPolicy policy) {
+
+    this.develop(policy, null, null);
+  }
+
+  /**
+   * Navigate until the aim is achieved, taking checkpoints with the
+   * checkpointer. A composer resumed from a checkpoint continues with a new
+   * convergence monitor, if any.
+   *
+   * @param policy stop policy, or null to develop until the aim is achieved.
+   * @param checkpointer checkpointer, or null.
+   * @param name name of the composer in the checkpoints.
+   */
+  public void develop(StopPolicy policy, Checkpointer checkpointer, String name) {
+
+    var monitor = Objects.isNull(policy) ? null : new ConvergenceMonitor(policy, this.graph);
+    publish(this.threads);
+    while (!this.isAimAchieved()) {
+      this.navigate();
+      if (Objects.nonNull(monitor) && !monitor.isConverged() && monitor.update()) {
+        Logger.getLogger(MotetComposer.class.getName()).log(Level.INFO,
+                "Section graph converged after {0} iterations, entropy = {1}",
+                new Object[]{monitor.getIterations(), monitor.getEntropy()});
+        this.settle();
+      }
+      if (Objects.nonNull(checkpointer)) {
+        checkpointer.iterated(name, this);
+      }
+    }
+    if (Objects.nonNull(checkpointer)) {
+      checkpointer.checkpoint(name, this);
+    }
+  }
+
+  @Override
+  public void writeState(Encoder out) throws IOException {
+
+    out.writeInt(this.iteration);
+    out.writeBoolean(this.settled);
+    out.writeDouble(this.pheromone_deposit);
+    out.writeBoolean(this.graph.isFrozen());
+    out.writeSize(this.threads.size());
+    for (var thread : this.threads) {
+      thread.writeState(out);
+    }
+  }
+
+  /**
+   * Restore the state written by writeState(), replacing the planners. The
+   * section graph is frozen again if it was, so its fraction mode should be
+   * set beforehand.
+   *
+   * @param in
+   * @throws IOException
+   */
+  @Override
+  public void readState(Decoder in) throws IOException {
+
+    this.iteration = in.readInt();
+    this.settled = in.readBoolean();
+    this.pheromone_deposit = in.readDouble();
+    var frozen = in.readBoolean();
+    var nodes = Checkpoint.vertices(this.graph, name -> SectionType.valueOf(name).node);
+    var paths = Checkpoint.edges(this.graph, (from, to) -> new SectionPath(from, to, 0));
+    var size = in.readSize();
+    this.threads = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      this.threads.add(SectionPlanner.readState(in, nodes, paths));
+    }
+    if (frozen) {
+      this.graph.freeze();
+    }
+  }
+
+  /**
+   * Stop the pheromone update and freeze the section graph.
+   */
+  public void settle() {
+
+    this.pheromone_deposit = 0.0;
+    this.settled = true;
+    this.graph.freeze();
   }
 
   @Override
   public void evaporate() {
 
-    if (type == DEVELOP) {
-      this.graph.getEdges()
-              .forEach(edge -> edge.evaporate(EVAPORATE_RATE));
+    if (type == DEVELOP && !settled) {
+      var start = Instrumentation.clock();
+      this.graph.evaporate(EVAPORATE_RATE);
+      Instrumentation.evaporated(this, start);
     }
   }
 
@@ -178,7 +383,7 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
   @Override
   public Map<String, ? extends Graph> getGraphs() {
 
-    return Map.of("", this.graph);
+    return Map.of("section", this.graph);
   }
 
   @Override
@@ -187,6 +392,20 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
     return this.threads;
   }
 
+  /**
+   * Publisher of the section planners as they complete, after every
+   * navigate(). The publisher is closed once the aim is achieved, and renewed
+   * by init_population(). Planners already completed, e.g. restored from a
+   * checkpoint, are published when develop() starts.
+   *
+   * @return publisher of the completed planners.
+   */
+  @Override
+  public CompletionPublisher<SectionPlanner> getPublisher() {
+
+    return this.publisher;
+  }
+
   public String getId() {
 
     return id;
@@ -205,6 +424,7 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
   public final void setType(MotetComposerType type) {
 
     this.type = type;
+    this.settled = false;
     switch (type) {
       case DEVELOP -> {
         population = PLANNER_DEVELOPING_POPULATION;
@@ -241,6 +461,50 @@ public class MotetComposer implements AntsOMGSystem<SectionPlanner> {
     this.chromatic = chromatic;
   }
 
+  /**
+   * Select the pheromone update rule of the counterpoint composers of the
+   * motets, see PheromoneUpdate. The section graph keeps the Standard rule:
+   * a section plan is only qualified or not, so there is no quality to rank
+   * the planners by.
+   *
+   * @param update_rule
+   */
+  public void setUpdate_rule(UpdateRule update_rule) {
+
+    this.update_rule = update_rule;
+  }
+
+  /**
+   * Move the planners on the same section node together with
+   * StandardGraph.moveAll(), which draws the random numbers in a different
+   * order than moving them one by one.
+   *
+   * @param batched whether to navigate in batches.
+   */
+  public void setBatched(boolean batched) {
+
+    this.engine.setGroup_step(batched ? this::batch : null);
+  }
+
+  public ExecutionMode getMode() {
+
+    return this.engine.getMode();
+  }
+
+  /**
+   * Select the execution mode of the NavigationEngine stepping the planners,
+   * Sequential by default. The parallel modes step the planners with streams
+   * derived per planner, so their results differ from those of Sequential
+   * mode with the same seed. Batched planners are always moved together on
+   * the calling thread.
+   *
+   * @param mode execution mode.
+   */
+  public void setMode(ExecutionMode mode) {
+
+    this.engine.setMode(mode);
+  }
+
   @Override
   public String toString() {
 
@@ -18,8 +18,13 @@ package art.cctcc.music.motet.framework;
 import art.cctcc.music.motet.graphs.SectionNode;
 import art.cctcc.music.motet.graphs.SectionPath;
 import static art.cctcc.music.motet.model.enums.SectionType.CF;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Decoder;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpoint.Encoder;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
 import tech.metacontext.ocnhfa.antsomg.model.Ant;
 
@@ -39,7 +44,7 @@ public class SectionPlanner implements Ant<SectionTrace>, Comparable {
 
     var move = new StandardMove<SectionPath>(new SectionPath(null, node, 0));
     this.currentTrace = new SectionTrace(move);
-    this.route = new ArrayList<>();
+    this.route = SectionTrace.ROUTE_CODEC.newRoute();
     this.sections = new ArrayList<>();
   }
 
@@ -48,6 +53,46 @@ public class SectionPlanner implements Ant<SectionTrace>, Comparable {
     this(CF.node);
   }
 
+  /**
+   * Write the state of the planner into a checkpoint: the current move, and
+   * the route as the SectionNodes visited.
+   *
+   * @param out
+   * @throws IOException
+   */
+  public void writeState(Encoder out) throws IOException {
+
+    out.writeBoolean(this.completed);
+    out.writeMove(this.currentTrace.getMove());
+    out.writeSize(this.sections.size());
+    for (var section : this.sections) {
+      out.writeVertex(section);
+    }
+  }
+
+  /**
+   * Read a planner written by writeState().
+   *
+   * @param in
+   * @param nodes SectionNode of a name.
+   * @param paths SectionPath of the endpoints.
+   * @return SectionPlanner
+   * @throws IOException
+   */
+  public static SectionPlanner readState(Decoder in, Function<String, SectionNode> nodes,
+          BiFunction<SectionNode, SectionNode, SectionPath> paths) throws IOException {
+
+    var planner = new SectionPlanner();
+    planner.completed = in.readBoolean();
+    planner.currentTrace = new SectionTrace(in.readMove(nodes, paths));
+    for (int i = in.readSize(); i > 0; i--) {
+      var section = in.readVertex(nodes);
+      planner.route.add(new SectionTrace(section));
+      planner.sections.add(section);
+    }
+    return planner;
+  }
+
   @Override
   public List<SectionTrace> getRoute() {
 
@@ -71,7 +116,7 @@ public class SectionPlanner implements Ant<SectionTrace>, Comparable {
   public void addCurrentTraceToRoute() {
 
     this.route.add(currentTrace);
-    this.sections.add(currentTrace.getMove().getSelected().getTo());
+    this.sections.add(currentTrace.getNode());
   }
 
   @Override
@@ -15,7 +15,9 @@
  */
 package art.cctcc.music.motet.framework;
 
+import art.cctcc.music.motet.graphs.SectionNode;
 import art.cctcc.music.motet.graphs.SectionPath;
+import tech.metacontext.ocnhfa.antsomg.impl.CompactRoute;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardMove;
 import tech.metacontext.ocnhfa.antsomg.model.Trace;
 import tech.metacontext.ocnhfa.antsomg.model.Vertex;
@@ -26,28 +28,66 @@ import tech.metacontext.ocnhfa.antsomg.model.Vertex;
  */
 public class SectionTrace implements Trace {
 
+  /**
+   * Codec of the compact routes of SectionPlanners, which materializes the
+   * traces of a route from their SectionNodes alone.
+   */
+  public static final CompactRoute.Codec<SectionTrace> ROUTE_CODEC
+          = new CompactRoute.Codec<>(1, vertices -> new SectionTrace((SectionNode) vertices[0]));
+
   private final StandardMove<SectionPath> move;
+  private final SectionNode node;
 
   public SectionTrace(StandardMove<SectionPath> move) {
 
     this.move = move;
+    this.node = move.getSelected().getTo();
+  }
+
+  /**
+   * Constructor of a SectionTrace visiting the node without a move, e.g. a
+   * trace materialized from a compact route.
+   *
+   * @param node visited SectionNode.
+   */
+  public SectionTrace(SectionNode node) {
+
+    this.move = null;
+    this.node = node;
   }
 
   @Override
   public Vertex getDimension(String dimension) {
 
-    return this.move.getSelected().getTo();
+    return this.node;
   }
 
+  @Override
+  public Vertex getDimension(int dimension) {
+
+    return dimension == 0 ? this.node : null;
+  }
+
+  /**
+   * Move of the trace.
+   *
+   * @return StandardMove, or null if the trace was materialized from a
+   * compact route.
+   */
   public StandardMove<SectionPath> getMove() {
 
     return move;
   }
 
+  public SectionNode getNode() {
+
+    return node;
+  }
+
   @Override
   public String toString() {
 
-    return "SectionTrace{" + "move=" + move + '}';
+    return "SectionTrace{" + "move=" + move + ", node=" + node + '}';
   }
 
 }
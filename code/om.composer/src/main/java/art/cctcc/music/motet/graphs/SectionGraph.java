@@ -17,6 +17,8 @@ package art.cctcc.music.motet.graphs;
 
 import static art.cctcc.music.Parameters.*;
 import static art.cctcc.music.motet.model.enums.SectionType.*;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.stream.Collectors;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph;
 
@@ -36,6 +38,18 @@ public class SectionGraph extends StandardGraph<SectionPath, SectionNode> {
     super();
   }
 
+  /**
+   * Constructor of a SectionGraph sharing the topology of another one, and its
+   * pheromone trails until the first deposit or evaporation of either graph,
+   * which copies them first.
+   *
+   * @param topology initialized SectionGraph whose topology is shared.
+   */
+  public SectionGraph(SectionGraph topology) {
+
+    super(topology);
+  }
+
   @Override
   public void init_graph() {
 
@@ -66,13 +80,13 @@ public class SectionGraph extends StandardGraph<SectionPath, SectionNode> {
   }
 
   @Override
-  public String asGraphviz() {
+  public void writeGraphviz(Writer writer) throws IOException {
 
     var developed = getEdges().stream()
             .map(SectionPath::getPheromoneTrail)
             .anyMatch(ph -> ph > 0.0);
 
-    return String.format("""
+    writer.write(String.format("""
                          digraph %s {
                          \trankdir=LR;
                          \tnodesep=0.6;
@@ -107,6 +121,6 @@ public class SectionGraph extends StandardGraph<SectionPath, SectionNode> {
                             : String.format("\t%s -> %s [%s=<c=%.1f>, fontsize=10];", o)
             ).collect(Collectors.joining("\n")),
             CPT_TREBLE.name(),
-            CPT_BASS.name());
+            CPT_BASS.name()));
   }
 }
@@ -17,6 +17,7 @@ package art.cctcc.music.motet.graphs;
 
 import art.cctcc.music.motet.model.enums.SectionType;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardVertex;
+import tech.metacontext.ocnhfa.antsomg.impl.VertexRegistry;
 
 /**
  *
@@ -24,9 +25,23 @@ import tech.metacontext.ocnhfa.antsomg.impl.StandardVertex;
  */
 public class SectionNode extends StandardVertex {
 
+  private static final VertexRegistry<SectionType, SectionNode> REGISTRY
+          = new VertexRegistry<>(SectionNode::new);
+
   public final SectionType type;
 
-  public SectionNode(SectionType type) {
+  /**
+   * Canonical SectionNode of the section type, the same as SectionType.node.
+   *
+   * @param type
+   * @return SectionNode
+   */
+  public static SectionNode of(SectionType type) {
+
+    return REGISTRY.intern(type);
+  }
+
+  private SectionNode(SectionType type) {
 
     super(type.name());
     this.type = type;
@@ -45,23 +60,16 @@ public class SectionNode extends StandardVertex {
     return hash;
   }
 
+  /**
+   * SectionNodes are interned, so equal SectionNodes are the same instance.
+   *
+   * @param obj
+   * @return true if the same SectionNode.
+   */
   @Override
   public boolean equals(Object obj) {
 
-    if (this == obj) {
-      return true;
-    }
-    if (obj == null) {
-      return false;
-    }
-    if (getClass() != obj.getClass()) {
-      return false;
-    }
-    final SectionNode other = (SectionNode) obj;
-    if (this.type != other.type) {
-      return false;
-    }
-    return true;
+    return this == obj;
   }
 
 }
@@ -34,6 +34,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.UpdateRule;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.getRandom;
 import static tech.metacontext.ocnhfa.composer.cf.model.Parameters.LINE;
 
@@ -52,6 +53,7 @@ public class Motet {
   private boolean test;
   private boolean parallel;
   private boolean chromatic;
+  private UpdateRule update_rule = UpdateRule.STANDARD;
 
   public Motet(int number, List<SectionNode> scheme) {
 
@@ -94,6 +96,11 @@ public class Motet {
     this.chromatic = chromatic;
   }
 
+  public void setUpdate_rule(UpdateRule update_rule) {
+
+    this.update_rule = update_rule;
+  }
+
   public void compose() {
 
     System.out.println(this);
@@ -115,13 +122,14 @@ public class Motet {
                   .map(AtomicReference::get)
                   .peek(cpt_composer -> cpt_composer.setParallel(this.parallel))
                   .peek(cpt_composer -> cpt_composer.setChromatic(this.chromatic))
+                  .peek(cpt_composer -> cpt_composer.setUpdate_rule(this.update_rule))
                   .peek(CptComposer::init_graphs)
                   .peek(cpt_composer -> {
                     if (graph_x.containsKey(cpt_composer.getId())) {
                       cpt_composer.setX(graph_x.get(cpt_composer.getId()));
                       cpt_composer.setTask(DEVELOP_SECONDARY);
                     } else if (graph_x.containsKey("PRESET")) {
-                      cpt_composer.setX(graph_x.get("PRESET").duplicate());
+                      cpt_composer.setX(graph_x.get("PRESET").fork());
                     }
                     if (test) {
                       cpt_composer.setPopulation(CPT_TESTING_POPULATION);
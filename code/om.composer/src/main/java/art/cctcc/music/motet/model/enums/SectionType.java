@@ -30,7 +30,7 @@ public enum SectionType {
 
   SectionType(String abbr) {
 
-    this.node = new SectionNode(this);
+    this.node = SectionNode.of(this);
     this.abbr = abbr;
   }
 
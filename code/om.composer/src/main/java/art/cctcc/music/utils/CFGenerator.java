@@ -31,6 +31,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardMove.Recording;
+import tech.metacontext.ocnhfa.antsomg.impl.StandardParameters;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.initialization;
 import tech.metacontext.ocnhfa.composer.cf.ec.ECStudio;
 import static tech.metacontext.ocnhfa.composer.cf.model.Parameters.LINE;
@@ -156,6 +158,8 @@ public class CFGenerator {
     var folder = props.getProperty("FOLDER").isBlank()
             ? null : props.getProperty("FOLDER");
 
+    // Routes of the selected cantus firmi are saved with their pheromone.
+    StandardParameters.RECORDING = Recording.Compact;
     var cf_studio = new ECStudio(
             ComposerType.COMPOSE_STATIC,
             threshold, generation,
@@ -21,12 +21,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import static java.util.function.Predicate.not;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import tech.metacontext.ocnhfa.antsomg.impl.Checkpointer;
+import tech.metacontext.ocnhfa.antsomg.impl.ConvergenceMonitor.StopPolicy;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.Rule;
+import tech.metacontext.ocnhfa.antsomg.impl.PheromoneUpdate.UpdateRule;
 import tech.metacontext.ocnhfa.antsomg.impl.StandardGraph.FractionMode;
 import static tech.metacontext.ocnhfa.antsomg.impl.StandardParameters.initialization;
 import tech.metacontext.ocnhfa.composer.cf.model.Parameters;
@@ -50,13 +55,27 @@ public class Settings {
   public final boolean parallel;
   public final boolean check_cf;
   public final boolean chromatic; // ICCC
+  public final StopPolicy convergence;
+  public final boolean batched;
+  public final UpdateRule update_rule;
+  public final Path checkpoint;
+  public final int checkpoint_interval;
+  public final Path resume;
 
   /**
    * Advanced parameters:<br>
    * SEED=(Long) RANDOM*<br>
    * FRACTION_MODE=Power | Coefficient* | Power_Multiply<br>
    * PARALLEL<br>
-   * CHECK_CF
+   * CHECK_CF<br>
+   * CONVERGENCE=epsilon[:patience[:Distribution | Trail]]<br>
+   * BATCHED<br>
+   * UPDATE_RULE=Standard* | MaxMin[:min[:max]] | RankBased[:rank] |
+   * Elitist[:weight] pheromone update rule of the counterpoint composers<br>
+   * CHECKPOINT=(Path) directory to save checkpoints of the scheme planners
+   * into<br>
+   * CHECKPOINT_INTERVAL=(Integer) 10*<br>
+   * RESUME=(Path) directory to resume from, with the same SEED and settings
    */
   public static final String HELP = """
           Basic Parameters:
@@ -88,6 +107,20 @@ public class Settings {
 
     this.parallel = getParam(params, "PARALLEL", false, v -> true);
 
+    this.convergence = getParam(params, "CONVERGENCE", null, StopPolicy::valueOf);
+
+    this.batched = getParam(params, "BATCHED", false, v -> true);
+
+    this.update_rule = getParam(params, "UPDATE_RULE", UpdateRule.STANDARD,
+            UpdateRule::valueOf);
+
+    this.checkpoint = getParam(params, "CHECKPOINT", null, Path::of);
+
+    this.checkpoint_interval = getParam(params, "CHECKPOINT_INTERVAL",
+            Checkpointer.DEFAULT_INTERVAL, Integer::valueOf);
+
+    this.resume = getParam(params, "RESUME", null, Path::of);
+
     this.fraction_mode
             = getParam(params, "FRACTION_MODE", Parameters.DEFAULT_FRACTION_MODE,
                     FractionMode::valueOf);
@@ -127,6 +160,17 @@ public class Settings {
     parallel = Boolean.valueOf(props.getProperty("PARALLEL"));
     check_cf = Boolean.valueOf(props.getProperty("CHECK_CF"));
     chromatic = Boolean.valueOf(props.getProperty("CHROMATIC")); //ICCC
+    convergence = props.containsKey("CONVERGENCE")
+            ? StopPolicy.valueOf(props.getProperty("CONVERGENCE")) : null;
+    batched = Boolean.valueOf(props.getProperty("BATCHED"));
+    update_rule = props.containsKey("UPDATE_RULE")
+            ? UpdateRule.valueOf(props.getProperty("UPDATE_RULE")) : UpdateRule.STANDARD;
+    checkpoint = props.containsKey("CHECKPOINT")
+            ? Path.of(props.getProperty("CHECKPOINT")) : null;
+    checkpoint_interval = Integer.valueOf(props.getProperty("CHECKPOINT_INTERVAL",
+            "" + Checkpointer.DEFAULT_INTERVAL));
+    resume = props.containsKey("RESUME")
+            ? Path.of(props.getProperty("RESUME")) : null;
   }
 
   public Path saveSetting() {
@@ -150,6 +194,22 @@ public class Settings {
       props.put("PARALLEL", "" + parallel);
       props.put("CHECK_CF", "" + check_cf);
       props.put("CHROMATIC", "" + chromatic); //ICCC
+      if (Objects.nonNull(convergence)) {
+        props.put("CONVERGENCE", "" + convergence);
+      }
+      if (batched) {
+        props.put("BATCHED", "" + batched);
+      }
+      if (update_rule.rule() != Rule.Standard) {
+        props.put("UPDATE_RULE", "" + update_rule);
+      }
+      if (Objects.nonNull(checkpoint)) {
+        props.put("CHECKPOINT", "" + checkpoint);
+        props.put("CHECKPOINT_INTERVAL", "" + checkpoint_interval);
+      }
+      if (Objects.nonNull(resume)) {
+        props.put("RESUME", "" + resume);
+      }
       try (var os = new FileOutputStream(project_folder.resolve(SETTINGS_FILENAME).toFile())) {
         props.storeToXML(os, toString());
       }
@@ -172,12 +232,25 @@ public class Settings {
             FRACTION_MODE=%s""",
             project_name, seed, composer_no, motet_no_per_composer,
             cf_project_folder, cf_model_folder, fraction_mode);
-    if (test || parallel || chromatic) {
+    if (Objects.nonNull(convergence)) {
+      output += "\nCONVERGENCE=" + convergence;
+    }
+    if (update_rule.rule() != Rule.Standard) {
+      output += "\nUPDATE_RULE=" + update_rule;
+    }
+    if (Objects.nonNull(checkpoint)) {
+      output += "\nCHECKPOINT=" + checkpoint + "\nCHECKPOINT_INTERVAL=" + checkpoint_interval;
+    }
+    if (Objects.nonNull(resume)) {
+      output += "\nRESUME=" + resume;
+    }
+    if (test || parallel || chromatic || batched) {
       output += "\n" + Stream.of(
               test ? "TEST" : "",
               parallel ? "PARALLEL" : "",
               check_cf ? "CHECK_CF" : "",
-              chromatic ? "CHROMATIC" : "" //ICCC
+              chromatic ? "CHROMATIC" : "", //ICCC
+              batched ? "BATCHED" : ""
       )
               .filter(not(String::isBlank))
               .collect(Collectors.joining(" "));
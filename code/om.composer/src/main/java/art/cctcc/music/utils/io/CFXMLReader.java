@@ -38,6 +38,7 @@ import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
+import tech.metacontext.ocnhfa.antsomg.impl.GraphSnapshot;
 import tech.metacontext.ocnhfa.composer.cf.model.enums.*;
 
 /**
@@ -56,8 +57,29 @@ public class CFXMLReader {
     return cf;
   }
 
+  /**
+   * CptMusicSpace with the pheromone trails, and optionally the costs, of the
+   * MusicSpace of a cf composer, read from the snapshot graph_x.aomg next to
+   * its composer.xml if any, otherwise from the composer.xml.
+   *
+   * @param xml_source composer.xml of the cf composer.
+   * @param dupeCost whether to duplicate the costs as well.
+   * @return CptMusicSpace.
+   */
   public static CptMusicSpace getCptMusicSpaceFromCFComposer(File xml_source, boolean dupeCost) {
 
+    var snapshot = new File(xml_source.getParentFile(), "graph_x" + GraphSnapshot.EXTENSION);
+    if (snapshot.isFile()) {
+      try {
+        System.out.println("Setting CptMusicSpace from " + snapshot.getName() + "...");
+        var cptMusicSpace = new CptMusicSpace();
+        cptMusicSpace.init_graph();
+        GraphSnapshot.read(snapshot.toPath()).restore(cptMusicSpace, dupeCost);
+        return cptMusicSpace;
+      } catch (IOException ex) {
+        Logger.getLogger(CFXMLReader.class.getName()).log(Level.WARNING, null, ex);
+      }
+    }
     var root = XMLReader(xml_source).getRootElement();
     assert "CFComposer".equals(root.getName());
     System.out.println("Setting CptMusicSpace...");